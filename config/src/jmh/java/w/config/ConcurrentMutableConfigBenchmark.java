@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение из 32 потоков при редких изменениях из одного потока.
+ *
+ * @author whilein
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConcurrentMutableConfigBenchmark {
+
+    MutableConfig config;
+
+    int counter;
+
+    @Setup
+    public void setup() {
+        val provider = JacksonConfigProvider.create(new ObjectMapper());
+
+        config = ConcurrentMutableConfig.from(provider, provider.parse("""
+                {
+                  "db": { "host": "localhost", "port": 5432 },
+                  "limits": { "rate": "1.5", "burst": 100 },
+                  "name": "service"
+                }
+                """));
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(32)
+    public void read(final Blackhole bh) {
+        bh.consume(config.getObject("db").getInt("port"));
+        bh.consume(config.getObject("limits").getDouble("rate"));
+        bh.consume(config.getString("name"));
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public void write() throws InterruptedException {
+        config.getObject("limits").set("burst", counter++);
+
+        // изменения редкие, основная нагрузка приходится на чтение
+        TimeUnit.MICROSECONDS.sleep(100);
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(32)
+    public void readOnly(final Blackhole bh) {
+        bh.consume(config.getObject("db").getInt("port"));
+        bh.consume(config.getObject("limits").getDouble("rate"));
+        bh.consume(config.getString("name"));
+    }
+
+}
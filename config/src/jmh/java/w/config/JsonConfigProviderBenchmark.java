@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор JSON через {@link JsonConfigProvider} и {@link JacksonConfigProvider}
+ * на документах разного размера.
+ *
+ * @author whilein
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class JsonConfigProviderBenchmark {
+
+    @Param({"1024", "1048576", "52428800"})
+    int size;
+
+    byte[] document;
+
+    ConfigProvider json;
+
+    ConfigProvider jackson;
+
+    @Setup
+    public void setup() {
+        json = JsonConfigProvider.create();
+        jackson = JacksonConfigProvider.create(new ObjectMapper());
+
+        document = generate(size);
+    }
+
+    @Benchmark
+    public MutableConfig json() {
+        return json.parse(document);
+    }
+
+    @Benchmark
+    public MutableConfig jackson() {
+        return jackson.parse(document);
+    }
+
+    private static byte[] generate(final int size) {
+        val result = new StringBuilder(size + 256);
+        result.append("{\"name\":\"service\",\"servers\":[");
+
+        for (int i = 0; result.length() < size - 128; i++) {
+            if (i != 0) {
+                result.append(',');
+            }
+
+            result.append("{\"id\":").append(i)
+                    .append(",\"host\":\"host-").append(i).append(".example.com\"")
+                    .append(",\"port\":").append(8000 + i % 1000)
+                    .append(",\"weight\":").append(i % 100 / 10.0)
+                    .append(",\"enabled\":").append(i % 3 != 0)
+                    .append(",\"tags\":[\"primary\",\"eu\"]}");
+        }
+
+        result.append("],\"limits\":{\"rate\":1.5,\"burst\":100}}");
+
+        return result.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,526 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.module.SimpleModule;
+import w.config.deserializer.ConfigDeserializer;
+import w.config.mapper.AbstractMapper;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Провайдер компактного бинарного формата конфигов (см. {@link BinaryConfigWriter}).
+ * <p>
+ * Прочитанный конфиг ничего не десериализует: объекты и списки являются представлениями
+ * над отображённым в память файлом, а значения декодируются из байтов при каждом
+ * обращении. Такой конфиг доступен только для чтения. Конфиги из {@link #newObject()}
+ * и {@link #convert(Map)} изменяемые, их можно сохранить в бинарном формате через
+ * {@link Config#writeTo(OutputStream)}.
+ * <p>
+ * Конфиги из других форматов можно заранее скомпилировать через {@link #compile(Config, Path)}.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BinaryConfigProvider implements ConfigProvider {
+
+    ObjectMapper objectMapper;
+
+    Map<Class<?>, AbstractMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    /**
+     * Создать провайдер бинарных конфигов.
+     *
+     * @param objectMapper Маппер, используемый для {@link Config#asType(Class)},
+     *                     {@link Config#mapAs(Class)} и {@link Config#toString()}
+     * @return Новый провайдер
+     */
+    public static @NotNull ConfigProvider create(@NotNull ObjectMapper objectMapper) {
+        val provider = new BinaryConfigProvider();
+
+        val module = new SimpleModule();
+        module.addDeserializer(Config.class, new ConfigDeserializer(provider));
+
+        provider.objectMapper = objectMapper.rebuild()
+                .addModule(module)
+                .build();
+
+        return provider;
+    }
+
+    /**
+     * Закодировать конфиг в бинарный формат.
+     *
+     * @param config Конфиг в любом формате
+     * @return Байты бинарного конфига
+     */
+    public static byte @NotNull [] compile(@NotNull Config config) {
+        return BinaryConfigWriter.write(config.asMap());
+    }
+
+    /**
+     * Закодировать конфиг в бинарный формат и записать в файл.
+     *
+     * @param config Конфиг в любом формате
+     * @param path   Путь к файлу
+     */
+    @SneakyThrows
+    public static void compile(@NotNull Config config, @NotNull Path path) {
+        Files.write(path, compile(config));
+    }
+
+    private void loadObject(Map<?, ?> map, MutableConfig object) {
+        for (val entry : map.entrySet()) {
+            val key = entry.getKey().toString();
+            val value = entry.getValue();
+
+            if (value instanceof Map) {
+                loadObject((Map<?, ?>) value, object.createObject(key));
+            } else {
+                object.set(key, value);
+            }
+        }
+    }
+
+    @Override
+    public @NotNull MutableConfig newObject() {
+        return new BinaryConfig(new LinkedHashMap<>());
+    }
+
+    @Override
+    @SneakyThrows
+    public @NotNull MutableConfig parse(final @NotNull Path path) {
+        try (val channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull File file) {
+        return parse(file.toPath());
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull Reader reader) {
+        throw new UnsupportedOperationException("Binary config cannot be read from characters");
+    }
+
+    @Override
+    @SneakyThrows
+    public @NotNull MutableConfig parse(final @NotNull InputStream stream) {
+        return parse(stream.readAllBytes());
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull String input) {
+        throw new UnsupportedOperationException("Binary config cannot be read from characters");
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final byte @NotNull [] input) {
+        return parse(ByteBuffer.wrap(input));
+    }
+
+    private MutableConfig parse(final ByteBuffer buffer) {
+        if (buffer.remaining() < BinaryConfigWriter.HEADER_SIZE
+            || buffer.getInt(0) != BinaryConfigWriter.MAGIC) {
+            throw new IllegalStateException("Not a binary config");
+        }
+
+        val version = buffer.getInt(4);
+
+        if (version != BinaryConfigWriter.VERSION) {
+            throw new IllegalStateException("Unsupported binary config version: " + version);
+        }
+
+        val document = new Document(buffer, buffer.getInt(8));
+        return new BinaryConfig(new BinaryMap(document, buffer.getInt(12)));
+    }
+
+    @Override
+    public @NotNull MutableConfig convert(@NotNull Map<?, ?> map) {
+        val object = new BinaryConfig(new LinkedHashMap<>());
+        loadObject(map, object);
+
+        return object;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Document {
+
+        ByteBuffer buffer;
+
+        int stringsOffset;
+
+        String[] strings;
+
+        private Document(final ByteBuffer buffer, final int stringsOffset) {
+            this.buffer = buffer;
+            this.stringsOffset = stringsOffset;
+            this.strings = new String[buffer.getInt(stringsOffset)];
+        }
+
+        private String string(final int index) {
+            String string = strings[index];
+
+            if (string == null) {
+                val offset = buffer.getInt(stringsOffset + 4 + index * 4);
+                val length = buffer.getInt(offset);
+
+                if (buffer.hasArray()) {
+                    string = new String(buffer.array(), buffer.arrayOffset() + offset + 4, length,
+                            StandardCharsets.UTF_8);
+                } else {
+                    val bytes = new byte[length];
+                    buffer.get(offset + 4, bytes);
+
+                    string = new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                strings[index] = string;
+            }
+
+            return string;
+        }
+
+        private Object value(final int offset) {
+            return switch (buffer.get(offset)) {
+                case BinaryConfigWriter.NULL -> null;
+                case BinaryConfigWriter.FALSE -> Boolean.FALSE;
+                case BinaryConfigWriter.TRUE -> Boolean.TRUE;
+                case BinaryConfigWriter.INT -> buffer.getInt(offset + 1);
+                case BinaryConfigWriter.LONG -> buffer.getLong(offset + 1);
+                case BinaryConfigWriter.DOUBLE -> buffer.getDouble(offset + 1);
+                case BinaryConfigWriter.STRING -> string(buffer.getInt(offset + 1));
+                case BinaryConfigWriter.LIST -> new BinaryList(this, offset);
+                case BinaryConfigWriter.MAP -> new BinaryMap(this, offset);
+                case BinaryConfigWriter.INT_ARRAY,
+                     BinaryConfigWriter.LONG_ARRAY,
+                     BinaryConfigWriter.DOUBLE_ARRAY -> new BinaryNumberArray(this, offset);
+                default -> throw new IllegalStateException("Unknown value tag at " + offset);
+            };
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class BinaryList extends AbstractList<Object> implements RandomAccess {
+
+        Document document;
+
+        int offset;
+
+        int size;
+
+        private BinaryList(final Document document, final int offset) {
+            this.document = document;
+            this.offset = offset;
+            this.size = document.buffer.getInt(offset + 1);
+        }
+
+        @Override
+        public Object get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            return document.value(document.buffer.getInt(offset + 5 + index * 4));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class BinaryNumberArray extends AbstractList<Object>
+            implements RandomAccess, PrimitiveList {
+
+        ByteBuffer buffer;
+
+        byte type;
+
+        int values;
+
+        int size;
+
+        private BinaryNumberArray(final Document document, final int offset) {
+            this.buffer = document.buffer;
+            this.type = buffer.get(offset);
+            this.size = buffer.getInt(offset + 1);
+            this.values = offset + 5;
+        }
+
+        private ByteBuffer slice(final int width) {
+            return buffer.slice(values, size * width);
+        }
+
+        @Override
+        public Object get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            return switch (type) {
+                case BinaryConfigWriter.INT_ARRAY -> buffer.getInt(values + index * 4);
+                case BinaryConfigWriter.LONG_ARRAY -> buffer.getLong(values + index * 8);
+                default -> buffer.getDouble(values + index * 8);
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int[] toIntArray() {
+            val result = new int[size];
+
+            switch (type) {
+                case BinaryConfigWriter.INT_ARRAY -> slice(4).asIntBuffer().get(result);
+                case BinaryConfigWriter.LONG_ARRAY -> {
+                    for (int i = 0; i < size; i++) {
+                        result[i] = (int) buffer.getLong(values + i * 8);
+                    }
+                }
+                default -> {
+                    for (int i = 0; i < size; i++) {
+                        result[i] = (int) buffer.getDouble(values + i * 8);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public long[] toLongArray() {
+            val result = new long[size];
+
+            switch (type) {
+                case BinaryConfigWriter.INT_ARRAY -> {
+                    for (int i = 0; i < size; i++) {
+                        result[i] = buffer.getInt(values + i * 4);
+                    }
+                }
+                case BinaryConfigWriter.LONG_ARRAY -> slice(8).asLongBuffer().get(result);
+                default -> {
+                    for (int i = 0; i < size; i++) {
+                        result[i] = (long) buffer.getDouble(values + i * 8);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public double[] toDoubleArray() {
+            val result = new double[size];
+
+            switch (type) {
+                case BinaryConfigWriter.INT_ARRAY -> {
+                    for (int i = 0; i < size; i++) {
+                        result[i] = buffer.getInt(values + i * 4);
+                    }
+                }
+                case BinaryConfigWriter.LONG_ARRAY -> {
+                    for (int i = 0; i < size; i++) {
+                        result[i] = buffer.getLong(values + i * 8);
+                    }
+                }
+                default -> slice(8).asDoubleBuffer().get(result);
+            }
+
+            return result;
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class BinaryMap extends AbstractMap<String, Object> {
+
+        Document document;
+
+        int entries;
+
+        int sorted;
+
+        int size;
+
+        private BinaryMap(final Document document, final int offset) {
+            this.document = document;
+            this.size = document.buffer.getInt(offset + 1);
+            this.entries = offset + 5;
+            this.sorted = entries + size * 8;
+        }
+
+        private String key(final int index) {
+            return document.string(document.buffer.getInt(entries + index * 8));
+        }
+
+        private Object value(final int index) {
+            return document.value(document.buffer.getInt(entries + index * 8 + 4));
+        }
+
+        private int indexOf(final Object key) {
+            if (!(key instanceof String string)) {
+                return -1;
+            }
+
+            int low = 0, high = size - 1;
+
+            while (low <= high) {
+                val middle = (low + high) >>> 1;
+                val index = document.buffer.getInt(sorted + middle * 4);
+                val compare = key(index).compareTo(string);
+
+                if (compare < 0) {
+                    low = middle + 1;
+                } else if (compare > 0) {
+                    high = middle - 1;
+                } else {
+                    return index;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        public Object get(final Object key) {
+            val index = indexOf(key);
+            return index == -1 ? null : value(index);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return indexOf(key) != -1;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < size;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (index >= size) {
+                                throw new NoSuchElementException();
+                            }
+
+                            val entry = new SimpleImmutableEntry<>(key(index), value(index));
+                            index++;
+
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+    }
+
+    private final class BinaryConfig extends MapBasedMutableConfig {
+
+        private BinaryConfig(final Map<String, Object> map) {
+            super(map);
+        }
+
+        @Override
+        @SneakyThrows
+        public String toString() {
+            return objectMapper.writeValueAsString(map);
+        }
+
+        @Override
+        protected MutableConfig createObject(final Map<String, Object> map) {
+            return new BinaryConfig(map);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @NotNull <T> AbstractMapper<T> mapAs(final @NotNull Class<T> type) {
+            return (AbstractMapper<T>) mappers.computeIfAbsent(type, __ -> new JacksonMapper<>(objectMapper, type));
+        }
+
+        @Override
+        public void writeTo(final @NotNull Writer writer) {
+            throw new UnsupportedOperationException("Binary config cannot be written as characters");
+        }
+
+        @Override
+        @SneakyThrows
+        public void writeTo(final @NotNull OutputStream os) {
+            os.write(BinaryConfigWriter.write(map));
+        }
+
+        @Override
+        public <T> T asType(final @NotNull Class<T> type) {
+            return objectMapper.convertValue(map, type);
+        }
+    }
+}
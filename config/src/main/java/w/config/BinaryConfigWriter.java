@@ -0,0 +1,287 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кодирует дерево конфига в бинарный формат, который читает {@link BinaryConfigProvider}.
+ * <p>
+ * Формат: заголовок ({@link #MAGIC}, {@link #VERSION}, смещение таблицы строк, смещение корня),
+ * затем значения, затем таблица строк. Значение начинается с байта-тега, строки хранятся
+ * как индекс в таблице строк, списки и объекты - как таблицы смещений дочерних значений.
+ * Записи объекта идут в исходном порядке, а за ними следует индекс записей,
+ * отсортированный по ключу, для бинарного поиска. Списки, состоящие только из {@code int},
+ * {@code long} или {@code double}, хранятся сплошным массивом.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class BinaryConfigWriter {
+
+    static final int MAGIC = 0x57434647; // WCFG
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final byte NULL = 0;
+    static final byte FALSE = 1;
+    static final byte TRUE = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte DOUBLE = 5;
+    static final byte STRING = 6;
+    static final byte LIST = 7;
+    static final byte MAP = 8;
+    static final byte INT_ARRAY = 9;
+    static final byte LONG_ARRAY = 10;
+    static final byte DOUBLE_ARRAY = 11;
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private BinaryConfigWriter() {
+    }
+
+    static byte[] write(final Map<String, ?> root) {
+        val writer = new BinaryConfigWriter();
+        writer.out.writeBytes(new byte[HEADER_SIZE]);
+
+        val rootOffset = writer.writeMap(root);
+        val stringsOffset = writer.writeStrings();
+
+        val result = writer.out.toByteArray();
+
+        ByteBuffer.wrap(result)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(stringsOffset)
+                .putInt(rootOffset);
+
+        return result;
+    }
+
+    private void writeInt(final int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeLong(final long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private int string(final String value) {
+        return strings.computeIfAbsent(value, __ -> strings.size());
+    }
+
+    private int writeStrings() {
+        val offset = out.size();
+        writeInt(strings.size());
+
+        val encoded = new byte[strings.size()][];
+        int i = 0;
+
+        for (val string : strings.keySet()) {
+            encoded[i++] = string.getBytes(StandardCharsets.UTF_8);
+        }
+
+        int entryOffset = offset + 4 + encoded.length * 4;
+
+        for (val bytes : encoded) {
+            writeInt(entryOffset);
+            entryOffset += 4 + bytes.length;
+        }
+
+        for (val bytes : encoded) {
+            writeInt(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        return offset;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int writeValue(final Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return writeMap((Map<String, ?>) map);
+        } else if (value instanceof Config config) {
+            return writeMap(config.asMap());
+        } else if (value instanceof Collection<?> collection) {
+            return writeList(collection);
+        }
+
+        val offset = out.size();
+
+        if (value instanceof int[] array) {
+            out.write(INT_ARRAY);
+            writeInt(array.length);
+
+            for (val element : array) {
+                writeInt(element);
+            }
+        } else if (value instanceof long[] array) {
+            out.write(LONG_ARRAY);
+            writeInt(array.length);
+
+            for (val element : array) {
+                writeLong(element);
+            }
+        } else if (value instanceof double[] array) {
+            out.write(DOUBLE_ARRAY);
+            writeInt(array.length);
+
+            for (val element : array) {
+                writeLong(Double.doubleToRawLongBits(element));
+            }
+        } else if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof Boolean bool) {
+            out.write(bool ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.write(INT);
+            writeInt(((Number) value).intValue());
+        } else if (value instanceof Long number) {
+            out.write(LONG);
+            writeLong(number);
+        } else if (value instanceof BigInteger number && number.bitLength() < 64) {
+            out.write(LONG);
+            writeLong(number.longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.write(DOUBLE);
+            writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof BigDecimal number) {
+            // в double точность теряется, поэтому как и большой BigInteger - строкой
+            out.write(STRING);
+            writeInt(string(number.toString()));
+        } else if (value instanceof CharSequence || value instanceof Number || value instanceof Enum<?>) {
+            out.write(STRING);
+            writeInt(string(value.toString()));
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value.getClass().getName()
+                    + " to binary config");
+        }
+
+        return offset;
+    }
+
+    private static byte elementType(final Collection<?> list) {
+        val first = list.isEmpty() ? null : list.iterator().next();
+
+        if (first == null) {
+            return LIST;
+        }
+
+        val type = first.getClass();
+
+        for (val element : list) {
+            if (element == null || element.getClass() != type) {
+                return LIST;
+            }
+        }
+
+        return type == Integer.class ? INT_ARRAY
+                : type == Long.class ? LONG_ARRAY
+                : type == Double.class ? DOUBLE_ARRAY
+                : LIST;
+    }
+
+    private int writeList(final Collection<?> list) {
+        val elementType = elementType(list);
+
+        if (elementType != LIST) {
+            val offset = out.size();
+            out.write(elementType);
+            writeInt(list.size());
+
+            for (val element : list) {
+                switch (elementType) {
+                    case INT_ARRAY -> writeInt((Integer) element);
+                    case LONG_ARRAY -> writeLong((Long) element);
+                    default -> writeLong(Double.doubleToRawLongBits((Double) element));
+                }
+            }
+
+            return offset;
+        }
+
+        val offsets = new int[list.size()];
+        int i = 0;
+
+        for (val element : list) {
+            offsets[i++] = writeValue(element);
+        }
+
+        val offset = out.size();
+        out.write(LIST);
+        writeInt(offsets.length);
+
+        for (val elementOffset : offsets) {
+            writeInt(elementOffset);
+        }
+
+        return offset;
+    }
+
+    private int writeMap(final Map<String, ?> map) {
+        val size = map.size();
+
+        val keys = new String[size];
+        val offsets = new int[size];
+        int i = 0;
+
+        for (val entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            offsets[i] = writeValue(entry.getValue());
+            i++;
+        }
+
+        val sorted = new Integer[size];
+        Arrays.setAll(sorted, index -> index);
+        Arrays.sort(sorted, (first, second) -> keys[first].compareTo(keys[second]));
+
+        val offset = out.size();
+        out.write(MAP);
+        writeInt(size);
+
+        for (i = 0; i < size; i++) {
+            writeInt(string(keys[i]));
+            writeInt(offsets[i]);
+        }
+
+        for (val index : sorted) {
+            writeInt(index);
+        }
+
+        return offset;
+    }
+
+}
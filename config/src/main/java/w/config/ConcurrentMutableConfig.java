@@ -0,0 +1,519 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import w.config.mapper.Mapper;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Конфиг, который можно изменять из нескольких потоков одновременно с чтением.
+ * <p>
+ * Содержимое хранится как неизменяемое дерево, на которое указывает одна volatile-ссылка.
+ * Чтение не блокируется и всегда видит согласованное состояние. Изменение копирует
+ * объекты вдоль пути к изменённому ключу и публикует новое дерево целиком, поэтому
+ * {@link #setAll(Config)} становится видно другим потокам сразу, а не по частям.
+ * <p>
+ * Вложенные объекты, полученные по ключу, привязаны к пути, а не к конкретному снимку,
+ * и всегда читают актуальные значения. Обход {@link #asMap()} и {@link #copyContents()}
+ * работают с одним снимком и отдают неизменяемые вложенные объекты. Объекты внутри
+ * списков и снимков доступны только для чтения: запись в них бросает
+ * {@link UnsupportedOperationException}, а не теряется молча.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class ConcurrentMutableConfig extends MapBasedMutableConfig {
+
+    private static final String[] ROOT = new String[0];
+
+    ConfigProvider provider;
+
+    Node node;
+
+    @NonFinal
+    volatile SnapshotHash snapshotHash;
+
+    private ConcurrentMutableConfig(ConfigProvider provider, Node node) {
+        super(node);
+
+        this.provider = provider;
+        this.node = node;
+    }
+
+    /**
+     * Создать пустой конфиг.
+     *
+     * @param provider Провайдер, через который конфиг сериализуется и преобразуется в другие типы
+     * @return Новый конфиг
+     */
+    public static @NotNull ConcurrentMutableConfig create(@NotNull ConfigProvider provider) {
+        return from(provider, Collections.emptyMap());
+    }
+
+    /**
+     * Создать конфиг с копией содержимого другого конфига.
+     *
+     * @param provider Провайдер, через который конфиг сериализуется и преобразуется в другие типы
+     * @param config   Исходный конфиг
+     * @return Новый конфиг
+     */
+    public static @NotNull ConcurrentMutableConfig from(@NotNull ConfigProvider provider, @NotNull Config config) {
+        return from(provider, config.asMap());
+    }
+
+    private static ConcurrentMutableConfig from(ConfigProvider provider, Map<?, ?> map) {
+        return new ConcurrentMutableConfig(provider, new Node(new Tree(freeze(map), false), ROOT));
+    }
+
+    private static ConcurrentMutableConfig readOnly(ConfigProvider provider, Map<?, ?> map) {
+        return new ConcurrentMutableConfig(provider, new Node(new Tree(freeze(map), true), ROOT));
+    }
+
+    @Override
+    protected MutableConfig createObject(final Map<String, Object> map) {
+        // объект вне дерева: элемент списка или часть снимка, изменения в нём некуда сохранить
+        return map instanceof Node node
+                ? new ConcurrentMutableConfig(provider, node)
+                : readOnly(provider, map);
+    }
+
+    @Override
+    public @NotNull Config copyContents() {
+        return from(provider, node.snapshot());
+    }
+
+    @Override
+    public @NotNull MutableConfig createObject(final @NotNull String key) {
+        set(key, Collections.emptyMap());
+        return getObject(key);
+    }
+
+    @Override
+    protected void mergeContents(final @NotNull Map<String, Object> contents) {
+        node.merge(contents);
+    }
+
+    /**
+     * Хэш привязан к снимку, а не к счётчику изменений: вложенный объект читает
+     * актуальное значение по пути, даже если его заменили через родителя. Неизменённые
+     * поддеревья сохраняют свои снимки, поэтому их хэши не пересчитываются.
+     */
+    @Override
+    public long structuralHash() {
+        val snapshot = node.snapshot();
+        val snapshotHash = this.snapshotHash;
+
+        if (snapshotHash != null && snapshotHash.snapshot == snapshot) {
+            return snapshotHash.value;
+        }
+
+        long hash = StructuralHash.emptyMap();
+
+        for (val entry : snapshot.entrySet()) {
+            val key = entry.getKey();
+            val value = entry.getValue();
+
+            // ключ мог быть удалён после снятия снимка, тогда хэш просто не совпадёт с новым
+            val valueHash = value instanceof Map<?, ?>
+                    ? findObject(key).map(Config::structuralHash).orElse(0L)
+                    : StructuralHash.hash(value);
+
+            hash += StructuralHash.entry(key, valueHash);
+        }
+
+        this.snapshotHash = new SnapshotHash(snapshot, hash);
+
+        return hash;
+    }
+
+    @Override
+    boolean isStructuralHashCached() {
+        return true;
+    }
+
+    /**
+     * Хэши снимков закэшированы, поэтому разные конфиги этого типа отсеиваются без обхода.
+     * Равные по содержимому конфиги всегда дают равные хэши, так что при совпадении
+     * хэшей содержимое сверяется как обычно.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (o instanceof ConcurrentMutableConfig config && o != this
+            && structuralHash() != config.structuralHash()) {
+            return false;
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    private record SnapshotHash(Map<String, Object> snapshot, long value) {
+    }
+
+    @Override
+    public <T> T asType(final @NotNull Class<T> type) {
+        return provider.convert(node.snapshot()).asType(type);
+    }
+
+    @Override
+    public @NotNull <T> Mapper<T> mapAs(final @NotNull Class<T> type) {
+        return provider.newObject().mapAs(type);
+    }
+
+    @Override
+    public void writeTo(final @NotNull Writer writer) {
+        provider.convert(node.snapshot()).writeTo(writer);
+    }
+
+    @Override
+    public void writeTo(final @NotNull OutputStream os) {
+        provider.convert(node.snapshot()).writeTo(os);
+    }
+
+    @Override
+    public String toString() {
+        return provider.convert(node.snapshot()).toString();
+    }
+
+    private static Object freeze(final Object value) {
+        if (value instanceof Node node) {
+            return node.snapshot();
+        } else if (value instanceof Map<?, ?> map) {
+            return freeze(map);
+        } else if (value instanceof List<?> list) {
+            val frozen = new ArrayList<>(list.size());
+
+            for (val element : list) {
+                frozen.add(freeze(element));
+            }
+
+            return Collections.unmodifiableList(frozen);
+        }
+
+        return value;
+    }
+
+    private static Map<String, Object> freeze(final Map<?, ?> map) {
+        val frozen = new LinkedHashMap<String, Object>(map.size());
+
+        for (val entry : map.entrySet()) {
+            frozen.put(String.valueOf(entry.getKey()), freeze(entry.getValue()));
+        }
+
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    /**
+     * Текущее неизменяемое дерево. Все изменения проходят под его монитором, а чтения нет.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Tree {
+
+        volatile Map<String, Object> root;
+
+        final boolean readOnly;
+
+        private Tree(final Map<String, Object> root, final boolean readOnly) {
+            this.root = root;
+            this.readOnly = readOnly;
+        }
+
+        private void checkWritable() {
+            if (readOnly) {
+                throw new UnsupportedOperationException("Objects inside lists and snapshots are read-only");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> resolve(final String[] path) {
+            Map<String, Object> step = root;
+
+            for (val segment : path) {
+                if (!(step.get(segment) instanceof Map<?, ?> next)) {
+                    return Collections.emptyMap();
+                }
+
+                step = (Map<String, Object>) next;
+            }
+
+            return step;
+        }
+
+        synchronized Object put(final String[] path, final String key, final Object value) {
+            checkWritable();
+
+            val old = resolve(path).get(key);
+
+            root = update(root, path, 0, object -> {
+                val copy = new LinkedHashMap<>(object);
+                copy.put(key, value);
+
+                return copy;
+            });
+
+            return old;
+        }
+
+        synchronized Object remove(final String[] path, final String key) {
+            checkWritable();
+
+            val object = resolve(path);
+
+            if (!object.containsKey(key)) {
+                return null;
+            }
+
+            root = update(root, path, 0, current -> {
+                val copy = new LinkedHashMap<>(current);
+                copy.remove(key);
+
+                return copy;
+            });
+
+            return object.get(key);
+        }
+
+        synchronized void merge(final String[] path, final Map<String, Object> contents) {
+            checkWritable();
+
+            root = update(root, path, 0, object -> {
+                val copy = new LinkedHashMap<>(object);
+
+                for (val entry : contents.entrySet()) {
+                    copy.put(entry.getKey(), merge(copy.get(entry.getKey()), entry.getValue()));
+                }
+
+                return copy;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object merge(final Object oldValue, final Object newValue) {
+            // те же правила, что и в MapBasedMutableConfig#setAll
+            if (oldValue instanceof Map<?, ?> oldMap && newValue instanceof Map<?, ?> newMap) {
+                val copy = new LinkedHashMap<>((Map<String, Object>) oldMap);
+
+                for (val entry : newMap.entrySet()) {
+                    val key = String.valueOf(entry.getKey());
+                    copy.put(key, merge(copy.get(key), entry.getValue()));
+                }
+
+                return Collections.unmodifiableMap(copy);
+            }
+
+            if (oldValue instanceof List<?> oldList && newValue instanceof List<?> newList) {
+                val copy = new ArrayList<Object>(oldList);
+
+                for (val element : newList) {
+                    copy.add(freeze(element));
+                }
+
+                return Collections.unmodifiableList(copy);
+            }
+
+            return freeze(newValue);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> update(
+                final Map<String, Object> object,
+                final String[] path,
+                final int depth,
+                final Update update
+        ) {
+            if (depth == path.length) {
+                return Collections.unmodifiableMap(update.apply(object));
+            }
+
+            val segment = path[depth];
+
+            if (!(object.get(segment) instanceof Map<?, ?> child)) {
+                throw new IllegalStateException("Object " + String.join(".", Arrays.copyOf(path, depth + 1))
+                        + " was removed or replaced");
+            }
+
+            val copy = new LinkedHashMap<>(object);
+            copy.put(segment, update((Map<String, Object>) child, path, depth + 1, update));
+
+            return Collections.unmodifiableMap(copy);
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface Update {
+
+        Map<String, Object> apply(Map<String, Object> object);
+
+    }
+
+    /**
+     * Изменяемое представление объекта по пути в {@link Tree}. Представления вложенных
+     * объектов переиспользуются, чтобы кэш преобразований и подписки их узнавали, и
+     * забываются при замене или удалении ключа.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class Node extends AbstractMap<String, Object> {
+
+        Tree tree;
+
+        String[] path;
+
+        Map<String, Node> children = new ConcurrentHashMap<>();
+
+        @NonFinal
+        EntrySet entrySet;
+
+        Map<String, Object> snapshot() {
+            return tree.resolve(path);
+        }
+
+        private Object wrap(final String key, final Object value) {
+            if (value instanceof Map<?, ?>) {
+                return children.computeIfAbsent(key, __ -> {
+                    val childPath = Arrays.copyOf(path, path.length + 1);
+                    childPath[path.length] = key;
+
+                    return new Node(tree, childPath);
+                });
+            }
+
+            return value;
+        }
+
+        @Override
+        public Object get(final Object key) {
+            return key instanceof String name ? wrap(name, snapshot().get(name)) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return snapshot().containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return snapshot().size();
+        }
+
+        @Override
+        public Object put(final String key, final Object value) {
+            val old = tree.put(path, key, freeze(value));
+            children.remove(key);
+
+            return old;
+        }
+
+        @Override
+        public Object remove(final Object key) {
+            if (!(key instanceof String name)) {
+                return null;
+            }
+
+            val old = tree.remove(path, name);
+            children.remove(name);
+
+            return old;
+        }
+
+        void merge(final Map<String, Object> contents) {
+            tree.merge(path, contents);
+
+            for (val entry : contents.entrySet()) {
+                // объекты объединяются по ключам и остаются по тому же пути
+                if (!(entry.getValue() instanceof Map<?, ?>)) {
+                    children.remove(entry.getKey());
+                }
+            }
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, Object>> entrySet() {
+            val entrySet = this.entrySet;
+            return entrySet != null ? entrySet : (this.entrySet = new EntrySet());
+        }
+
+        private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+            @Override
+            public @NotNull Iterator<Entry<String, Object>> iterator() {
+                // итерация идёт по одному снимку целиком, включая вложенные объекты,
+                // и не видит изменений, сделанных после её начала
+                val iterator = snapshot().entrySet().iterator();
+
+                return new Iterator<>() {
+                    String lastKey;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        val entry = iterator.next();
+                        lastKey = entry.getKey();
+
+                        return new SimpleImmutableEntry<>(lastKey, entry.getValue());
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (lastKey == null) {
+                            throw new IllegalStateException();
+                        }
+
+                        Node.this.remove(lastKey);
+                        lastKey = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return Node.this.size();
+            }
+
+        }
+
+    }
+
+}
@@ -71,6 +71,41 @@ public interface Config {
      */
     @NotNull Collection<@NotNull Object> values();
 
+    /**
+     * Подписаться на изменения значения по пути. Слушатель вызывается, когда значение
+     * меняется через {@link MutableConfig#set(String, Object)}, {@link MutableConfig#remove(String)}
+     * или {@link MutableConfig#setAll(Config)} в этом конфиге или в его вложенных объектах,
+     * при изменении родителя пути, вложенного в путь значения, а также при перезагрузке
+     * {@link FileConfig}, если значение по пути изменилось.
+     * <p>
+     * Изменения через {@link #asMap()} подписчики не получают.
+     *
+     * @param path     Путь через точку относительно этого объекта, пустая строка для всего объекта
+     * @param listener Слушатель
+     * @return Подписка, через которую можно отписаться
+     */
+    @NotNull ConfigSubscription subscribe(@NotNull String path, @NotNull ConfigListener listener);
+
+    /**
+     * Получить структурный хэш содержимого. Хэш не зависит от порядка ключей и от
+     * реализации конфига. Конфиги, которые хранят содержимое неизменяемыми снимками
+     * (например, {@link ConcurrentMutableConfig}), кэшируют хэш для снимка, остальные
+     * вычисляют его обходом.
+     *
+     * @return 64-битный хэш
+     */
+    long structuralHash();
+
+    /**
+     * Вычислить разницу между этим конфигом и другим. Вложенные объекты с одинаковым
+     * закэшированным структурным хэшем не обходятся.
+     *
+     * @param other Новый конфиг
+     * @return Патч, который превращает этот конфиг в {@code other}
+     * @see MutableConfig#apply(ConfigPatch)
+     */
+    @NotNull ConfigPatch diff(@NotNull Config other);
+
     void writeTo(@NotNull Writer writer);
 
     void writeTo(@NotNull OutputStream os);
@@ -266,6 +301,39 @@ public interface Config {
 
     @Unmodifiable @NotNull List<@NotNull Boolean> getBooleanList(@NotNull String key);
 
+    /**
+     * Получить список чисел в виде массива {@code int}, без упаковки элементов.
+     *
+     * @param key Ключ
+     * @return Массив, или пустой массив, если списка нет
+     */
+    int @NotNull [] getIntArray(@NotNull String key);
+
+    @Contract("_, !null -> !null")
+    int @Nullable [] getIntArray(@NotNull String key, int @Nullable [] def);
+
+    /**
+     * Получить список чисел в виде массива {@code long}, без упаковки элементов.
+     *
+     * @param key Ключ
+     * @return Массив, или пустой массив, если списка нет
+     */
+    long @NotNull [] getLongArray(@NotNull String key);
+
+    @Contract("_, !null -> !null")
+    long @Nullable [] getLongArray(@NotNull String key, long @Nullable [] def);
+
+    /**
+     * Получить список чисел в виде массива {@code double}, без упаковки элементов.
+     *
+     * @param key Ключ
+     * @return Массив, или пустой массив, если списка нет
+     */
+    double @NotNull [] getDoubleArray(@NotNull String key);
+
+    @Contract("_, !null -> !null")
+    double @Nullable [] getDoubleArray(@NotNull String key, double @Nullable [] def);
+
     <T> @NotNull Optional<T> findAs(@NotNull String key, @NotNull Class<T> type);
 
     @NotNull Optional<Object> findRaw(@NotNull String key);
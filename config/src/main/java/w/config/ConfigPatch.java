@@ -0,0 +1,269 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Разница между двумя конфигами: добавленные, изменённые и удалённые пути.
+ * <p>
+ * Пути записываются через точку, как в {@link Config#walk(String)}, и указывают на самый
+ * верхний отличающийся ключ: если объект появился целиком, в патче будет один путь
+ * к нему, а не к каждому его ключу. Точка и обратная косая черта внутри ключа
+ * экранируются обратной косой чертой, например ключ {@code example.com} в объекте
+ * {@code hosts} даёт путь {@code hosts.example\.com}. Значения в патче не связаны
+ * с исходными конфигами.
+ *
+ * @author whilein
+ * @see Config#diff(Config)
+ * @see MutableConfig#apply(ConfigPatch)
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ConfigPatch {
+
+    private static final String ADDED = "added";
+    private static final String CHANGED = "changed";
+    private static final String REMOVED = "removed";
+
+    Map<String, Object> added;
+
+    Map<String, Object> changed;
+
+    Set<String> removed;
+
+    /**
+     * Вычислить разницу между конфигами. Объекты с одинаковым структурным хэшем
+     * считаются равными и не обходятся.
+     *
+     * @param from Старый конфиг
+     * @param to   Новый конфиг
+     * @return Патч, который превращает {@code from} в {@code to}
+     */
+    static @NotNull ConfigPatch diff(final @NotNull Config from, final @NotNull Config to) {
+        val patch = new ConfigPatch(new LinkedHashMap<>(), new LinkedHashMap<>(), new LinkedHashSet<>());
+        patch.diff(null, from, to);
+
+        return patch;
+    }
+
+    /**
+     * Прочитать патч, записанный через {@link #asMap()}, например полученный с другого узла.
+     *
+     * @param config Конфиг с патчем
+     * @return Патч
+     */
+    public static @NotNull ConfigPatch from(final @NotNull Config config) {
+        return new ConfigPatch(
+                copy(config.findObject(ADDED).map(Config::asMap).orElse(Collections.emptyMap())),
+                copy(config.findObject(CHANGED).map(Config::asMap).orElse(Collections.emptyMap())),
+                new LinkedHashSet<>(config.getStringList(REMOVED))
+        );
+    }
+
+    private void diff(final String path, final Config from, final Config to) {
+        for (val key : from.keySet()) {
+            if (!to.contains(key)) {
+                removed.add(join(path, key));
+            }
+        }
+
+        for (val key : to.keySet()) {
+            val keyPath = join(path, key);
+            val newValue = to.getRaw(key, null);
+
+            if (!from.contains(key)) {
+                added.put(keyPath, copyValue(newValue));
+                continue;
+            }
+
+            val oldValue = from.getRaw(key, null);
+
+            if (oldValue instanceof Map<?, ?> && newValue instanceof Map<?, ?>) {
+                val oldObject = from.getObject(key);
+                val newObject = to.getObject(key);
+
+                // хэшам можно доверять, только если оба закэшированы для снимков,
+                // иначе их вычисление само обходит поддерево
+                if (!StructuralHash.isCached(oldObject) || !StructuralHash.isCached(newObject)
+                    || oldObject.structuralHash() != newObject.structuralHash()) {
+                    diff(keyPath, oldObject, newObject);
+                }
+            } else if (!Objects.equals(oldValue, newValue)) {
+                changed.put(keyPath, copyValue(newValue));
+            }
+        }
+    }
+
+    private static String join(final String path, final String key) {
+        val escapedKey = escape(key);
+        return path == null ? escapedKey : path + "." + escapedKey;
+    }
+
+    private static String escape(final String key) {
+        if (key.indexOf('.') == -1 && key.indexOf('\\') == -1) {
+            return key;
+        }
+
+        val escaped = new StringBuilder(key.length() + 4);
+
+        for (int i = 0, j = key.length(); i < j; i++) {
+            val ch = key.charAt(i);
+
+            if (ch == '.' || ch == '\\') {
+                escaped.append('\\');
+            }
+
+            escaped.append(ch);
+        }
+
+        return escaped.toString();
+    }
+
+    /**
+     * Разобрать путь из патча на ключи.
+     *
+     * @param path Путь через точку, с экранированными ключами
+     * @return Ключи от корня
+     */
+    static @NotNull List<@NotNull String> split(final @NotNull String path) {
+        val keys = new ArrayList<String>();
+        val key = new StringBuilder();
+
+        for (int i = 0, j = path.length(); i < j; i++) {
+            val ch = path.charAt(i);
+
+            if (ch == '\\' && i + 1 < j) {
+                key.append(path.charAt(++i));
+            } else if (ch == '.') {
+                keys.add(key.toString());
+                key.setLength(0);
+            } else {
+                key.append(ch);
+            }
+        }
+
+        keys.add(key.toString());
+
+        return keys;
+    }
+
+    private static Map<String, Object> copy(final Map<?, ?> map) {
+        val copy = new LinkedHashMap<String, Object>(map.size());
+
+        for (val entry : map.entrySet()) {
+            copy.put(String.valueOf(entry.getKey()), copyValue(entry.getValue()));
+        }
+
+        return copy;
+    }
+
+    static Object copyValue(final Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return copy(map);
+        } else if (value instanceof List<?> list) {
+            val copy = new ArrayList<>(list.size());
+
+            for (val element : list) {
+                copy.add(copyValue(element));
+            }
+
+            return copy;
+        }
+
+        return value;
+    }
+
+    /**
+     * Получить добавленные пути и их значения.
+     *
+     * @return Добавленные пути
+     */
+    public @Unmodifiable @NotNull Map<@NotNull String, Object> getAdded() {
+        return Collections.unmodifiableMap(added);
+    }
+
+    /**
+     * Получить изменённые пути и их новые значения.
+     *
+     * @return Изменённые пути
+     */
+    public @Unmodifiable @NotNull Map<@NotNull String, Object> getChanged() {
+        return Collections.unmodifiableMap(changed);
+    }
+
+    /**
+     * Получить удалённые пути.
+     *
+     * @return Удалённые пути
+     */
+    public @Unmodifiable @NotNull Set<@NotNull String> getRemoved() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Представить патч в виде {@link Map}, которую можно записать любым {@link ConfigProvider}
+     * и прочитать обратно через {@link #from(Config)}.
+     *
+     * @return Патч в виде {@link Map}
+     */
+    public @NotNull Map<@NotNull String, @NotNull Object> asMap() {
+        val map = new LinkedHashMap<String, Object>();
+        map.put(ADDED, copy(added));
+        map.put(CHANGED, copy(changed));
+        map.put(REMOVED, new ArrayList<>(removed));
+
+        return map;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o == this || (o instanceof ConfigPatch patch
+                             && added.equals(patch.added)
+                             && changed.equals(patch.changed)
+                             && removed.equals(patch.removed));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(added, changed, removed);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigPatch(added=" + added + ", changed=" + changed + ", removed=" + removed + ")";
+    }
+
+}
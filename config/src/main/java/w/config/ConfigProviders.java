@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.yaml.YAMLFactory;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Провайдеры конфигов по расширению файла, используются в {@link SimpleFileConfig#create(java.nio.file.Path)}
+ * и других методах без явного провайдера.
+ * <p>
+ * По умолчанию {@code json} разбирается через {@link JsonConfigProvider}, а {@code yml} и {@code yaml}
+ * через {@link JacksonConfigProvider}. Остальные форматы можно добавить через
+ * {@link #register(String, ConfigProvider)}.
+ *
+ * @author whilein
+ */
+@UtilityClass
+public class ConfigProviders {
+
+    private final Map<String, ConfigProvider> PROVIDERS = new ConcurrentHashMap<>();
+
+    static {
+        PROVIDERS.put("json", JsonConfigProvider.create());
+
+        val yaml = JacksonConfigProvider.create(new ObjectMapper(new YAMLFactory()));
+        PROVIDERS.put("yml", yaml);
+        PROVIDERS.put("yaml", yaml);
+    }
+
+    /**
+     * Зарегистрировать провайдер для расширения, заменив прежний.
+     *
+     * @param extension Расширение файла без точки, регистр не учитывается
+     * @param provider  Провайдер
+     */
+    public void register(@NotNull String extension, @NotNull ConfigProvider provider) {
+        PROVIDERS.put(extension.toLowerCase(Locale.ROOT), provider);
+    }
+
+    /**
+     * Найти провайдер по расширению.
+     *
+     * @param extension Расширение файла без точки, регистр не учитывается
+     * @return Провайдер, если он зарегистрирован
+     */
+    public @NotNull Optional<ConfigProvider> findByExtension(@NotNull String extension) {
+        return Optional.ofNullable(PROVIDERS.get(extension.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Получить провайдер по имени файла.
+     *
+     * @param fileName Имя файла
+     * @return Провайдер
+     * @throws IllegalArgumentException Для расширения файла нет провайдера
+     */
+    public @NotNull ConfigProvider getByFileName(@NotNull String fileName) {
+        val dot = fileName.lastIndexOf('.');
+
+        if (dot == -1 || dot < Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'))) {
+            throw new IllegalArgumentException("File " + fileName + " has no extension");
+        }
+
+        return findByExtension(fileName.substring(dot + 1))
+                .orElseThrow(() -> new IllegalArgumentException("No config provider for " + fileName));
+    }
+
+}
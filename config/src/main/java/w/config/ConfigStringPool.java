@@ -0,0 +1,124 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пул строк на время одного разбора: повторяющиеся ключи и короткие строковые значения
+ * заменяются одним экземпляром. В отличие от {@link String#intern()} пул не живёт
+ * дольше разбора и не засоряет общую таблицу строк.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class ConfigStringPool {
+
+    // заголовок String (12) + поля hash, coder, hashIsZero, value (4 + 1 + 1 + 4) с выравниванием
+    private static final int STRING_SIZE = 24;
+
+    // заголовок byte[] с длиной
+    private static final int ARRAY_HEADER_SIZE = 16;
+
+    final Map<String, String> strings = new HashMap<>();
+
+    final int maxValueLength;
+
+    long lookups;
+
+    long duplicates;
+
+    long savedBytes;
+
+    static ConfigStringPool create(final int maxValueLength) {
+        return new ConfigStringPool(maxValueLength);
+    }
+
+    String intern(final String string) {
+        lookups++;
+
+        val existing = strings.putIfAbsent(string, string);
+
+        if (existing == null) {
+            return string;
+        }
+
+        if (existing != string) {
+            duplicates++;
+            savedBytes += sizeOf(string);
+        }
+
+        return existing;
+    }
+
+    /**
+     * Заменить строки в значении на строки из пула. Объекты внутри списков пересобираются
+     * с ключами из пула, сами списки изменяются на месте.
+     *
+     * @param value Значение
+     * @return Значение со строками из пула
+     */
+    @SuppressWarnings("unchecked")
+    Object value(final Object value) {
+        if (value instanceof String string) {
+            return string.length() <= maxValueLength ? intern(string) : string;
+        } else if (value instanceof Map<?, ?> map) {
+            val result = new LinkedHashMap<String, Object>(map.size());
+
+            for (val entry : map.entrySet()) {
+                result.put(intern(entry.getKey().toString()), value(entry.getValue()));
+            }
+
+            return result;
+        } else if (value instanceof List<?> list) {
+            val iterator = ((List<Object>) list).listIterator();
+
+            while (iterator.hasNext()) {
+                val element = iterator.next();
+                val pooled = value(element);
+
+                if (pooled != element) {
+                    iterator.set(pooled);
+                }
+            }
+        }
+
+        return value;
+    }
+
+    StringPoolStats stats() {
+        return new StringPoolStats(lookups, duplicates, savedBytes);
+    }
+
+    private static long sizeOf(final String string) {
+        // строки из latin-1 хранятся по байту на символ, остальные по два
+        val latin1 = string.chars().allMatch(c -> c < 256);
+        val length = latin1 ? string.length() : string.length() * 2L;
+
+        return STRING_SIZE + ((ARRAY_HEADER_SIZE + length + 7) & ~7L);
+    }
+
+}
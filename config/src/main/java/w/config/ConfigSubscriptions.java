@@ -0,0 +1,232 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Подписки на изменения конфига, разложенные по дереву путей. При изменении обходятся
+ * только узлы вдоль изменённого пути и поддерево под ним, остальные подписки не трогаются.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class ConfigSubscriptions {
+
+    Node root = new Node(null, null);
+
+    static @NotNull ConfigSubscriptions create() {
+        return new ConfigSubscriptions();
+    }
+
+    synchronized @NotNull ConfigSubscription subscribe(
+            final @NotNull String path,
+            final @NotNull ConfigListener listener
+    ) {
+        Node node = root;
+
+        if (!path.isEmpty()) {
+            int start = 0, dot;
+
+            do {
+                dot = path.indexOf('.', start);
+
+                val segment = dot == -1 ? path.substring(start) : path.substring(start, dot);
+                val parent = node;
+
+                node = parent.children.computeIfAbsent(segment, name -> new Node(parent, name));
+                start = dot + 1;
+            } while (dot != -1);
+        }
+
+        val subscription = new Subscription(node, listener);
+        node.subscriptions.add(subscription);
+
+        return subscription;
+    }
+
+    private synchronized void unsubscribe(final Subscription subscription) {
+        Node node = subscription.node;
+
+        if (!node.subscriptions.remove(subscription)) {
+            return;
+        }
+
+        // убираем опустевшие ветки, чтобы они не обходились при каждом изменении
+        while (node.parent != null && node.subscriptions.isEmpty() && node.children.isEmpty()) {
+            node.parent.children.remove(node.name, node);
+            node = node.parent;
+        }
+    }
+
+    boolean isEmpty() {
+        return root.subscriptions.isEmpty() && root.children.isEmpty();
+    }
+
+    /**
+     * Оповестить подписчиков об изменении значения по пути: подписчиков самого пути,
+     * его родителей и всех вложенных путей.
+     *
+     * @param path Путь через точку, пустая строка для всего конфига
+     */
+    void fireChange(final @NotNull String path) {
+        val dispatch = new Dispatch();
+
+        Node node = root;
+        dispatch.fire(node, path);
+
+        if (!path.isEmpty()) {
+            int start = 0, dot;
+
+            do {
+                dot = path.indexOf('.', start);
+
+                node = node.children.get(dot == -1 ? path.substring(start) : path.substring(start, dot));
+
+                if (node == null) {
+                    dispatch.complete();
+                    return;
+                }
+
+                dispatch.fire(node, path);
+                start = dot + 1;
+            } while (dot != -1);
+        }
+
+        for (val child : node.children.values()) {
+            fireSubtree(dispatch, child, path);
+        }
+
+        dispatch.complete();
+    }
+
+    private void fireSubtree(final Dispatch dispatch, final Node node, final String path) {
+        dispatch.fire(node, path);
+
+        for (val child : node.children.values()) {
+            fireSubtree(dispatch, child, path);
+        }
+    }
+
+    /**
+     * Оповестить подписчиков путей, значения по которым отличаются в старом и новом
+     * содержимом. Используется, когда конфиг заменяется целиком, например при перезагрузке.
+     *
+     * @param oldMap Старое содержимое
+     * @param newMap Новое содержимое
+     */
+    void fireDiff(final @NotNull Map<String, Object> oldMap, final @NotNull Map<String, Object> newMap) {
+        val dispatch = new Dispatch();
+        fireDiff(dispatch, root, "", oldMap, newMap);
+        dispatch.complete();
+    }
+
+    private void fireDiff(
+            final Dispatch dispatch,
+            final Node node,
+            final String path,
+            final Object oldValue,
+            final Object newValue
+    ) {
+        if (node.subscriptions.isEmpty() && node.children.isEmpty()
+            || Objects.equals(oldValue, newValue)) {
+            return;
+        }
+
+        dispatch.fire(node, path);
+
+        for (val entry : node.children.entrySet()) {
+            val key = entry.getKey();
+
+            fireDiff(dispatch, entry.getValue(), path.isEmpty() ? key : path + "." + key,
+                    get(oldValue, key), get(newValue, key));
+        }
+    }
+
+    private static Object get(final Object value, final String key) {
+        return value instanceof Map<?, ?> map ? map.get(key) : null;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Dispatch {
+
+        RuntimeException failure;
+
+        void fire(final Node node, final String path) {
+            for (val subscription : node.subscriptions) {
+                try {
+                    subscription.listener.onChange(path);
+                } catch (final RuntimeException e) {
+                    // остальные подписчики должны узнать об изменении в любом случае
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+
+        void complete() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class Node {
+
+        Node parent;
+
+        String name;
+
+        Map<String, Node> children = new ConcurrentHashMap<>();
+
+        List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private final class Subscription implements ConfigSubscription {
+
+        Node node;
+
+        ConfigListener listener;
+
+        @Override
+        public void unsubscribe() {
+            ConfigSubscriptions.this.unsubscribe(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import w.util.EnvSnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Представление переменных окружения в виде конфига, чтобы положить их слоем
+ * в {@link LayeredConfig} поверх файла.
+ * <p>
+ * Берутся переменные с заданным префиксом. Остаток имени переводится в нижний регистр,
+ * а {@code _} разделяет вложенные объекты: при префиксе {@code APP_} переменная
+ * {@code APP_DB_HOST} становится ключом {@code db.host}. Значения остаются строками
+ * и приводятся к нужному типу при чтении, как и любые другие значения конфига.
+ * Если переменная конфликтует с вложенным объектом (например {@code APP_DB} и
+ * {@code APP_DB_HOST}), побеждает объект.
+ *
+ * @author whilein
+ */
+@UtilityClass
+public class EnvConfigLayer {
+
+    public @NotNull Config create(final @NotNull EnvSnapshot snapshot, final @NotNull String prefix) {
+        val root = new LinkedHashMap<String, Object>();
+
+        for (val entry : snapshot.asMap().entrySet()) {
+            val name = entry.getKey();
+
+            if (name.length() > prefix.length() && name.startsWith(prefix)) {
+                put(root, name.substring(prefix.length()).toLowerCase(Locale.ROOT).split("_"), entry.getValue());
+            }
+        }
+
+        return InconvertibleMutableConfig.from(root);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void put(final Map<String, Object> root, final String[] path, final String value) {
+        Map<String, Object> object = root;
+
+        for (int i = 0, j = path.length - 1; i < j; i++) {
+            val segment = path[i];
+
+            if (segment.isEmpty()) {
+                return;
+            }
+
+            if (object.get(segment) instanceof Map<?, ?> child) {
+                object = (Map<String, Object>) child;
+            } else {
+                val created = new LinkedHashMap<String, Object>();
+                object.put(segment, created);
+                object = created;
+            }
+        }
+
+        val key = path[path.length - 1];
+
+        if (!key.isEmpty() && !(object.get(key) instanceof Map<?, ?>)) {
+            object.put(key, value);
+        }
+    }
+
+}
@@ -17,6 +17,9 @@
 package w.config;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
 
 /**
  * @author whilein
@@ -27,8 +30,42 @@ public interface FileConfig extends MutableConfig {
 
     void saveDefaults(@NotNull ClassLoader classLoader, @NotNull String resource);
 
+    /**
+     * Сохранить конфиг в файл. Файл заменяется атомарно: конфиг сначала записывается
+     * во временный файл рядом, а затем переименовывается.
+     * <p>
+     * В режиме отложенной записи (см. {@link #setWriteBehind(Executor)}) конфиг только
+     * сериализуется, а запись на диск выполняется в фоне.
+     *
+     * @throws java.io.UncheckedIOException Если не удалось записать файл, в том числе
+     *                                      при предыдущей отложенной записи
+     */
     void save();
 
+    /**
+     * Включить или выключить отложенную запись. Несколько {@link #save()} подряд
+     * объединяются в одну запись последнего состояния.
+     *
+     * @param executor Исполнитель, в котором выполняется запись, или {@code null},
+     *                 чтобы писать сразу в {@link #save()}
+     */
+    void setWriteBehind(@Nullable Executor executor);
+
+    /**
+     * Записать на диск состояние, сохранённое через {@link #save()} в режиме отложенной
+     * записи, если оно ещё не записано.
+     *
+     * @throws java.io.UncheckedIOException Если не удалось записать файл
+     */
+    void flush();
+
+    /**
+     * Перечитать конфиг с диска. Если файла нет или его не удалось прочитать, конфиг
+     * становится пустым.
+     *
+     * @throws w.config.schema.ConfigValidationException Если файл прочитан, но не прошёл
+     *                                                   проверку по схеме; прежнее содержимое сохраняется
+     */
     void reload();
 
 }
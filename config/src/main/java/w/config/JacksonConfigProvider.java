@@ -25,6 +25,9 @@ import lombok.SneakyThrows;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
 import w.config.deserializer.ConfigDeserializer;
 import w.config.mapper.AbstractMapper;
 
@@ -35,10 +38,19 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * @author whilein
@@ -49,8 +61,77 @@ public final class JacksonConfigProvider implements ConfigProvider {
 
     ObjectMapper objectMapper;
 
+    Map<Class<?>, AbstractMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    boolean lazy;
+
+    /**
+     * Максимальная длина строкового значения, которое попадает в пул строк,
+     * или {@code -1}, если пул не используется.
+     */
+    int maxPooledValueLength = -1;
+
+    Consumer<StringPoolStats> poolStatsListener;
+
     public static @NotNull ConfigProvider create(@NotNull ObjectMapper objectMapper) {
+        return create(objectMapper, false);
+    }
+
+    /**
+     * Создать провайдер, который не разбирает вложенные объекты сразу.
+     * <p>
+     * При чтении документ только пролистывается: для каждого объекта запоминаются
+     * смещения его начала и конца, а сам объект разбирается при первом обращении к нему
+     * (через {@link Config#getObject(String)}, {@link Config#walk(String)} и т.д).
+     * Файлы при этом отображаются в память, поэтому их нельзя изменять на месте,
+     * пока конфиг используется.
+     * <p>
+     * Работает только для форматов, где парсер сообщает смещения в байтах (например JSON),
+     * для остальных (например YAML) документ разбирается целиком, как в {@link #create(ObjectMapper)}.
+     *
+     * @param objectMapper Маппер
+     * @return Новый провайдер
+     */
+    public static @NotNull ConfigProvider createLazy(@NotNull ObjectMapper objectMapper) {
+        return create(objectMapper, true);
+    }
+
+    /**
+     * Создать провайдер, который при каждом разборе убирает повторяющиеся строки: все ключи
+     * и строковые значения не длиннее {@code maxValueLength} заменяются одним экземпляром
+     * на весь документ. Пул живёт только во время разбора.
+     * <p>
+     * Полезно для больших документов, где одни и те же ключи и значения вроде {@code "enabled"}
+     * повторяются тысячи раз.
+     *
+     * @param objectMapper   Маппер
+     * @param maxValueLength Максимальная длина строкового значения, которое попадает в пул
+     * @param statsListener  Получает статистику пула после каждого разбора
+     * @return Новый провайдер
+     */
+    public static @NotNull ConfigProvider createPooling(
+            @NotNull ObjectMapper objectMapper,
+            int maxValueLength,
+            @Nullable Consumer<@NotNull StringPoolStats> statsListener
+    ) {
+        if (maxValueLength < 0) {
+            throw new IllegalArgumentException("maxValueLength must be non-negative");
+        }
+
+        val provider = (JacksonConfigProvider) create(objectMapper, false);
+        provider.maxPooledValueLength = maxValueLength;
+        provider.poolStatsListener = statsListener;
+
+        return provider;
+    }
+
+    public static @NotNull ConfigProvider createPooling(@NotNull ObjectMapper objectMapper, int maxValueLength) {
+        return createPooling(objectMapper, maxValueLength, null);
+    }
+
+    private static ConfigProvider create(ObjectMapper objectMapper, boolean lazy) {
         val provider = new JacksonConfigProvider();
+        provider.lazy = lazy;
 
         val module = new SimpleModule();
         module.addDeserializer(Config.class, new ConfigDeserializer(provider));
@@ -75,9 +156,45 @@ public final class JacksonConfigProvider implements ConfigProvider {
         }
     }
 
+    private void loadObject(Map<?, ?> map, MutableConfig object, ConfigStringPool pool) {
+        for (val entry : map.entrySet()) {
+            val key = pool.intern(entry.getKey().toString());
+            val value = entry.getValue();
+
+            if (value instanceof Map) {
+                loadObject((Map<?, ?>) value, object.createObject(key), pool);
+            } else {
+                object.set(key, pool.value(value));
+            }
+        }
+    }
+
+    private MutableConfig load(Map<?, ?> map) {
+        if (maxPooledValueLength < 0) {
+            return convert(map);
+        }
+
+        val pool = ConfigStringPool.create(maxPooledValueLength);
+
+        val object = new JacksonConfig(new LinkedHashMap<>());
+        loadObject(map, object, pool);
+
+        if (poolStatsListener != null) {
+            poolStatsListener.accept(pool.stats());
+        }
+
+        return object;
+    }
+
     @Override
     @SneakyThrows
     public @NotNull MutableConfig parse(final @NotNull Path path) {
+        if (lazy) {
+            try (val channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return parseLazy(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
         try (val is = Files.newInputStream(path)) {
             return _parse(is);
         }
@@ -91,6 +208,10 @@ public final class JacksonConfigProvider implements ConfigProvider {
     @Override
     @SneakyThrows
     public @NotNull MutableConfig parse(final @NotNull File file) {
+        if (lazy) {
+            return parse(file.toPath());
+        }
+
         try (val is = new FileInputStream(file)) {
             return _parse(is);
         }
@@ -99,13 +220,21 @@ public final class JacksonConfigProvider implements ConfigProvider {
     @Override
     @SneakyThrows
     public @NotNull MutableConfig parse(final @NotNull String input) {
-        return convert(objectMapper.readValue(input, Map.class));
+        if (lazy) {
+            return parse(input.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return load(objectMapper.readValue(input, Map.class));
     }
 
     @Override
     @SneakyThrows
     public @NotNull MutableConfig parse(final byte @NotNull [] input) {
-        return convert(objectMapper.readValue(input, Map.class));
+        if (lazy) {
+            return parseLazy(ByteBuffer.wrap(input));
+        }
+
+        return load(objectMapper.readValue(input, Map.class));
     }
 
     @Override
@@ -119,7 +248,7 @@ public final class JacksonConfigProvider implements ConfigProvider {
     @Override
     @SneakyThrows
     public @NotNull MutableConfig parse(final @NotNull Reader reader) {
-        return convert(objectMapper.readValue(reader, Map.class));
+        return load(objectMapper.readValue(reader, Map.class));
     }
 
     @Override
@@ -129,22 +258,185 @@ public final class JacksonConfigProvider implements ConfigProvider {
     }
 
     private MutableConfig _parse(final InputStream is) throws IOException {
-        return convert(objectMapper.readValue(is, Map.class));
+        if (lazy) {
+            return parseLazy(ByteBuffer.wrap(is.readAllBytes()));
+        }
+
+        return load(objectMapper.readValue(is, Map.class));
+    }
+
+    private MutableConfig parseLazy(final ByteBuffer source) {
+        // корневой объект пролистываем сразу, чтобы ошибки синтаксиса
+        // были видны при парсинге, а не при первом обращении
+        return new JacksonConfig(readObject(source));
+    }
+
+    private JsonParser createParser(final ByteBuffer source) {
+        if (source.hasArray()) {
+            return objectMapper.createParser(source.array(), source.arrayOffset() + source.position(),
+                    source.remaining());
+        }
+
+        return objectMapper.createParser(new ByteBufferInputStream(source.duplicate()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readObject(final ByteBuffer source) {
+        try (val parser = createParser(source)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Expected object, but got " + parser.currentToken());
+            }
+
+            if (parser.currentTokenLocation().getByteOffset() < 0) {
+                // парсер не знает смещений (например YAML), читаем целиком
+                val object = new JacksonConfig(new LinkedHashMap<>());
+                loadObject(objectMapper.readValue(parser, Map.class), object);
+
+                return object.map;
+            }
+
+            val result = new LinkedHashMap<String, Object>();
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                val key = parser.currentName();
+
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    val start = parser.currentTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    val end = parser.currentTokenLocation().getByteOffset() + 1;
+
+                    result.put(key, new LazyObject(slice(source, start, end)));
+                } else {
+                    result.put(key, objectMapper.readValue(parser, Object.class));
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private static ByteBuffer slice(final ByteBuffer source, final long start, final long end) {
+        // смещения парсера считаются от начала входа, то есть от position() буфера
+        if (start < 0 || end < start || end > source.remaining()) {
+            throw new IllegalStateException("Object at [" + start + ", " + end + ") is out of bounds of "
+                                            + source.remaining() + " bytes");
+        }
+
+        return source.slice(source.position() + (int) start, (int) (end - start));
+    }
+
+    /**
+     * Объект, который разбирается при первом обращении. Разбор потокобезопасен, чтобы
+     * конфиги только для чтения можно было разделять между потоками.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private final class LazyObject extends AbstractMap<String, Object> {
+
+        ByteBuffer source;
+
+        volatile Map<String, Object> contents;
+
+        private LazyObject(final ByteBuffer source) {
+            this.source = source;
+        }
+
+        private Map<String, Object> contents() {
+            Map<String, Object> result = contents;
+
+            if (result == null) {
+                synchronized (this) {
+                    result = contents;
+
+                    if (result == null) {
+                        val source = this.source;
+
+                        contents = result = readObject(source);
+                        this.source = null;
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public Object get(final Object key) {
+            return contents().get(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return contents().containsKey(key);
+        }
+
+        @Override
+        public Object put(final String key, final Object value) {
+            return contents().put(key, value);
+        }
+
+        @Override
+        public Object remove(final Object key) {
+            return contents().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            contents().clear();
+        }
+
+        @Override
+        public int size() {
+            return contents().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return contents().isEmpty();
+        }
+
+        @Override
+        public @NotNull Set<String> keySet() {
+            return contents().keySet();
+        }
+
+        @Override
+        public @NotNull Collection<Object> values() {
+            return contents().values();
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, Object>> entrySet() {
+            return contents().entrySet();
+        }
+
     }
 
-    private final class JacksonMapper<T> extends AbstractMapper<T> {
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class ByteBufferInputStream extends InputStream {
 
-        private JacksonMapper(Class<T> type) {
-            super(type);
+        ByteBuffer buffer;
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
         }
 
         @Override
-        protected T doMap(final Object o) {
-            try {
-                return objectMapper.convertValue(o, type);
-            } catch (final Exception e) {
-                return null;
+        public int read(final byte @NotNull [] b, final int off, final int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
             }
+
+            val count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
         }
     }
 
@@ -166,8 +458,9 @@ public final class JacksonConfigProvider implements ConfigProvider {
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public @NotNull <T> AbstractMapper<T> mapAs(final @NotNull Class<T> type) {
-            return new JacksonMapper<>(type);
+            return (AbstractMapper<T>) mappers.computeIfAbsent(type, __ -> new JacksonMapper<>(objectMapper, type));
         }
 
         @Override
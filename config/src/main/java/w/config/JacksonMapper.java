@@ -0,0 +1,46 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import tools.jackson.databind.ObjectMapper;
+import w.config.mapper.AbstractMapper;
+
+/**
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class JacksonMapper<T> extends AbstractMapper<T> {
+
+    ObjectMapper objectMapper;
+
+    JacksonMapper(ObjectMapper objectMapper, Class<T> type) {
+        super(type);
+
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected T doMap(final Object o) {
+        try {
+            return objectMapper.convertValue(o, type);
+        } catch (final Exception e) {
+            return null;
+        }
+    }
+}
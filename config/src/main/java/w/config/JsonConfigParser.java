@@ -0,0 +1,511 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбор JSON сразу в содержимое конфига, без промежуточных токенов.
+ * <p>
+ * Разбор идёт прямо по байтам UTF-8, без предварительного декодирования всего входа
+ * в строку: декодируются только сами строковые значения.
+ * <p>
+ * Объекты становятся {@link LinkedHashMap}, массивы {@link ArrayList}, целые числа
+ * {@link Integer}, {@link Long} или {@link BigInteger} в зависимости от величины,
+ * дробные {@link Double}, так же как при разборе через Jackson в {@link Map}.
+ * Одинаковые ключи разных объектов разделяют один экземпляр строки.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class JsonConfigParser {
+
+    private static final int MAX_DEPTH = 500;
+
+    private static final int KEY_CACHE_SIZE = 512;
+
+    private static final int MAX_CACHED_KEY_LENGTH = 32;
+
+    final byte[] input;
+
+    final int length;
+
+    final String[] keys = new String[KEY_CACHE_SIZE];
+
+    int position;
+
+    int depth;
+
+    static Map<String, Object> parse(final String input) {
+        return parse(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Map<String, Object> parse(final byte[] input) {
+        return parse(input, input.length);
+    }
+
+    /**
+     * Разобрать JSON из первых {@code length} байт массива в UTF-8.
+     *
+     * @param input  Байты
+     * @param length Количество байт
+     * @return Содержимое корневого объекта
+     */
+    static Map<String, Object> parse(final byte[] input, final int length) {
+        val parser = new JsonConfigParser(input, length);
+
+        // BOM
+        if (length >= 3 && input[0] == (byte) 0xEF && input[1] == (byte) 0xBB && input[2] == (byte) 0xBF) {
+            parser.position = 3;
+        }
+
+        if (parser.skipWhitespace() != '{') {
+            throw parser.error("Expected object");
+        }
+
+        val result = parser.readObject();
+
+        if (parser.skipWhitespace() != -1) {
+            throw parser.error("Unexpected content after root object");
+        }
+
+        return result;
+    }
+
+    private int skipWhitespace() {
+        val input = this.input;
+        val length = this.length;
+
+        int position = this.position;
+
+        while (position < length) {
+            val ch = input[position];
+
+            if (ch != ' ' && ch != '\n' && ch != '\r' && ch != '\t') {
+                this.position = position;
+                return ch & 0xFF;
+            }
+
+            position++;
+        }
+
+        this.position = position;
+        return -1;
+    }
+
+    private void expect(final char expected) {
+        if (skipWhitespace() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+
+        position++;
+    }
+
+    private Map<String, Object> readObject() {
+        enter();
+        position++; // {
+
+        val result = new LinkedHashMap<String, Object>();
+
+        if (skipWhitespace() == '}') {
+            position++;
+            depth--;
+
+            return result;
+        }
+
+        while (true) {
+            if (skipWhitespace() != '"') {
+                throw error("Expected property name");
+            }
+
+            val key = readKey();
+            expect(':');
+            result.put(key, readValue());
+
+            val next = skipWhitespace();
+            position++;
+
+            if (next == '}') {
+                depth--;
+                return result;
+            } else if (next != ',') {
+                position--;
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        enter();
+        position++; // [
+
+        val result = new ArrayList<>();
+
+        if (skipWhitespace() == ']') {
+            position++;
+            depth--;
+
+            return result;
+        }
+
+        while (true) {
+            result.add(readValue());
+
+            val next = skipWhitespace();
+            position++;
+
+            if (next == ']') {
+                depth--;
+                return result;
+            } else if (next != ',') {
+                position--;
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Nesting depth exceeds " + MAX_DEPTH);
+        }
+    }
+
+    private Object readValue() {
+        return switch (skipWhitespace()) {
+            case '{' -> readObject();
+            case '[' -> readArray();
+            case '"' -> readString();
+            case 't' -> readLiteral("true", Boolean.TRUE);
+            case 'f' -> readLiteral("false", Boolean.FALSE);
+            case 'n' -> readLiteral("null", null);
+            case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> readNumber();
+            case -1 -> throw error("Unexpected end of input");
+            default -> throw error("Unexpected character");
+        };
+    }
+
+    private Object readLiteral(final String literal, final Object value) {
+        val literalLength = literal.length();
+
+        if (position + literalLength > length) {
+            throw error("Unexpected character");
+        }
+
+        for (int i = 0; i < literalLength; i++) {
+            if (input[position + i] != literal.charAt(i)) {
+                throw error("Unexpected character");
+            }
+        }
+
+        position += literalLength;
+
+        return value;
+    }
+
+    private String readKey() {
+        val input = this.input;
+        val start = position + 1;
+        val length = this.length;
+
+        int hash = 0;
+
+        for (int i = start; i < length; i++) {
+            val ch = input[i];
+
+            if (ch == '"') {
+                val keyLength = i - start;
+
+                if (keyLength > MAX_CACHED_KEY_LENGTH) {
+                    break;
+                }
+
+                position = i + 1;
+
+                val slot = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+                val cached = keys[slot];
+
+                if (cached != null && cached.length() == keyLength && matches(cached, start)) {
+                    return cached;
+                }
+
+                return keys[slot] = new String(input, start, keyLength, StandardCharsets.ISO_8859_1);
+            } else if (ch == '\\' || ch < 0x20) {
+                // экранирование, управляющий символ или не ASCII (отрицательный байт)
+                break;
+            }
+
+            hash = 31 * hash + ch;
+        }
+
+        return readString();
+    }
+
+    private boolean matches(final String cached, final int start) {
+        for (int i = 0, j = cached.length(); i < j; i++) {
+            if (input[start + i] != cached.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String readString() {
+        val input = this.input;
+        val start = position + 1;
+        val length = this.length;
+
+        // быстрый путь: строка без экранирования
+        for (int i = start; i < length; i++) {
+            val ch = input[i];
+
+            if (ch == '"') {
+                position = i + 1;
+                return new String(input, start, i - start, StandardCharsets.UTF_8);
+            } else if (ch == '\\') {
+                return readEscapedString(start, i);
+            } else if (ch >= 0 && ch < 0x20) {
+                position = i;
+                throw error("Unescaped control character in string");
+            }
+        }
+
+        position = length;
+        throw error("Unexpected end of input");
+    }
+
+    private String readEscapedString(final int start, final int escape) {
+        val input = this.input;
+        val length = this.length;
+
+        val result = new StringBuilder(escape - start + 16);
+        result.append(new String(input, start, escape - start, StandardCharsets.UTF_8));
+
+        int i = escape;
+        int run = i;
+
+        while (i < length) {
+            val ch = input[i++];
+
+            if (ch == '"') {
+                appendRun(result, run, i - 1);
+                position = i;
+                return result.toString();
+            } else if (ch >= 0 && ch < 0x20) {
+                position = i - 1;
+                throw error("Unescaped control character in string");
+            } else if (ch != '\\') {
+                continue;
+            }
+
+            appendRun(result, run, i - 1);
+
+            if (i >= length) {
+                break;
+            }
+
+            switch (input[i++]) {
+                case '"' -> result.append('"');
+                case '\\' -> result.append('\\');
+                case '/' -> result.append('/');
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'n' -> result.append('\n');
+                case 'r' -> result.append('\r');
+                case 't' -> result.append('\t');
+                case 'u' -> {
+                    if (i + 4 > length) {
+                        position = i;
+                        throw error("Unexpected end of input");
+                    }
+
+                    int code = 0;
+
+                    for (int j = 0; j < 4; j++) {
+                        val digit = Character.digit(input[i + j], 16);
+
+                        if (digit == -1) {
+                            position = i + j;
+                            throw error("Invalid unicode escape");
+                        }
+
+                        code = (code << 4) | digit;
+                    }
+
+                    result.append((char) code);
+                    i += 4;
+                }
+                default -> {
+                    position = i - 1;
+                    throw error("Invalid escape");
+                }
+            }
+
+            run = i;
+        }
+
+        position = length;
+        throw error("Unexpected end of input");
+    }
+
+    private void appendRun(final StringBuilder result, final int from, final int to) {
+        if (from < to) {
+            // отрезок без экранирования целиком, чтобы не разрезать многобайтовые символы
+            result.append(new String(input, from, to - from, StandardCharsets.UTF_8));
+        }
+    }
+
+    private Object readNumber() {
+        val input = this.input;
+        val length = this.length;
+        val start = position;
+
+        int i = start;
+
+        val negative = input[i] == '-';
+
+        if (negative) {
+            i++;
+        }
+
+        val digitsStart = i;
+        long value = 0;
+
+        while (i < length) {
+            val ch = input[i];
+
+            if (ch < '0' || ch > '9') {
+                break;
+            }
+
+            value = value * 10 + (ch - '0');
+            i++;
+        }
+
+        val digits = i - digitsStart;
+
+        if (digits == 0) {
+            position = i;
+            throw error("Expected digit");
+        } else if (digits > 1 && input[digitsStart] == '0') {
+            position = digitsStart;
+            throw error("Leading zeroes are not allowed");
+        }
+
+        if (i < length) {
+            val ch = input[i];
+
+            if (ch == '.' || ch == 'e' || ch == 'E') {
+                return readFloating(start, i);
+            }
+        }
+
+        position = i;
+
+        if (digits > 18) {
+            val big = new BigInteger(ascii(start, i));
+
+            return big.bitLength() < 64
+                    ? (Object) big.longValue()
+                    : big;
+        }
+
+        if (negative) {
+            value = -value;
+        }
+
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE
+                ? (Object) (int) value
+                : (Object) value;
+    }
+
+    private Object readFloating(final int start, int i) {
+        val input = this.input;
+        val length = this.length;
+
+        if (input[i] == '.') {
+            i = skipDigits(i + 1);
+        }
+
+        if (i < length && (input[i] == 'e' || input[i] == 'E')) {
+            i++;
+
+            if (i < length && (input[i] == '+' || input[i] == '-')) {
+                i++;
+            }
+
+            i = skipDigits(i);
+        }
+
+        position = i;
+
+        return Double.parseDouble(ascii(start, i));
+    }
+
+    private String ascii(final int from, final int to) {
+        return new String(input, from, to - from, StandardCharsets.ISO_8859_1);
+    }
+
+    private int skipDigits(final int from) {
+        val input = this.input;
+        val length = this.length;
+
+        int i = from;
+
+        while (i < length && input[i] >= '0' && input[i] <= '9') {
+            i++;
+        }
+
+        if (i == from) {
+            position = i;
+            throw error("Expected digit");
+        }
+
+        return i;
+    }
+
+    private IllegalStateException error(final String message) {
+        int line = 1, column = 1;
+
+        for (int i = 0, j = Math.min(position, length); i < j; i++) {
+            val ch = input[i];
+
+            if (ch == '\n') {
+                line++;
+                column = 1;
+            } else if ((ch & 0xC0) != 0x80) {
+                // продолжения многобайтовых символов не считаем
+                column++;
+            }
+        }
+
+        return new IllegalStateException(message + " at line " + line + ", column " + column);
+    }
+
+}
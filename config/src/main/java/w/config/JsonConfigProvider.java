@@ -0,0 +1,200 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.module.SimpleModule;
+import w.config.deserializer.ConfigDeserializer;
+import w.config.mapper.AbstractMapper;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Провайдер JSON-конфигов с собственным парсером, который строит содержимое конфига
+ * напрямую, минуя databind Jackson (см. {@link JsonConfigParser}). Числа сразу
+ * становятся {@link Integer}, {@link Long}, {@link java.math.BigInteger} или {@link Double}.
+ * <p>
+ * Jackson используется только для {@link Config#asType(Class)}, {@link Config#mapAs(Class)}
+ * и записи конфига.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JsonConfigProvider implements ConfigProvider {
+
+    ObjectMapper objectMapper;
+
+    Map<Class<?>, AbstractMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    public static @NotNull ConfigProvider create() {
+        return create(new ObjectMapper());
+    }
+
+    /**
+     * Создать провайдер JSON-конфигов.
+     *
+     * @param objectMapper Маппер, используемый для {@link Config#asType(Class)},
+     *                     {@link Config#mapAs(Class)} и записи конфига
+     * @return Новый провайдер
+     */
+    public static @NotNull ConfigProvider create(@NotNull ObjectMapper objectMapper) {
+        val provider = new JsonConfigProvider();
+
+        val module = new SimpleModule();
+        module.addDeserializer(Config.class, new ConfigDeserializer(provider));
+
+        provider.objectMapper = objectMapper.rebuild()
+                .addModule(module)
+                .build();
+
+        return provider;
+    }
+
+    private void loadObject(Map<?, ?> map, MutableConfig object) {
+        for (val entry : map.entrySet()) {
+            val key = entry.getKey().toString();
+            val value = entry.getValue();
+
+            if (value instanceof Map) {
+                loadObject((Map<?, ?>) value, object.createObject(key));
+            } else {
+                object.set(key, value);
+            }
+        }
+    }
+
+    @Override
+    public @NotNull MutableConfig newObject() {
+        return new JsonConfig(new LinkedHashMap<>());
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull File file) {
+        return parse(file.toPath());
+    }
+
+    @Override
+    @SneakyThrows
+    public @NotNull MutableConfig parse(final @NotNull Path path) {
+        return parse(Files.readAllBytes(path));
+    }
+
+    @Override
+    @SneakyThrows
+    public @NotNull MutableConfig parse(final @NotNull Reader reader) {
+        // символы читаются в один буфер и сразу кодируются в UTF-8 для разбора,
+        // без промежуточной строки
+        char[] buffer = new char[8192];
+        int length = 0;
+        int read;
+
+        while ((read = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+
+        val bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(buffer, 0, length));
+        return new JsonConfig(JsonConfigParser.parse(bytes.array(), bytes.limit()));
+    }
+
+    @Override
+    @SneakyThrows
+    public @NotNull MutableConfig parse(final @NotNull InputStream stream) {
+        return parse(stream.readAllBytes());
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull String input) {
+        return new JsonConfig(JsonConfigParser.parse(input));
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final byte @NotNull [] input) {
+        return new JsonConfig(JsonConfigParser.parse(input));
+    }
+
+    @Override
+    public @NotNull MutableConfig convert(@NotNull Map<?, ?> map) {
+        val object = new JsonConfig(new LinkedHashMap<>());
+        loadObject(map, object);
+
+        return object;
+    }
+
+    private final class JsonConfig extends MapBasedMutableConfig {
+
+        private JsonConfig(final Map<String, Object> map) {
+            super(map);
+        }
+
+        @Override
+        @SneakyThrows
+        public String toString() {
+            return objectMapper.writeValueAsString(map);
+        }
+
+        @Override
+        protected MutableConfig createObject(final Map<String, Object> map) {
+            return new JsonConfig(map);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public @NotNull <T> AbstractMapper<T> mapAs(final @NotNull Class<T> type) {
+            return (AbstractMapper<T>) mappers.computeIfAbsent(type, __ -> new JacksonMapper<>(objectMapper, type));
+        }
+
+        @Override
+        @SneakyThrows
+        public void writeTo(final @NotNull Writer writer) {
+            objectMapper.writeValue(writer, map);
+        }
+
+        @Override
+        @SneakyThrows
+        public void writeTo(final @NotNull OutputStream os) {
+            objectMapper.writeValue(os, map);
+        }
+
+        @Override
+        public <T> T asType(final @NotNull Class<T> type) {
+            return objectMapper.convertValue(map, type);
+        }
+    }
+}
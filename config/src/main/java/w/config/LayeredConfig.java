@@ -0,0 +1,489 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+import w.config.mapper.Mapper;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Конфиг, который собирается из нескольких слоёв во время чтения, без копирования.
+ * <p>
+ * Слои упорядочены по возрастанию приоритета (например: значения по умолчанию, файл,
+ * переменные окружения, значения во время работы). Значение берётся из самого верхнего
+ * слоя, в котором оно есть, а объекты из разных слоёв объединяются по ключам.
+ * Списки не объединяются, верхний слой полностью заменяет нижний.
+ * <p>
+ * Найденные значения кэшируются. При замене слоя через {@link #setLayer(int, Config)}
+ * сбрасываются только ключи, которые есть в старом или новом слое. Если слой был
+ * изменён на месте, нужно вызвать {@link #invalidate(String)}. Вложенные объекты,
+ * полученные до замены слоя, видят новые значения.
+ * <p>
+ * Сам конфиг доступен только для чтения, изменять нужно слои.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class LayeredConfig extends MapBasedMutableConfig {
+
+    ConfigProvider provider;
+
+    LayeredMap layeredMap;
+
+    @NonFinal
+    volatile List<Config> layers;
+
+    private LayeredConfig(ConfigProvider provider, LayeredMap layeredMap, List<Config> layers) {
+        super(layeredMap);
+
+        this.provider = provider;
+        this.layeredMap = layeredMap;
+        this.layers = layers;
+    }
+
+    /**
+     * Создать конфиг из слоёв.
+     *
+     * @param provider Провайдер, через который конфиг сериализуется и преобразуется в другие типы
+     * @param layers   Слои по возрастанию приоритета
+     * @return Новый конфиг
+     */
+    public static @NotNull LayeredConfig create(
+            @NotNull ConfigProvider provider,
+            @NotNull List<? extends @NotNull Config> layers
+    ) {
+        val layerList = List.<Config>copyOf(layers);
+        return new LayeredConfig(provider, new LayeredMap(asMaps(layerList)), layerList);
+    }
+
+    public static @NotNull LayeredConfig create(
+            @NotNull ConfigProvider provider,
+            @NotNull Config @NotNull ... layers
+    ) {
+        return create(provider, Arrays.asList(layers));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object>[] asMaps(List<Config> layers) {
+        val maps = new Map[layers.size()];
+
+        for (int i = 0; i < maps.length; i++) {
+            maps[i] = layers.get(i).asMap();
+        }
+
+        return maps;
+    }
+
+    private List<Config> requireLayers() {
+        val layers = this.layers;
+
+        if (layers == null) {
+            throw new IllegalStateException("Layers can be changed only on the root config");
+        }
+
+        return layers;
+    }
+
+    /**
+     * Получить слои по возрастанию приоритета.
+     *
+     * @return Список слоёв
+     */
+    public @Unmodifiable @NotNull List<@NotNull Config> getLayers() {
+        return requireLayers();
+    }
+
+    /**
+     * Заменить слой. Сбрасываются, и подписчики оповещаются, только по ключам, которые
+     * есть в старом или новом слое.
+     *
+     * @param index Индекс слоя
+     * @param layer Новый слой
+     */
+    public synchronized void setLayer(int index, @NotNull Config layer) {
+        val newLayers = new ArrayList<>(requireLayers());
+        val oldLayer = newLayers.set(index, layer);
+
+        update(newLayers);
+
+        val affected = new HashSet<>(oldLayer.keySet());
+        affected.addAll(layer.keySet());
+
+        for (val key : affected) {
+            layeredMap.invalidate(key);
+        }
+
+        for (val key : affected) {
+            fireChange(key);
+        }
+    }
+
+    /**
+     * Добавить слой с наибольшим приоритетом.
+     *
+     * @param layer Новый слой
+     */
+    public synchronized void addLayer(@NotNull Config layer) {
+        val newLayers = new ArrayList<>(requireLayers());
+        newLayers.add(layer);
+
+        update(newLayers);
+
+        for (val key : layer.keySet()) {
+            layeredMap.invalidate(key);
+        }
+
+        for (val key : layer.keySet()) {
+            fireChange(key);
+        }
+    }
+
+    private void update(List<Config> newLayers) {
+        layers = List.copyOf(newLayers);
+        layeredMap.setLayers(asMaps(newLayers));
+    }
+
+    /**
+     * Сбросить кэш значения после изменения какого-либо слоя на месте. Сбрасывается
+     * значение по пути и всё, что в нём, а соседние значения остаются в кэше.
+     *
+     * @param path Путь к изменённому значению, через точку
+     */
+    public void invalidate(@NotNull String path) {
+        layeredMap.invalidate(path, 0);
+    }
+
+    @Override
+    protected MutableConfig createObject(final Map<String, Object> map) {
+        return map instanceof LayeredMap layered
+                ? new LayeredConfig(provider, layered, null)
+                : provider.convert(map);
+    }
+
+    @Override
+    public <T> T asType(final @NotNull Class<T> type) {
+        return provider.convert(map).asType(type);
+    }
+
+    @Override
+    public @NotNull <T> Mapper<T> mapAs(final @NotNull Class<T> type) {
+        return provider.newObject().mapAs(type);
+    }
+
+    @Override
+    public void writeTo(final @NotNull Writer writer) {
+        provider.convert(map).writeTo(writer);
+    }
+
+    @Override
+    public void writeTo(final @NotNull OutputStream os) {
+        provider.convert(map).writeTo(os);
+    }
+
+    @Override
+    public String toString() {
+        return provider.convert(map).toString();
+    }
+
+    /**
+     * Объединённое представление объекта из слоёв. Вложенное представление одно на ключ
+     * и пересобирает свои слои, когда этот ключ сбрасывают у родителя, поэтому полученные
+     * заранее вложенные объекты не устаревают, а сброс одного пути не трогает кэш соседних.
+     * <p>
+     * Кэшируются только найденные значения, так что кэш не больше объединения ключей слоёв.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class LayeredMap extends AbstractMap<String, Object> {
+
+        LayeredMap parent;
+
+        String key;
+
+        @NonFinal
+        volatile Map<String, Object>[] layers;
+
+        /**
+         * Номер изменения этого объекта: растёт при каждом сбросе его кэша или слоёв.
+         */
+        @NonFinal
+        volatile long version;
+
+        /**
+         * У вложенных - номер изменения, по которому собраны {@link #layers}.
+         */
+        @NonFinal
+        volatile long built;
+
+        Map<String, Object> resolved = new ConcurrentHashMap<>();
+
+        Map<String, LayeredMap> nested = new ConcurrentHashMap<>();
+
+        private LayeredMap(final Map<String, Object>[] layers) {
+            this.parent = null;
+            this.key = null;
+            this.layers = layers;
+        }
+
+        private LayeredMap(final LayeredMap parent, final String key) {
+            this.parent = parent;
+            this.key = key;
+            this.built = -1;
+        }
+
+        private synchronized void setLayers(final Map<String, Object>[] layers) {
+            this.layers = layers;
+            version++;
+        }
+
+        /**
+         * Сбросить значение по ключу, а если по нему объект, то и всё, что в нём.
+         */
+        private void invalidate(final String key) {
+            evict(key);
+
+            val child = nested.get(key);
+
+            if (child != null) {
+                child.invalidateAll();
+            }
+        }
+
+        /**
+         * Сбросить значение по пути. Объекты на пути только пересобирают слои, потому что
+         * объект мог впервые появиться в слое, а остальные их значения остаются в кэше.
+         */
+        private void invalidate(final String path, final int start) {
+            val dot = path.indexOf('.', start);
+
+            if (dot == -1) {
+                invalidate(path.substring(start));
+                return;
+            }
+
+            val key = path.substring(start, dot);
+            evict(key);
+
+            // нет представления - нет и кэша глубже
+            val child = nested.get(key);
+
+            if (child != null) {
+                child.invalidate(path, dot + 1);
+            }
+        }
+
+        private void invalidateAll() {
+            synchronized (this) {
+                resolved.clear();
+                version++;
+            }
+
+            for (val child : nested.values()) {
+                child.invalidateAll();
+            }
+        }
+
+        private synchronized void evict(final String key) {
+            resolved.remove(key);
+            version++;
+        }
+
+        private Map<String, Object>[] layers() {
+            if (parent == null || built == version) {
+                return layers;
+            }
+
+            return rebuild();
+        }
+
+        private synchronized Map<String, Object>[] rebuild() {
+            val version = this.version;
+
+            if (built != version) {
+                // объект мог пропасть или собраться из других слоёв
+                val children = children(parent.layers(), key);
+
+                layers = children != null ? children : emptyLayers();
+                built = version;
+            }
+
+            return layers;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object>[] emptyLayers() {
+            return (Map<String, Object>[]) new Map[0];
+        }
+
+        /**
+         * Собрать слои вложенного объекта.
+         *
+         * @return Слои объекта или {@code null}, если в верхнем слое по этому ключу не объект
+         */
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object>[] children(final Map<String, Object>[] layers, final String key) {
+            for (int i = layers.length - 1; i >= 0; i--) {
+                val layer = layers[i];
+                if (layer == null) continue;
+
+                val value = layer.get(key);
+                if (value == null) continue;
+
+                if (!(value instanceof Map<?, ?>)) {
+                    return null;
+                }
+
+                // объединяем объекты этого и нижних слоёв, пока их не перекроет не-объект
+                val children = (Map<String, Object>[]) new Map[i + 1];
+
+                for (int j = i; j >= 0; j--) {
+                    if (layers[j] == null) continue;
+
+                    val lower = layers[j].get(key);
+                    if (lower == null) continue;
+
+                    if (!(lower instanceof Map<?, ?> lowerMap)) break;
+
+                    children[j] = (Map<String, Object>) lowerMap;
+                }
+
+                return children;
+            }
+
+            return null;
+        }
+
+        private Object resolve(final Map<String, Object>[] layers, final String key) {
+            for (int i = layers.length - 1; i >= 0; i--) {
+                val layer = layers[i];
+                if (layer == null) continue;
+
+                val value = layer.get(key);
+                if (value == null) continue;
+
+                if (!(value instanceof Map<?, ?>)) {
+                    return value;
+                }
+
+                return nested.computeIfAbsent(key, __ -> new LayeredMap(this, key));
+            }
+
+            return null;
+        }
+
+        @Override
+        public Object get(final Object key) {
+            if (!(key instanceof String string)) {
+                return null;
+            }
+
+            // номер читаем до слоёв, чтобы сброс во время поиска не оставил в кэше старое значение
+            val version = this.version;
+            val layers = layers();
+            Object value = resolved.get(string);
+
+            if (value == null) {
+                value = resolve(layers, string);
+
+                // отсутствующие ключи не кэшируем, иначе кэш растёт от запросов произвольных ключей
+                if (value != null) {
+                    resolved.put(string, value);
+
+                    // объект могли сбросить, пока мы искали значение
+                    if (this.version != version) {
+                        resolved.remove(string);
+                    }
+                }
+            }
+
+            return value;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        private Set<String> keys() {
+            val keys = new LinkedHashSet<String>();
+
+            for (val layer : layers()) {
+                if (layer != null) {
+                    keys.addAll(layer.keySet());
+                }
+            }
+
+            keys.removeIf(key -> get(key) == null);
+
+            return keys;
+        }
+
+        @Override
+        public @NotNull Set<String> keySet() {
+            return keys();
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, Object>> entrySet() {
+            val keys = keys();
+
+            return new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<String, Object>> iterator() {
+                    val iterator = keys.iterator();
+
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            val key = iterator.next();
+                            return new SimpleImmutableEntry<>(key, get(key));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.size();
+                }
+            };
+        }
+
+    }
+
+}
@@ -19,6 +19,7 @@ package w.config;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.val;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -34,8 +35,12 @@ import w.config.path.SimpleConfigPath;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -48,6 +53,7 @@ import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -58,8 +64,42 @@ import java.util.function.Supplier;
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<MutableConfig> {
 
+    private static final int[] EMPTY_INT_ARRAY = new int[0];
+    private static final long[] EMPTY_LONG_ARRAY = new long[0];
+    private static final double[] EMPTY_DOUBLE_ARRAY = new double[0];
+
+    private static final int MAX_CONVERSIONS_PER_KEY = 8;
+
+    private static final Set<String> IMMUTABLE_PACKAGES = Set.of("java.lang", "java.time");
+
     Map<String, Object> map;
 
+    /**
+     * Кэш результатов преобразования значений через {@link Mapper}, чтобы повторные
+     * {@code getDouble("rate")} для строки не парсили её каждый раз. Запись действительна,
+     * пока по ключу лежит тот же самый объект, поэтому изменения через {@link #asMap()}
+     * тоже учитываются.
+     * <p>
+     * Кэшируются только неизменяемые результаты неизменяемых значений и представления
+     * вложенных объектов. Объекты и списки можно изменить на месте, не заменяя их, поэтому
+     * результаты их преобразования (например, {@code getAs("db", Db.class)}) не кэшируются.
+     */
+    @NonFinal
+    volatile Map<String, Conversion> conversions;
+
+    /**
+     * Объект, из которого был получен этот вложенный объект, и ключ в нём. По ним
+     * изменения вложенного объекта доходят до подписок корня.
+     */
+    @NonFinal
+    volatile MapBasedMutableConfig parent;
+
+    @NonFinal
+    String name;
+
+    @NonFinal
+    volatile ConfigSubscriptions subscriptions;
+
     @Override
     public boolean equals(@Nullable Object o) {
         return o == this || (o instanceof Config config && map.equals(config.asMap()));
@@ -161,11 +201,17 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
     @Override
     public void set(@NotNull String key, @Nullable Object object) {
         map.put(key, object);
+        invalidate(key);
+        invalidateParents();
+        fireChange(key);
     }
 
     @Override
     public void remove(@NotNull String key) {
         map.remove(key);
+        invalidate(key);
+        invalidateParents();
+        fireChange(key);
     }
 
     @Override
@@ -299,12 +345,11 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
     }
 
     @Override
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public @NotNull MutableConfig getObject(@NotNull String key) {
-        val value = map.get(key);
+        MutableConfig object = convert(key, map.get(key), configMapper(), false);
 
-        if (value instanceof Map mapValue) {
-            return createObject(mapValue);
+        if (object != null) {
+            return object;
         }
 
         throw new ConfigMissingKeyException(key);
@@ -320,7 +365,7 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
             @NotNull String key,
             @NotNull Mapper<T> mapper
     ) throws ConfigMissingKeyException {
-        return mapper.mapStrict(require(map.get(key), key));
+        return convert(key, require(map.get(key), key), mapper, true);
     }
 
     @Override
@@ -329,7 +374,7 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
             @NotNull Mapper<T> mapper,
             @Nullable T def
     ) {
-        val result = mapper.map(map.get(key));
+        val result = convert(key, map.get(key), mapper, false);
         return result == null ? def : result;
     }
 
@@ -344,11 +389,272 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
             Function<U, T> wrap,
             Mapper<U> mapper
     ) {
-        val result = mapper.map(map.get(key));
+        val result = convert(key, map.get(key), mapper, false);
 
         return result == null ? empty.get() : wrap.apply(result);
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> T convert(String key, Object raw, Mapper<T> mapper, boolean strict) {
+        if (raw == null) {
+            return null;
+        }
+
+        val conversions = this.conversions;
+
+        if (conversions != null) {
+            for (Conversion conversion = conversions.get(key); conversion != null; conversion = conversion.next) {
+                if (conversion.mapper == mapper && conversion.raw == raw) {
+                    return (T) conversion.value;
+                }
+            }
+        }
+
+        val value = strict ? mapper.mapStrict(raw) : mapper.map(raw);
+
+        if (value != null && value != raw) {
+            if (value instanceof MapBasedMutableConfig child) {
+                // представление само читает актуальное содержимое объекта
+                attach(child, key, raw);
+                cacheConversion(key, raw, mapper, value);
+            } else if (isImmutable(raw) && isImmutable(value)) {
+                cacheConversion(key, raw, mapper, value);
+            }
+        }
+
+        return value;
+    }
+
+    private static boolean isImmutable(Object value) {
+        if (value instanceof String || value instanceof Boolean || value instanceof Character
+            || value instanceof Enum<?> || value instanceof BigInteger || value instanceof BigDecimal) {
+            return true;
+        }
+
+        // AtomicInteger и прочие изменяемые числа лежат в других пакетах
+        return (value instanceof Number || value instanceof Temporal || value instanceof TemporalAmount)
+               && IMMUTABLE_PACKAGES.contains(value.getClass().getPackageName());
+    }
+
+    private void cacheConversion(String key, Object raw, Mapper<?> mapper, Object value) {
+        Map<String, Conversion> conversions = this.conversions;
+
+        if (conversions == null) {
+            this.conversions = conversions = new ConcurrentHashMap<>();
+        }
+
+        // оставляем только актуальные преобразования того же значения другими мапперами
+        Conversion next = null;
+        int count = 1;
+
+        for (Conversion conversion = conversions.get(key);
+             conversion != null && count < MAX_CONVERSIONS_PER_KEY;
+             conversion = conversion.next) {
+            if (conversion.raw == raw && conversion.mapper != mapper) {
+                next = new Conversion(conversion.mapper, conversion.raw, conversion.value, next);
+                count++;
+            }
+        }
+
+        conversions.put(key, new Conversion(mapper, raw, value, next));
+    }
+
+    private void invalidate(String key) {
+        val conversions = this.conversions;
+
+        if (conversions != null) {
+            conversions.remove(key);
+        }
+    }
+
+    private void invalidateAll() {
+        conversions = null;
+    }
+
+    /**
+     * Сбросить у родителей преобразования объектов, в которые входит этот объект. Сейчас
+     * такие преобразования не кэшируются, кроме представлений, которые всегда актуальны,
+     * поэтому представления сохраняются.
+     */
+    private void invalidateParents() {
+        MapBasedMutableConfig node = this;
+        MapBasedMutableConfig parent;
+
+        while ((parent = node.parent) != null) {
+            parent.invalidateDerived(node.name);
+            node = parent;
+        }
+    }
+
+    private void invalidateDerived(String key) {
+        val conversions = this.conversions;
+
+        if (conversions == null) {
+            return;
+        }
+
+        conversions.computeIfPresent(key, (__, head) -> {
+            Conversion views = null;
+
+            for (Conversion conversion = head; conversion != null; conversion = conversion.next) {
+                if (conversion.value instanceof MapBasedMutableConfig) {
+                    views = new Conversion(conversion.mapper, conversion.raw, conversion.value, views);
+                }
+            }
+
+            return views;
+        });
+    }
+
+    // region subscriptions
+
+    private void attach(MapBasedMutableConfig child, String key, Object raw) {
+        if (child.parent == null && child.map == raw && child != this) {
+            child.name = key;
+            child.parent = this;
+        }
+    }
+
+    void useSubscriptions(ConfigSubscriptions subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
+    private MapBasedMutableConfig root() {
+        MapBasedMutableConfig node = this;
+        MapBasedMutableConfig parent;
+
+        while ((parent = node.parent) != null) {
+            node = parent;
+        }
+
+        return node;
+    }
+
+    private String pathOf(String key) {
+        val parent = this.parent;
+
+        if (parent == null) {
+            return key;
+        }
+
+        return parent.pathOf(key.isEmpty() ? name : name + "." + key);
+    }
+
+    void fireChange(String key) {
+        MapBasedMutableConfig node = this;
+        MapBasedMutableConfig parent;
+
+        while ((parent = node.parent) != null) {
+            // объект уже заменён в родителе, и его изменения конфиг больше не затрагивают
+            if (parent.map.get(node.name) != node.map) {
+                return;
+            }
+
+            node = parent;
+        }
+
+        val subscriptions = node.subscriptions;
+
+        if (subscriptions != null && !subscriptions.isEmpty()) {
+            subscriptions.fireChange(pathOf(key));
+        }
+    }
+
+    @Override
+    public @NotNull ConfigSubscription subscribe(@NotNull String path, @NotNull ConfigListener listener) {
+        val root = root();
+
+        ConfigSubscriptions subscriptions = root.subscriptions;
+
+        if (subscriptions == null) {
+            synchronized (root) {
+                if ((subscriptions = root.subscriptions) == null) {
+                    root.subscriptions = subscriptions = ConfigSubscriptions.create();
+                }
+            }
+        }
+
+        return subscriptions.subscribe(pathOf(path), listener);
+    }
+
+    // endregion
+
+    // region structural hash
+
+    /**
+     * Хэш вычисляется заново при каждом вызове: объект можно изменить в обход этого
+     * конфига (через {@link #asMap()}, через несвязанные вложенные объекты или слиянием
+     * в {@link #setAll(Config)}), и закэшированный хэш мог бы устареть.
+     */
+    @Override
+    public long structuralHash() {
+        return StructuralHash.map(map);
+    }
+
+    /**
+     * Проверить, что {@link #structuralHash()} хранится для неизменяемого снимка и
+     * его сравнение стоит O(1). Только таким хэшам можно доверять без обхода.
+     *
+     * @return {@code true}, если хэш закэширован для снимка
+     */
+    boolean isStructuralHashCached() {
+        return false;
+    }
+
+    @Override
+    public @NotNull ConfigPatch diff(@NotNull Config other) {
+        return ConfigPatch.diff(this, other);
+    }
+
+    @Override
+    public void apply(@NotNull ConfigPatch patch) {
+        for (val path : patch.getRemoved()) {
+            val keys = ConfigPatch.split(path);
+            val parent = parentOf(keys, false);
+
+            if (parent != null) {
+                parent.remove(keys.get(keys.size() - 1));
+            }
+        }
+
+        for (val entry : patch.getChanged().entrySet()) {
+            setPath(entry.getKey(), entry.getValue());
+        }
+
+        for (val entry : patch.getAdded().entrySet()) {
+            setPath(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void setPath(String path, Object value) {
+        val keys = ConfigPatch.split(path);
+        parentOf(keys, true).set(keys.get(keys.size() - 1), ConfigPatch.copyValue(value));
+    }
+
+    private MutableConfig parentOf(List<String> keys, boolean create) {
+        MutableConfig node = this;
+
+        for (int i = 0, j = keys.size() - 1; i < j; i++) {
+            val key = keys.get(i);
+            val next = node.findObject(key);
+
+            if (next.isPresent()) {
+                node = next.get();
+            } else if (create) {
+                node = node.createObject(key);
+            } else {
+                return null;
+            }
+        }
+
+        return node;
+    }
+
+    // endregion
+
+    private record Conversion(Mapper<?> mapper, Object raw, Object value, Conversion next) {
+    }
+
     // region list
 
 
@@ -481,6 +787,106 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
         return getBooleanList(key, Collections.emptyList());
     }
 
+    // endregion
+    // region array
+
+    @Override
+    public int @NotNull [] getIntArray(@NotNull String key) {
+        return getIntArray(key, EMPTY_INT_ARRAY);
+    }
+
+    @Override
+    public int @Nullable [] getIntArray(@NotNull String key, int @Nullable [] def) {
+        val value = map.get(key);
+
+        if (value instanceof int[] array) {
+            return array.clone();
+        } else if (value instanceof PrimitiveList list) {
+            return list.toIntArray();
+        } else if (value instanceof List<?> list) {
+            val result = new int[list.size()];
+            int i = 0;
+
+            for (val element : list) {
+                result[i++] = element instanceof Number number
+                        ? number.intValue()
+                        : requireElement(NumberMapper.intMapper().mapStrict(element), key);
+            }
+
+            return result;
+        }
+
+        return def;
+    }
+
+    @Override
+    public long @NotNull [] getLongArray(@NotNull String key) {
+        return getLongArray(key, EMPTY_LONG_ARRAY);
+    }
+
+    @Override
+    public long @Nullable [] getLongArray(@NotNull String key, long @Nullable [] def) {
+        val value = map.get(key);
+
+        if (value instanceof long[] array) {
+            return array.clone();
+        } else if (value instanceof PrimitiveList list) {
+            return list.toLongArray();
+        } else if (value instanceof List<?> list) {
+            val result = new long[list.size()];
+            int i = 0;
+
+            for (val element : list) {
+                result[i++] = element instanceof Number number
+                        ? number.longValue()
+                        : requireElement(NumberMapper.longMapper().mapStrict(element), key);
+            }
+
+            return result;
+        }
+
+        return def;
+    }
+
+    @Override
+    public double @NotNull [] getDoubleArray(@NotNull String key) {
+        return getDoubleArray(key, EMPTY_DOUBLE_ARRAY);
+    }
+
+    @Override
+    public double @Nullable [] getDoubleArray(@NotNull String key, double @Nullable [] def) {
+        val value = map.get(key);
+
+        if (value instanceof double[] array) {
+            return array.clone();
+        } else if (value instanceof PrimitiveList list) {
+            return list.toDoubleArray();
+        } else if (value instanceof List<?> list) {
+            val result = new double[list.size()];
+            int i = 0;
+
+            for (val element : list) {
+                result[i++] = element instanceof Number number
+                        ? number.doubleValue()
+                        : requireElement(NumberMapper.doubleMapper().mapStrict(element), key);
+            }
+
+            return result;
+        }
+
+        return def;
+    }
+
+    private <T> T requireElement(T value, String key) {
+        if (value == null) {
+            throw new IllegalStateException("Cannot map null element of " + key + " to number");
+        }
+
+        return value;
+    }
+
+    // endregion
+
     @Override
     public @NotNull Map<@NotNull String, @NotNull Object> asMap() {
         return map;
@@ -488,7 +894,23 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
 
     @Override
     public void setAll(@NotNull Config config) {
-        merge(map, config.asMap());
+        mergeContents(config.asMap());
+        invalidateAll();
+        invalidateParents();
+
+        for (val key : config.keySet()) {
+            fireChange(key);
+        }
+    }
+
+    /**
+     * Объединить содержимое другого конфига с этим: объекты объединяются по ключам,
+     * списки дописываются, остальные значения заменяются.
+     *
+     * @param contents Содержимое другого конфига
+     */
+    protected void mergeContents(@NotNull Map<String, Object> contents) {
+        merge(map, contents);
     }
 
     private <E> void merge(List<E> oldList, List<E> newList) {
@@ -543,7 +965,13 @@ public abstract class MapBasedMutableConfig implements MutableConfig, Mapper<Mut
         val object = new LinkedHashMap<String, Object>();
         set(key, object);
 
-        return createObject(object);
+        val child = createObject(object);
+
+        if (child instanceof MapBasedMutableConfig config) {
+            attach(config, key, object);
+        }
+
+        return child;
     }
 
     @Override
@@ -44,4 +44,13 @@ public interface MutableConfig extends Config {
 
     void remove(@NotNull String key);
 
+    /**
+     * Применить патч: удалить, изменить и добавить пути из него. Недостающие
+     * промежуточные объекты создаются.
+     *
+     * @param patch Патч
+     * @see Config#diff(Config)
+     */
+    void apply(@NotNull ConfigPatch patch);
+
 }
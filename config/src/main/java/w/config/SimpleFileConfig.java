@@ -24,15 +24,26 @@ import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import w.config.schema.ConfigValidationException;
+import w.util.io.ByteOutput;
+import w.util.io.ByteOutputStream;
+import w.util.io.UncappedByteOutput;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author whilein
@@ -49,9 +60,9 @@ public final class SimpleFileConfig implements FileConfig {
 
         void makeParentDirectory() throws IOException;
 
-        @NotNull OutputStream openOutput() throws IOException;
+        @NotNull Path path();
 
-        @NotNull InputStream openInput() throws IOException;
+        @NotNull MutableConfig parse(@NotNull ConfigProvider provider);
     }
 
     @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -71,13 +82,13 @@ public final class SimpleFileConfig implements FileConfig {
         }
 
         @Override
-        public @NotNull OutputStream openOutput() throws IOException {
-            return Files.newOutputStream(path);
+        public @NotNull Path path() {
+            return path;
         }
 
         @Override
-        public @NotNull InputStream openInput() throws IOException {
-            return Files.newInputStream(path);
+        public @NotNull MutableConfig parse(@NotNull ConfigProvider provider) {
+            return provider.parse(path);
         }
     }
 
@@ -100,13 +111,13 @@ public final class SimpleFileConfig implements FileConfig {
         }
 
         @Override
-        public @NotNull OutputStream openOutput() throws IOException {
-            return new FileOutputStream(file);
+        public @NotNull Path path() {
+            return file.toPath();
         }
 
         @Override
-        public @NotNull InputStream openInput() throws IOException {
-            return new FileInputStream(file);
+        public @NotNull MutableConfig parse(@NotNull ConfigProvider provider) {
+            return provider.parse(file);
         }
     }
 
@@ -114,9 +125,26 @@ public final class SimpleFileConfig implements FileConfig {
 
     ConfigProvider provider;
 
+    ByteOutput buffer = UncappedByteOutput.create();
+
+    Object writeLock = new Object();
+
+    AtomicReference<ByteOutput> pending = new AtomicReference<>();
+
+    @NonFinal
+    volatile Executor writeBehind;
+
+    @NonFinal
+    volatile IOException failure;
+
+    /**
+     * Подписки живут дольше отдельного {@link #delegate}, который заменяется при каждой перезагрузке.
+     */
+    ConfigSubscriptions subscriptions = ConfigSubscriptions.create();
+
     @NonFinal
     @Delegate(types = MutableConfig.class)
-    MutableConfig delegate;
+    volatile MutableConfig delegate;
 
     @SneakyThrows
     private static FileConfig _create(
@@ -144,6 +172,33 @@ public final class SimpleFileConfig implements FileConfig {
         return config;
     }
 
+    /**
+     * Создать конфиг, провайдер которого выбирается по расширению файла
+     * через {@link ConfigProviders#getByFileName(String)}.
+     *
+     * @param path Путь к файлу
+     * @return Новый конфиг
+     */
+    public static @NotNull FileConfig create(final @NotNull Path path) {
+        return _create(path, ConfigProviders.getByFileName(path.getFileName().toString()));
+    }
+
+    public static @NotNull FileConfig create(final @NotNull File file) {
+        return _create(file, ConfigProviders.getByFileName(file.getName()));
+    }
+
+    public static @NotNull FileConfig create(final @NotNull String name) {
+        return create(new File(name));
+    }
+
+    public static @NotNull FileConfig create(final @NotNull File parent, final @NotNull String name) {
+        return create(new File(parent, name));
+    }
+
+    public static @NotNull FileConfig create(final @NotNull String parent, final @NotNull String name) {
+        return create(new File(parent, name));
+    }
+
     public static @NotNull FileConfig create(
             final @NotNull Path path,
             final @NotNull ConfigProvider provider
@@ -183,17 +238,158 @@ public final class SimpleFileConfig implements FileConfig {
 
     @Override
     public void save() {
-        try {
+        throwFailure();
+
+        val executor = writeBehind;
+
+        if (executor == null) {
+            saveNow();
+            return;
+        }
+
+        val snapshot = UncappedByteOutput.create();
+        delegate.writeTo(ByteOutputStream.wrap(snapshot));
+
+        // если предыдущий снимок ещё не записан, он просто заменяется новым
+        if (pending.getAndSet(snapshot) == null) {
+            try {
+                executor.execute(this::writePending);
+            } catch (final RejectedExecutionException e) {
+                // исполнитель остановлен, пишем сами, иначе снимок останется в pending
+                // и следующие сохранения больше не будут запланированы
+                writePending();
+                throwFailure();
+            }
+        }
+    }
+
+    private void saveNow() {
+        synchronized (buffer) {
+            buffer.setLength(0);
+            delegate.writeTo(ByteOutputStream.wrap(buffer));
+
+            try {
+                write(buffer);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Cannot save config to " + src.path(), e);
+            }
+        }
+    }
+
+    private void writePending() {
+        synchronized (writeLock) {
+            val snapshot = pending.getAndSet(null);
+
+            if (snapshot != null) {
+                try {
+                    write(snapshot);
+                } catch (final IOException e) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private void throwFailure() {
+        val failure = this.failure;
+
+        if (failure != null) {
+            this.failure = null;
+            throw new UncheckedIOException("Cannot save config to " + src.path(), failure);
+        }
+    }
+
+    private void write(final ByteOutput data) throws IOException {
+        synchronized (writeLock) {
             src.makeParentDirectory();
 
-            try (val os = src.openOutput()) {
-                delegate.writeTo(os);
+            // сначала пишем во временный файл рядом, чтобы при падении во время записи
+            // остался старый файл, а не обрезанный. К тому же конфиг может лениво читать
+            // ещё не тронутые части из старого файла
+            val path = src.path();
+            val temp = path.resolveSibling("." + path.getFileName() + "." + System.nanoTime() + ".tmp");
+
+            try {
+                try (val channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    data.writeTo(Channels.newOutputStream(channel));
+                    channel.force(true);
+                }
+
+                if (Files.exists(path)) {
+                    copyAttributes(path, temp);
+                }
+
+                try {
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                syncDirectory(path.getParent());
+            } finally {
+                Files.deleteIfExists(temp);
             }
-        } catch (final IOException e) {
-            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Сбросить на диск саму папку, иначе после отключения питания переименование
+     * может потеряться, и останется старый файл.
+     */
+    private static void syncDirectory(final Path directory) {
+        if (directory == null) {
+            return;
+        }
+
+        // не везде папку можно открыть как файл (например, на Windows), тогда обходимся без этого
+        try (val channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final IOException | UnsupportedOperationException ignored) {
+        }
+    }
+
+    /**
+     * Перенести права и владельца старого файла на новый, иначе после замены файл
+     * получит права по умолчанию и может стать недоступен другим пользователям.
+     */
+    private static void copyAttributes(final Path source, final Path target) throws IOException {
+        val sourceView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        val targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+
+        if (sourceView == null || targetView == null) {
+            return;
+        }
+
+        val attributes = sourceView.readAttributes();
+        targetView.setPermissions(attributes.permissions());
+
+        // сменить владельца может только привилегированный пользователь, права уже перенесены
+        try {
+            targetView.setOwner(attributes.owner());
+        } catch (final IOException ignored) {
+        }
+
+        try {
+            targetView.setGroup(attributes.group());
+        } catch (final IOException ignored) {
         }
     }
 
+    @Override
+    public void setWriteBehind(final @Nullable Executor executor) {
+        writeBehind = executor;
+
+        if (executor == null) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        writePending();
+        throwFailure();
+    }
+
     @Override
     public void saveDefaults(@NotNull ClassLoader classLoader, @NotNull String resource) {
         if (!src.exists()) {
@@ -205,16 +401,12 @@ public final class SimpleFileConfig implements FileConfig {
                             + resource + " not found");
                 }
 
-                delegate = provider.parse(resourceStream);
-
-                src.makeParentDirectory();
-
-                try (val os = src.openOutput()) {
-                    delegate.writeTo(os);
-                }
+                replace(provider.parse(resourceStream));
             } catch (final IOException e) {
-                e.printStackTrace();
+                throw new UncheckedIOException("Cannot read default config " + resource, e);
             }
+
+            saveNow();
         }
     }
 
@@ -225,14 +417,44 @@ public final class SimpleFileConfig implements FileConfig {
 
     @Override
     public void reload() {
+        writePending();
+
+        MutableConfig newDelegate;
+
         if (src.exists()) {
-            try (val is = src.openInput()) {
-                delegate = provider.parse(is);
+            try {
+                newDelegate = src.parse(provider);
+            } catch (final ConfigValidationException e) {
+                // конфиг прочитан, но не прошёл проверку: оставляем прежний и сообщаем об ошибке
+                throw e;
             } catch (final Exception e) {
-                delegate = provider.newObject();
+                newDelegate = provider.newObject();
             }
         } else {
-            delegate = provider.newObject();
+            newDelegate = provider.newObject();
         }
+
+        replace(newDelegate);
+    }
+
+    private void replace(final MutableConfig newDelegate) {
+        if (newDelegate instanceof MapBasedMutableConfig config) {
+            config.useSubscriptions(subscriptions);
+        }
+
+        val oldDelegate = delegate;
+        delegate = newDelegate;
+
+        if (oldDelegate != null) {
+            subscriptions.fireDiff(oldDelegate.asMap(), newDelegate.asMap());
+        }
+    }
+
+    @Override
+    public @NotNull ConfigSubscription subscribe(
+            final @NotNull String path,
+            final @NotNull ConfigListener listener
+    ) {
+        return subscriptions.subscribe(path, listener);
     }
 }
@@ -0,0 +1,29 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+/**
+ * Статистика пула строк за один разбор конфига.
+ *
+ * @param strings    Сколько строк прошло через пул
+ * @param duplicates Сколько из них оказались повторами и были заменены уже известной строкой
+ * @param savedBytes Примерная экономия памяти на повторах в байтах (заголовки {@link String}
+ *                   и массива плюс содержимое, для 64-битной JVM со сжатыми указателями)
+ * @author whilein
+ */
+public record StringPoolStats(long strings, long duplicates, long savedBytes) {
+}
@@ -0,0 +1,154 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 64-битный структурный хэш значений конфига. Хэш объекта не зависит от порядка ключей
+ * и от реализации конфига, поэтому одинаковое содержимое из YAML, JSON и бинарного
+ * формата даёт одинаковый хэш. Значения, которые не равны по {@code equals}, например
+ * {@code 1} и {@code 1L}, хэшируются по-разному.
+ *
+ * @author whilein
+ */
+@UtilityClass
+class StructuralHash {
+
+    private final long NULL = 0x9E3779B97F4A7C15L;
+    private final long TRUE = 0xC2B2AE3D27D4EB4FL;
+    private final long FALSE = 0x165667B19E3779F9L;
+    private final long INTEGER = 0x27D4EB2F165667C5L;
+    private final long LONG = 0x3C6EF372FE94F82BL;
+    private final long SHORT = 0xA54FF53A5F1D36F1L;
+    private final long BYTE = 0x510E527FADE682D1L;
+    private final long DOUBLE = 0x85EBCA77C2B2AE63L;
+    private final long FLOAT = 0x9B05688C2B3E6C1FL;
+    private final long STRING = 0xFF51AFD7ED558CCDL;
+    private final long LIST = 0xC4CEB9FE1A85EC53L;
+    private final long MAP = 0x94D049BB133111EBL;
+
+    long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+
+    long string(final String value) {
+        // FNV-1a: в отличие от String#hashCode не даёт коллизий на коротких строках вроде "Aa" и "BB"
+        long h = 0xCBF29CE484222325L;
+
+        for (int i = 0, j = value.length(); i < j; i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+
+        return mix(h ^ STRING);
+    }
+
+    long entry(final String key, final long valueHash) {
+        return mix(string(key) + Long.rotateLeft(valueHash, 23));
+    }
+
+    long hash(final Object value) {
+        if (value == null) {
+            return NULL;
+        } else if (value instanceof String string) {
+            return string(string);
+        } else if (value instanceof Boolean bool) {
+            return bool ? TRUE : FALSE;
+        } else if (value instanceof Integer number) {
+            // у каждого типа свой хэш: Integer 1 и Long 1L не равны по equals
+            return mix(number ^ INTEGER);
+        } else if (value instanceof Long number) {
+            return mix(number ^ LONG);
+        } else if (value instanceof Short number) {
+            return mix(number ^ SHORT);
+        } else if (value instanceof Byte number) {
+            return mix(number ^ BYTE);
+        } else if (value instanceof Double number) {
+            return mix(Double.doubleToLongBits(number) ^ DOUBLE);
+        } else if (value instanceof Float number) {
+            return mix(Float.floatToIntBits(number) ^ FLOAT);
+        } else if (value instanceof Config config) {
+            return config.structuralHash();
+        } else if (value instanceof Map<?, ?> map) {
+            return map(map);
+        } else if (value instanceof List<?> list) {
+            long h = LIST;
+
+            for (val element : list) {
+                h = h * 31 + hash(element);
+            }
+
+            return mix(h);
+        } else if (value instanceof int[] array) {
+            long h = LIST;
+
+            for (val element : array) {
+                h = h * 31 + mix(element ^ INTEGER);
+            }
+
+            return mix(h);
+        } else if (value instanceof long[] array) {
+            long h = LIST;
+
+            for (val element : array) {
+                h = h * 31 + mix(element ^ LONG);
+            }
+
+            return mix(h);
+        } else if (value instanceof double[] array) {
+            long h = LIST;
+
+            for (val element : array) {
+                h = h * 31 + mix(Double.doubleToLongBits(element) ^ DOUBLE);
+            }
+
+            return mix(h);
+        }
+
+        return mix(value.hashCode());
+    }
+
+    boolean isCached(final Config config) {
+        return config instanceof MapBasedMutableConfig object && object.isStructuralHashCached();
+    }
+
+    long emptyMap() {
+        return MAP;
+    }
+
+    long map(final Map<?, ?> map) {
+        long h = MAP;
+
+        for (val entry : map.entrySet()) {
+            h += entry(String.valueOf(entry.getKey()), hash(entry.getValue()));
+        }
+
+        return h;
+    }
+
+}
@@ -34,6 +34,17 @@ import java.util.OptionalLong;
  */
 public interface ConfigPath {
 
+    /**
+     * Найти родительский объект пути один раз и закрепить его. Обычный путь ищет
+     * родителя заново при каждом чтении, закреплённый нет, и через него можно читать
+     * соседние ключи.
+     * <p>
+     * Закреплённый путь не замечает замену родительских объектов после закрепления.
+     *
+     * @return Путь с закреплённым родителем
+     */
+    @NotNull ResolvedConfigPath resolve();
+
     boolean isPresent();
 
     @NotNull Optional<@NotNull String> asOptionalString();
@@ -115,4 +126,19 @@ public interface ConfigPath {
 
     @Unmodifiable @NotNull List<@NotNull Boolean> asBooleanList();
 
+    @Contract("!null -> !null")
+    int @Nullable [] asIntArray(int @Nullable [] def);
+
+    int @NotNull [] asIntArray();
+
+    @Contract("!null -> !null")
+    long @Nullable [] asLongArray(long @Nullable [] def);
+
+    long @NotNull [] asLongArray();
+
+    @Contract("!null -> !null")
+    double @Nullable [] asDoubleArray(double @Nullable [] def);
+
+    double @NotNull [] asDoubleArray();
+
 }
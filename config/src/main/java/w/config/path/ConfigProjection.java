@@ -0,0 +1,256 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.path;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import w.config.Config;
+import w.config.ConfigMissingKeyException;
+import w.config.mapper.AbstractMapper;
+import w.config.mapper.BooleanMapper;
+import w.config.mapper.NumberMapper;
+import w.config.mapper.StringMapper;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Чтение сразу нескольких путей за один проход по конфигу.
+ * <p>
+ * Пути собираются в дерево по общим префиксам при создании проекции, поэтому каждый
+ * вложенный объект ищется один раз, сколько бы путей через него ни проходило. Проекцию
+ * стоит создавать один раз и переиспользовать.
+ *
+ * @param <T> Тип результата
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ConfigProjection<T> {
+
+    private static final ClassValue<ConfigProjection<?>> RECORDS = new ClassValue<>() {
+        @Override
+        protected ConfigProjection<?> computeValue(final Class<?> type) {
+            return compileRecord(type);
+        }
+    };
+
+    Node root;
+
+    Slot[] slots;
+
+    Function<Object[], T> factory;
+
+    /**
+     * Создать проекцию, которая возвращает значения путей как есть, в том же порядке.
+     * На месте отсутствующих значений будет {@code null}.
+     *
+     * @param paths Пути, части разделяются точкой
+     * @return Новая проекция
+     */
+    public static @NotNull ConfigProjection<Object @NotNull []> ofPaths(@NotNull String @NotNull ... paths) {
+        val slots = new Slot[paths.length];
+
+        for (int i = 0; i < paths.length; i++) {
+            slots[i] = new Slot(paths[i], null, false);
+        }
+
+        return new ConfigProjection<>(compile(slots), slots, Function.identity());
+    }
+
+    /**
+     * Получить проекцию в record-класс. Каждый компонент читается по пути из {@link ConfigKey}
+     * или по своему имени и приводится к своему типу так же, как через
+     * {@link Config#getAs(String, Class)}. Отсутствующий примитивный компонент является
+     * ошибкой, остальные становятся {@code null}.
+     * <p>
+     * Проекция строится один раз для каждого класса.
+     *
+     * @param type Record-класс
+     * @param <R>  Тип record-класса
+     * @return Проекция
+     */
+    @SuppressWarnings("unchecked")
+    public static <R extends Record> @NotNull ConfigProjection<R> ofRecord(@NotNull Class<R> type) {
+        return (ConfigProjection<R>) RECORDS.get(type);
+    }
+
+    /**
+     * Прочитать все пути проекции из конфига.
+     *
+     * @param config Конфиг
+     * @return Результат проекции
+     * @throws ConfigMissingKeyException Отсутствует обязательное значение
+     * @throws IllegalStateException      Значение есть, но не приводится к типу компонента
+     */
+    public @NotNull T project(@NotNull Config config) throws ConfigMissingKeyException {
+        val values = new Object[slots.length];
+        root.read(config, values, slots);
+
+        for (int i = 0; i < slots.length; i++) {
+            if (values[i] == null && slots[i].required) {
+                throw new ConfigMissingKeyException(slots[i].path);
+            }
+        }
+
+        return factory.apply(values);
+    }
+
+    private static ConfigProjection<?> compileRecord(final Class<?> type) {
+        val components = type.getRecordComponents();
+        val slots = new Slot[components.length];
+        val types = new Class<?>[components.length];
+
+        for (int i = 0; i < components.length; i++) {
+            val component = components[i];
+            val key = component.getAnnotation(ConfigKey.class);
+
+            types[i] = component.getType();
+            slots[i] = new Slot(
+                    key != null ? key.value() : component.getName(),
+                    types[i],
+                    types[i].isPrimitive()
+            );
+        }
+
+        val constructor = getConstructor(type, types);
+
+        return new ConfigProjection<>(compile(slots), slots, values -> newInstance(constructor, values));
+    }
+
+    @SneakyThrows
+    private static Constructor<?> getConstructor(final Class<?> type, final Class<?>[] types) {
+        val constructor = type.getDeclaredConstructor(types);
+        constructor.setAccessible(true);
+
+        return constructor;
+    }
+
+    @SneakyThrows
+    private static Object newInstance(final Constructor<?> constructor, final Object[] values) {
+        return constructor.newInstance(values);
+    }
+
+    private static Node compile(final Slot[] slots) {
+        val root = new NodeBuilder();
+
+        for (int i = 0; i < slots.length; i++) {
+            val path = slots[i].path;
+
+            NodeBuilder node = root;
+            int i1 = -1, i2;
+
+            while ((i1 = path.indexOf('.', i2 = i1 + 1)) != -1) {
+                node = node.children.computeIfAbsent(path.substring(i2, i1), __ -> new NodeBuilder());
+            }
+
+            node.leaves.add(new Leaf(path.substring(i2), i, mapperOf(slots[i].type)));
+        }
+
+        return root.build();
+    }
+
+    private static AbstractMapper<?> mapperOf(final Class<?> type) {
+        if (type == null) {
+            return null;
+        } else if (type == int.class || type == Integer.class) {
+            return NumberMapper.intMapper();
+        } else if (type == long.class || type == Long.class) {
+            return NumberMapper.longMapper();
+        } else if (type == double.class || type == Double.class) {
+            return NumberMapper.doubleMapper();
+        } else if (type == float.class || type == Float.class) {
+            return NumberMapper.floatMapper();
+        } else if (type == short.class || type == Short.class) {
+            return NumberMapper.shortMapper();
+        } else if (type == byte.class || type == Byte.class) {
+            return NumberMapper.byteMapper();
+        } else if (type == boolean.class || type == Boolean.class) {
+            return BooleanMapper.booleanMapper();
+        } else if (type == String.class) {
+            return StringMapper.stringMapper();
+        }
+
+        return null;
+    }
+
+    private record Slot(String path, Class<?> type, boolean required) {
+    }
+
+    private record Leaf(String name, int slot, AbstractMapper<?> mapper) {
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class NodeBuilder {
+        Map<String, NodeBuilder> children = new LinkedHashMap<>();
+        List<Leaf> leaves = new ArrayList<>();
+
+        Node build() {
+            val names = children.keySet().toArray(new String[0]);
+            val nodes = new Node[names.length];
+
+            for (int i = 0; i < names.length; i++) {
+                nodes[i] = children.get(names[i]).build();
+            }
+
+            return new Node(names, nodes, leaves.toArray(new Leaf[0]));
+        }
+    }
+
+    private record Node(String[] names, Node[] children, Leaf[] leaves) {
+
+        void read(final Config config, final Object[] values, final Slot[] slots) {
+            for (val leaf : leaves) {
+                val slot = slots[leaf.slot];
+                val raw = config.getRaw(leaf.name, null);
+
+                if (raw == null || slot.type == null) {
+                    values[leaf.slot] = raw;
+                    continue;
+                }
+
+                // значение есть, поэтому неудачное приведение - ошибка типа, а не отсутствие ключа
+                try {
+                    values[leaf.slot] = leaf.mapper != null
+                            ? config.get(leaf.name, leaf.mapper)
+                            : config.getAs(leaf.name, slot.type);
+                } catch (final IllegalStateException e) {
+                    throw new IllegalStateException("Cannot read " + slot.path + " as "
+                            + slot.type.getSimpleName(), e);
+                }
+            }
+
+            for (int i = 0; i < names.length; i++) {
+                val child = config.findObject(names[i]).orElse(null);
+
+                if (child != null) {
+                    children[i].read(child, values, slots);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.path;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import w.config.Config;
+
+/**
+ * Путь, родительский объект которого уже найден.
+ *
+ * @author whilein
+ * @see ConfigPath#resolve()
+ */
+public interface ResolvedConfigPath extends ConfigPath {
+
+    /**
+     * Получить закреплённый родительский объект.
+     *
+     * @return Родительский объект или {@code null}, если его не было при закреплении
+     */
+    @Nullable Config getParentObject();
+
+    /**
+     * Получить соседний ключ с тем же закреплённым родителем.
+     *
+     * @param name Имя ключа в родительском объекте
+     * @return Путь к соседнему ключу
+     */
+    @NotNull ResolvedConfigPath sibling(@NotNull String name);
+
+}
@@ -18,6 +18,7 @@ package w.config.path;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
 import lombok.val;
@@ -48,10 +49,31 @@ public final class SimpleConfigPath implements ConfigPath {
     @NonFinal
     String name;
 
+    @NonFinal
+    boolean pinned;
+
+    @NonFinal
+    Config pinnedParent;
+
     public static @NotNull ConfigPath create(@NotNull Config root, @NotNull String path) {
         return new SimpleConfigPath(root, path);
     }
 
+    private static SimpleConfigPath pinned(Config root, String path, Config parent, String name) {
+        val result = new SimpleConfigPath(root, path);
+        result.name = name;
+        result.pinnedParent = parent;
+        result.pinned = true;
+
+        return result;
+    }
+
+    @Override
+    public @NotNull ResolvedConfigPath resolve() {
+        val parent = getParent0();
+        return new Resolved(pinned(root, path, parent, name));
+    }
+
     private Config getParent() {
         val parent = getParent0();
 
@@ -63,6 +85,10 @@ public final class SimpleConfigPath implements ConfigPath {
     }
 
     private Config getParent0() {
+        if (pinned) {
+            return pinnedParent;
+        }
+
         int i1 = -1, i2;
         Config step = root;
 
@@ -434,4 +460,95 @@ public final class SimpleConfigPath implements ConfigPath {
                 : Collections.emptyList();
     }
 
+    @Override
+    public int @Nullable [] asIntArray(int @Nullable [] def) {
+        val parent = getParent0();
+
+        return parent != null
+                ? parent.getIntArray(name, def)
+                : def;
+    }
+
+    @Override
+    public int @NotNull [] asIntArray() {
+        val parent = getParent0();
+
+        return parent != null
+                ? parent.getIntArray(name)
+                : new int[0];
+    }
+
+    @Override
+    public long @Nullable [] asLongArray(long @Nullable [] def) {
+        val parent = getParent0();
+
+        return parent != null
+                ? parent.getLongArray(name, def)
+                : def;
+    }
+
+    @Override
+    public long @NotNull [] asLongArray() {
+        val parent = getParent0();
+
+        return parent != null
+                ? parent.getLongArray(name)
+                : new long[0];
+    }
+
+    @Override
+    public double @Nullable [] asDoubleArray(double @Nullable [] def) {
+        val parent = getParent0();
+
+        return parent != null
+                ? parent.getDoubleArray(name, def)
+                : def;
+    }
+
+    @Override
+    public double @NotNull [] asDoubleArray() {
+        val parent = getParent0();
+
+        return parent != null
+                ? parent.getDoubleArray(name)
+                : new double[0];
+    }
+
+    /**
+     * Закреплённый путь. Отдельный тип, чтобы соседние ключи и родитель были доступны
+     * только после {@link #resolve()}.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class Resolved implements ResolvedConfigPath {
+
+        @Delegate(types = ConfigPath.class, excludes = Resolvable.class)
+        SimpleConfigPath path;
+
+        @Override
+        public @NotNull ResolvedConfigPath resolve() {
+            return this;
+        }
+
+        @Override
+        public @Nullable Config getParentObject() {
+            return path.pinnedParent;
+        }
+
+        @Override
+        public @NotNull ResolvedConfigPath sibling(@NotNull String name) {
+            val path = this.path.path;
+            val siblingPath = path.substring(0, path.lastIndexOf('.') + 1) + name;
+
+            return new Resolved(pinned(this.path.root, siblingPath, this.path.pinnedParent, name));
+        }
+
+    }
+
+    private interface Resolvable {
+
+        @NotNull ResolvedConfigPath resolve();
+
+    }
+
 }
@@ -0,0 +1,41 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.schema;
+
+import org.jetbrains.annotations.NotNull;
+import w.config.Config;
+
+/**
+ * Схема конфига, проверяющая его содержимое целиком за один обход.
+ *
+ * @author whilein
+ * @see RecordConfigSchema
+ * @see ValidatingConfigProvider
+ */
+public interface ConfigSchema {
+
+    /**
+     * Проверить типы, диапазоны и обязательные ключи. Значения, которые можно привести
+     * к нужному типу (например, строку к числу), заменяются в конфиге на приведённые,
+     * чтобы последующие чтения обходились без преобразования.
+     *
+     * @param config Конфиг
+     * @throws ConfigValidationException Если найдена хотя бы одна ошибка
+     */
+    void validate(@NotNull Config config) throws ConfigValidationException;
+
+}
@@ -0,0 +1,48 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.List;
+
+/**
+ * Исключение со всеми ошибками, найденными при проверке конфига по схеме.
+ *
+ * @author whilein
+ */
+public final class ConfigValidationException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public ConfigValidationException(@NotNull List<@NotNull String> errors) {
+        super("Config validation failed:\n  " + String.join("\n  ", errors));
+
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * Получить ошибки в виде {@code путь: описание}.
+     *
+     * @return Список ошибок
+     */
+    public @Unmodifiable @NotNull List<@NotNull String> getErrors() {
+        return errors;
+    }
+
+}
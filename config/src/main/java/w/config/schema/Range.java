@@ -0,0 +1,47 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.schema;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Допустимый диапазон числового значения, включая границы.
+ *
+ * @author whilein
+ */
+@Target(ElementType.RECORD_COMPONENT)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Range {
+
+    /**
+     * Получить нижнюю границу.
+     *
+     * @return Нижняя граница
+     */
+    double min() default Double.NEGATIVE_INFINITY;
+
+    /**
+     * Получить верхнюю границу.
+     *
+     * @return Верхняя граница
+     */
+    double max() default Double.POSITIVE_INFINITY;
+
+}
@@ -0,0 +1,536 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.schema;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import w.config.Config;
+import w.config.mapper.AbstractMapper;
+import w.config.mapper.BooleanMapper;
+import w.config.mapper.NumberMapper;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Схема, построенная по компонентам record-класса, так же как конфиг читается
+ * через {@link Config#asType(Class)}.
+ * <p>
+ * Числа, строки, булевы значения и перечисления проверяются по тем же правилам, что
+ * и при чтении через {@link Config}, вложенные record-классы становятся вложенными
+ * объектами, {@link List} и {@link Map} проверяются поэлементно. Диапазон чисел задаётся
+ * через {@link Range}, необязательные ключи через {@link OptionalKey} или {@link Optional}.
+ * Имя ключа берётся из {@link JsonProperty}, если она указана.
+ * <p>
+ * Схема строится один раз для каждого класса.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RecordConfigSchema implements ConfigSchema {
+
+    private static final ClassValue<ConfigSchema> SCHEMAS = new ClassValue<>() {
+        @Override
+        protected ConfigSchema computeValue(final Class<?> type) {
+            return new RecordConfigSchema(compileRecord(type, new HashMap<>()));
+        }
+    };
+
+    private static final Check ANY = (value, path, errors) -> value;
+
+    private static final Check STRING = (value, path, errors) -> {
+        // числа и булевы значения в строку не превращаем: скорее всего, это ошибка в конфиге
+        if (!(value instanceof String)) {
+            errors.add(path + ": expected string, got " + describe(value));
+            return null;
+        }
+
+        return value;
+    };
+
+    ObjectCheck root;
+
+    public static @NotNull ConfigSchema create(@NotNull Class<? extends Record> type) {
+        return SCHEMAS.get(type);
+    }
+
+    @Override
+    public void validate(@NotNull Config config) throws ConfigValidationException {
+        val errors = new ArrayList<String>();
+        root.check(config.asMap(), "", errors);
+
+        if (!errors.isEmpty()) {
+            throw new ConfigValidationException(errors);
+        }
+    }
+
+    private static ObjectCheck compileRecord(final Class<?> type, final Map<Class<?>, ObjectCheck> records) {
+        val existing = records.get(type);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        // регистрируем до компиляции полей, чтобы рекурсивные record-классы ссылались на себя
+        val check = new ObjectCheck();
+        records.put(type, check);
+
+        val components = type.getRecordComponents();
+        val fields = new Field[components.length];
+
+        for (int i = 0; i < components.length; i++) {
+            fields[i] = compileField(components[i], records);
+        }
+
+        check.fields = fields;
+
+        return check;
+    }
+
+    private static Field compileField(final RecordComponent component, final Map<Class<?>, ObjectCheck> records) {
+        val property = component.getAccessor().getAnnotation(JsonProperty.class);
+
+        val key = property != null && !property.value().isEmpty()
+                ? property.value()
+                : component.getName();
+
+        Type type = component.getGenericType();
+        boolean required = !component.isAnnotationPresent(OptionalKey.class);
+
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == Optional.class) {
+            type = parameterized.getActualTypeArguments()[0];
+            required = false;
+        }
+
+        return new Field(key, compile(type, component.getAnnotation(Range.class), records), required);
+    }
+
+    private static Check compile(final Type type, final Range range, final Map<Class<?>, ObjectCheck> records) {
+        if (type instanceof ParameterizedType parameterized
+            && parameterized.getRawType() instanceof Class<?> raw) {
+            val arguments = parameterized.getActualTypeArguments();
+
+            if (Collection.class.isAssignableFrom(raw)) {
+                return new ListCheck(compile(arguments[0], range, records));
+            } else if (Map.class.isAssignableFrom(raw)) {
+                return new MapCheck(compile(arguments[1], range, records));
+            } else if (raw == Optional.class) {
+                return compile(arguments[0], range, records);
+            }
+
+            return compile(raw, range, records);
+        }
+
+        if (!(type instanceof Class<?> cls)) {
+            return ANY;
+        }
+
+        if (cls == int.class || cls == Integer.class) {
+            return IntegralCheck.of("int", Integer.MIN_VALUE, Integer.MAX_VALUE, BigDecimal::intValue, range);
+        } else if (cls == long.class || cls == Long.class) {
+            return IntegralCheck.of("long", Long.MIN_VALUE, Long.MAX_VALUE, BigDecimal::longValue, range);
+        } else if (cls == short.class || cls == Short.class) {
+            return IntegralCheck.of("short", Short.MIN_VALUE, Short.MAX_VALUE, BigDecimal::shortValue, range);
+        } else if (cls == byte.class || cls == Byte.class) {
+            return IntegralCheck.of("byte", Byte.MIN_VALUE, Byte.MAX_VALUE, BigDecimal::byteValue, range);
+        } else if (cls == double.class || cls == Double.class) {
+            return new DecimalCheck("double", false, range);
+        } else if (cls == float.class || cls == Float.class) {
+            return new DecimalCheck("float", true, range);
+        } else if (cls == boolean.class || cls == Boolean.class) {
+            return new ScalarCheck(BooleanMapper.booleanMapper(), "boolean");
+        } else if (cls == String.class) {
+            return STRING;
+        } else if (cls.isEnum()) {
+            val names = new HashSet<String>();
+
+            for (val constant : cls.getEnumConstants()) {
+                names.add(((Enum<?>) constant).name());
+            }
+
+            return new EnumCheck(cls.getSimpleName(), names);
+        } else if (cls.isRecord()) {
+            return compileRecord(cls, records);
+        } else if (Collection.class.isAssignableFrom(cls)) {
+            return new ListCheck(ANY);
+        } else if (Map.class.isAssignableFrom(cls) || Config.class.isAssignableFrom(cls)) {
+            return new MapCheck(ANY);
+        }
+
+        return ANY;
+    }
+
+    private static String describe(final Object value) {
+        if (value instanceof Map<?, ?>) {
+            return "object";
+        } else if (value instanceof List<?>) {
+            return "list";
+        }
+
+        return value instanceof String ? "'" + value + "'" : String.valueOf(value);
+    }
+
+    private static boolean outOfRange(final Range range, final double value) {
+        return range != null && (value < range.min() || value > range.max());
+    }
+
+    private static boolean outOfRange(final Range range, final BigDecimal value) {
+        return range != null && (compare(value, range.min()) < 0 || compare(value, range.max()) > 0);
+    }
+
+    private static int compare(final BigDecimal value, final double bound) {
+        if (Double.isInfinite(bound)) {
+            return bound > 0 ? -1 : 1;
+        }
+
+        return value.compareTo(new BigDecimal(bound));
+    }
+
+    private static String rangeError(final String path, final Object value, final Range range) {
+        return path + ": " + value + " is out of range [" + range.min() + ", " + range.max() + "]";
+    }
+
+    private static String join(final String path, final String key) {
+        return path.isEmpty() ? key : path + "." + key;
+    }
+
+    @FunctionalInterface
+    private interface Check {
+
+        /**
+         * Проверить значение.
+         *
+         * @param value  Значение, не {@code null}
+         * @param path   Путь к значению для сообщений об ошибках
+         * @param errors Список, в который добавляются ошибки
+         * @return Значение, приведённое к нужному типу, или {@code null}, если привести нельзя
+         */
+        Object check(Object value, String path, List<String> errors);
+
+    }
+
+    private record Field(String key, Check check, boolean required) {
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class ObjectCheck implements Check {
+
+        Field[] fields;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object check(final Object value, final String path, final List<String> errors) {
+            if (!(value instanceof Map<?, ?> map)) {
+                errors.add(path + ": expected object, got " + describe(value));
+                return null;
+            }
+
+            val object = (Map<String, Object>) map;
+
+            for (val field : fields) {
+                val fieldPath = join(path, field.key);
+                val fieldValue = object.get(field.key);
+
+                if (fieldValue == null) {
+                    if (field.required) {
+                        errors.add(fieldPath + ": missing required key");
+                    }
+
+                    continue;
+                }
+
+                val result = field.check.check(fieldValue, fieldPath, errors);
+
+                if (result != null && result != fieldValue) {
+                    replace(object, field.key, result);
+                }
+            }
+
+            return value;
+        }
+
+        private static void replace(final Map<String, Object> object, final String key, final Object value) {
+            try {
+                object.put(key, value);
+            } catch (final UnsupportedOperationException e) {
+                // неизменяемый конфиг (например, бинарный) проверяем без приведения
+            }
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class ScalarCheck implements Check {
+
+        AbstractMapper<?> mapper;
+
+        String typeName;
+
+        @Override
+        public Object check(final Object value, final String path, final List<String> errors) {
+            val result = mapper.map(value);
+
+            if (result == null) {
+                errors.add(path + ": expected " + typeName + ", got " + describe(value));
+            }
+
+            return result;
+        }
+
+    }
+
+    /**
+     * Проверка целого числа. Значение не сужается, как в {@link NumberMapper}: дробные
+     * числа и числа вне диапазона типа считаются ошибкой, а {@link Range} проверяется
+     * по исходному значению.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class IntegralCheck implements Check {
+
+        String typeName;
+
+        BigDecimal min;
+
+        BigDecimal max;
+
+        Function<BigDecimal, Number> convert;
+
+        Range range;
+
+        static IntegralCheck of(
+                final String typeName,
+                final long min,
+                final long max,
+                final Function<BigDecimal, Number> convert,
+                final Range range
+        ) {
+            return new IntegralCheck(typeName, BigDecimal.valueOf(min), BigDecimal.valueOf(max), convert, range);
+        }
+
+        @Override
+        public Object check(final Object value, final String path, final List<String> errors) {
+            val number = toBigDecimal(value);
+
+            if (number == null || number.signum() != 0 && number.stripTrailingZeros().scale() > 0) {
+                errors.add(path + ": expected " + typeName + ", got " + describe(value));
+                return null;
+            }
+
+            if (number.compareTo(min) < 0 || number.compareTo(max) > 0) {
+                errors.add(path + ": " + number.toPlainString() + " is out of " + typeName + " range");
+                return null;
+            }
+
+            if (outOfRange(range, number)) {
+                errors.add(rangeError(path, number.toPlainString(), range));
+                return null;
+            }
+
+            return convert.apply(number);
+        }
+
+        private static BigDecimal toBigDecimal(final Object value) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            } else if (value instanceof BigInteger number) {
+                return new BigDecimal(number);
+            } else if (value instanceof BigDecimal number) {
+                return number;
+            } else if (value instanceof Double || value instanceof Float) {
+                val doubleValue = ((Number) value).doubleValue();
+                return Double.isFinite(doubleValue) ? BigDecimal.valueOf(doubleValue) : null;
+            } else if (value instanceof String string) {
+                try {
+                    return new BigDecimal(string);
+                } catch (final NumberFormatException e) {
+                    return null;
+                }
+            }
+
+            return null;
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class DecimalCheck implements Check {
+
+        String typeName;
+
+        boolean single;
+
+        Range range;
+
+        @Override
+        public Object check(final Object value, final String path, final List<String> errors) {
+            val number = toDouble(value);
+
+            if (number == null) {
+                errors.add(path + ": expected " + typeName + ", got " + describe(value));
+                return null;
+            }
+
+            if (single && Double.isFinite(number) && Math.abs(number) > Float.MAX_VALUE) {
+                errors.add(path + ": " + number + " is out of " + typeName + " range");
+                return null;
+            }
+
+            if (outOfRange(range, number)) {
+                errors.add(rangeError(path, number, range));
+                return null;
+            }
+
+            return single ? (Object) number.floatValue() : number;
+        }
+
+        private static Double toDouble(final Object value) {
+            if (value instanceof Number number) {
+                return number.doubleValue();
+            } else if (value instanceof String string) {
+                try {
+                    return Double.valueOf(string);
+                } catch (final NumberFormatException e) {
+                    return null;
+                }
+            }
+
+            return null;
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class EnumCheck implements Check {
+
+        String typeName;
+
+        Set<String> names;
+
+        @Override
+        public Object check(final Object value, final String path, final List<String> errors) {
+            if (!(value instanceof String name) || !names.contains(name)) {
+                errors.add(path + ": expected one of " + typeName + " " + names + ", got " + describe(value));
+                return null;
+            }
+
+            return value;
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class ListCheck implements Check {
+
+        Check element;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object check(final Object value, final String path, final List<String> errors) {
+            if (!(value instanceof List<?> list)) {
+                errors.add(path + ": expected list, got " + describe(value));
+                return null;
+            }
+
+            val iterator = ((List<Object>) list).listIterator();
+            boolean mutable = true;
+
+            while (iterator.hasNext()) {
+                val elementPath = path + "[" + iterator.nextIndex() + "]";
+                val elementValue = iterator.next();
+
+                if (elementValue == null) {
+                    continue;
+                }
+
+                val result = element.check(elementValue, elementPath, errors);
+
+                if (mutable && result != null && result != elementValue) {
+                    try {
+                        iterator.set(result);
+                    } catch (final UnsupportedOperationException e) {
+                        mutable = false;
+                    }
+                }
+            }
+
+            return value;
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class MapCheck implements Check {
+
+        Check value;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object check(final Object object, final String path, final List<String> errors) {
+            if (!(object instanceof Map<?, ?> map)) {
+                errors.add(path + ": expected object, got " + describe(object));
+                return null;
+            }
+
+            boolean mutable = true;
+
+            for (val entry : ((Map<String, Object>) map).entrySet()) {
+                val entryValue = entry.getValue();
+
+                if (entryValue == null) {
+                    continue;
+                }
+
+                val result = value.check(entryValue, join(path, entry.getKey()), errors);
+
+                if (mutable && result != null && result != entryValue) {
+                    try {
+                        entry.setValue(result);
+                    } catch (final UnsupportedOperationException e) {
+                        mutable = false;
+                    }
+                }
+            }
+
+            return object;
+        }
+
+    }
+
+}
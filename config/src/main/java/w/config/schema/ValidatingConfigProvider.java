@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.schema;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+import w.config.ConfigProvider;
+import w.config.MutableConfig;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Провайдер, который проверяет каждый прочитанный конфиг по схеме сразу после чтения,
+ * чтобы ошибки в конфиге обнаруживались при загрузке, а не при первом обращении к ключу.
+ * <p>
+ * Проверка обходит конфиг целиком, поэтому ленивое чтение вложенных объектов с ней
+ * теряет смысл.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ValidatingConfigProvider implements ConfigProvider {
+
+    ConfigProvider delegate;
+
+    ConfigSchema schema;
+
+    public static @NotNull ConfigProvider create(
+            final @NotNull ConfigProvider delegate,
+            final @NotNull ConfigSchema schema
+    ) {
+        return new ValidatingConfigProvider(delegate, schema);
+    }
+
+    private MutableConfig validate(final MutableConfig config) {
+        schema.validate(config);
+        return config;
+    }
+
+    @Override
+    public @NotNull MutableConfig newObject() {
+        return delegate.newObject();
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull File file) {
+        return validate(delegate.parse(file));
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull Path path) {
+        return validate(delegate.parse(path));
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull Reader reader) {
+        return validate(delegate.parse(reader));
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull InputStream stream) {
+        return validate(delegate.parse(stream));
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final @NotNull String input) {
+        return validate(delegate.parse(input));
+    }
+
+    @Override
+    public @NotNull MutableConfig parse(final byte @NotNull [] input) {
+        return validate(delegate.parse(input));
+    }
+
+    @Override
+    public @NotNull MutableConfig convert(final @NotNull Map<?, ?> map) {
+        // используется для вложенных объектов, которые схема корня не описывает
+        return delegate.convert(map);
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.yaml.YAMLFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whilein
+ */
+final class BinaryConfigProviderTests {
+
+    static ConfigProvider yamlProvider;
+
+    static ConfigProvider binaryProvider;
+
+    @BeforeAll
+    static void setup() {
+        yamlProvider = JacksonConfigProvider.create(new ObjectMapper(new YAMLFactory()));
+        binaryProvider = BinaryConfigProvider.create(new ObjectMapper());
+    }
+
+    @Test
+    void compile() {
+        val source = yamlProvider.parse("""
+                text: 'foo'
+                counter: 123
+                big: 12345678901
+                rate: 1.5
+                enabled: true
+                nothing: null
+                nested:
+                  b: 2
+                  a: 1
+                  c: 3
+                list:
+                  - 'x'
+                  - id: 1
+                numbers: [1, 2, 3]
+                """);
+
+        val config = binaryProvider.parse(BinaryConfigProvider.compile(source));
+
+        assertEquals(source, config);
+        assertEquals("foo", config.getString("text"));
+        assertEquals(123, config.getInt("counter"));
+        assertEquals(12345678901L, config.getLong("big"));
+        assertEquals(1.5, config.getDouble("rate"));
+        assertTrue(config.getBoolean("enabled"));
+        assertTrue(config.contains("nothing"));
+        assertFalse(config.contains("unknown"));
+        assertEquals(List.of("b", "a", "c"), List.copyOf(config.getObject("nested").keySet()));
+        assertEquals(2, config.walk("nested.b").asInt());
+        assertEquals("x", ((List<?>) config.getRaw("list")).get(0));
+        assertEquals(List.of(1, 2, 3), config.getIntList("numbers"));
+        assertArrayEquals(new int[]{1, 2, 3}, config.getIntArray("numbers"));
+        assertArrayEquals(new double[]{1, 2, 3}, config.getDoubleArray("numbers"));
+    }
+
+    @Test
+    void bigNumbers() {
+        val price = new BigDecimal("0.1000000000000000000000001");
+        val huge = new BigInteger("123456789012345678901234567890");
+
+        val source = yamlProvider.newObject();
+        source.set("price", price);
+        source.set("huge", huge);
+
+        val config = binaryProvider.parse(BinaryConfigProvider.compile(source));
+
+        assertEquals(price, new BigDecimal(config.getString("price")));
+        assertEquals(huge, new BigInteger(config.getString("huge")));
+    }
+
+    @Test
+    void readOnly() {
+        val config = binaryProvider.parse(BinaryConfigProvider.compile(yamlProvider.parse("text: 'foo'\n")));
+
+        assertThrows(UnsupportedOperationException.class, () -> config.set("text", "bar"));
+
+        val copy = (MutableConfig) config.copyContents();
+        copy.set("text", "bar");
+
+        assertEquals("bar", copy.getString("text"));
+        assertEquals("foo", config.getString("text"));
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.yaml.YAMLFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author whilein
+ */
+final class ConcurrentMutableConfigTests {
+
+    static ConfigProvider provider;
+
+    @BeforeAll
+    static void setup() {
+        provider = JacksonConfigProvider.create(new ObjectMapper(new YAMLFactory()));
+    }
+
+    @Test
+    void mutate() {
+        val config = ConcurrentMutableConfig.from(provider, provider.parse("""
+                db:
+                  host: 'localhost'
+                list: [1, 2]
+                """));
+
+        val db = config.getObject("db");
+        assertSame(db, config.getObject("db"));
+
+        db.set("port", 5432);
+        assertEquals(5432, config.walk("db.port").asInt());
+        assertEquals("localhost", db.getString("host"));
+
+        config.createObject("cache").set("size", 10);
+        assertEquals(10, config.walk("cache.size").asInt());
+
+        config.set("list", List.of(3));
+        assertEquals(List.of(3), config.getIntList("list"));
+
+        config.remove("db");
+        assertFalse(config.contains("db"));
+        assertThrows(IllegalStateException.class, () -> db.set("host", "remote"));
+    }
+
+    @Test
+    void listObjectsAreReadOnly() {
+        val config = ConcurrentMutableConfig.from(provider, provider.parse("""
+                items:
+                  - id: 1
+                db:
+                  host: 'localhost'
+                """));
+
+        val item = config.getObjectList("items").get(0);
+        assertEquals(1, item.getInt("id"));
+        assertThrows(UnsupportedOperationException.class, () -> item.set("id", 2));
+        assertThrows(UnsupportedOperationException.class, () -> item.remove("id"));
+        assertEquals(1, config.getObjectList("items").get(0).getInt("id"));
+
+        // копия не связана с деревом и изменяется независимо
+        val copy = (MutableConfig) config.copyContents();
+        copy.getObject("db").set("host", "remote");
+        assertEquals("remote", copy.walk("db.host").asString());
+        assertEquals("localhost", config.walk("db.host").asString());
+    }
+
+    @Test
+    void structuralHash() {
+        val source = provider.parse("{db: {host: 'localhost'}, list: [1]}");
+        val config = ConcurrentMutableConfig.from(provider, source);
+        assertEquals(source, config);
+
+        val db = config.getObject("db");
+        val hash = db.structuralHash();
+
+        // вложенный объект привязан к пути и видит замену через родителя
+        config.set("db", Map.of("host", "remote"));
+        assertNotEquals(hash, db.structuralHash());
+        assertEquals("remote", db.getString("host"));
+        assertNotEquals(source, config);
+
+        val copy = ConcurrentMutableConfig.from(provider, config);
+        assertEquals(config, copy);
+        assertEquals(config.hashCode(), copy.hashCode());
+
+        copy.set("list", List.of(1L));
+        assertNotEquals(config, copy);
+        assertNotEquals(copy, config);
+    }
+
+    @Test
+    void setAllIsAtomic() throws InterruptedException {
+        val config = ConcurrentMutableConfig.create(provider);
+        config.set("a", Map.of("value", 0));
+        config.set("b", Map.of("value", 0));
+
+        val running = new AtomicBoolean(true);
+        val started = new CountDownLatch(1);
+        val mismatches = new ArrayList<String>();
+
+        val reader = new Thread(() -> {
+            started.countDown();
+
+            while (running.get()) {
+                // один снимок, чтобы оба значения были прочитаны из одного состояния
+                val snapshot = config.copyContents();
+                val a = snapshot.walk("a.value").asInt();
+                val b = snapshot.walk("b.value").asInt();
+
+                if (a != b) {
+                    synchronized (mismatches) {
+                        mismatches.add(a + " != " + b);
+                    }
+                }
+            }
+        });
+
+        reader.start();
+        started.await();
+
+        for (int i = 1; i <= 1000; i++) {
+            val update = InconvertibleMutableConfig.create();
+            update.set("a", Map.of("value", i));
+            update.set("b", Map.of("value", i));
+
+            config.setAll(update);
+        }
+
+        running.set(false);
+        reader.join();
+
+        assertEquals(List.of(), mismatches);
+        assertEquals(1000, config.walk("b.value").asInt());
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.yaml.YAMLFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whilein
+ */
+final class ConfigPatchTests {
+
+    static ConfigProvider provider;
+
+    @BeforeAll
+    static void setup() {
+        provider = JacksonConfigProvider.create(new ObjectMapper(new YAMLFactory()));
+    }
+
+    @Test
+    void structuralHash() {
+        val a = provider.parse("{x: 1, y: {z: [1, 'two']}}");
+        val b = provider.parse("{y: {z: [1, 'two']}, x: 1}");
+
+        assertEquals(a.structuralHash(), b.structuralHash());
+
+        val hash = a.structuralHash();
+        a.getObject("y").set("z", List.of());
+        assertNotEquals(hash, a.structuralHash());
+
+        a.getObject("y").set("z", List.of(1, "two"));
+        assertEquals(hash, a.structuralHash());
+    }
+
+    @Test
+    void structuralHashAfterAsMapChange() {
+        val config = provider.parse("{x: 1, y: {z: 2}}");
+        val hash = config.structuralHash();
+
+        config.asMap().put("x", 2);
+        assertNotEquals(hash, config.structuralHash());
+
+        val nested = config.getObject("y");
+        val nestedHash = nested.structuralHash();
+
+        nested.asMap().put("z", 3);
+        assertNotEquals(nestedHash, nested.structuralHash());
+        assertEquals(Map.of("y.z", 3), provider.parse("{x: 2, y: {z: 2}}").diff(config).getChanged());
+    }
+
+    @Test
+    void structuralHashOfHeldChildAfterSetAll() {
+        val config = provider.parse("{db: {host: 'localhost'}}");
+        val db = config.getObject("db");
+        val hash = db.structuralHash();
+
+        config.setAll(provider.parse("{db: {port: 5432}}"));
+
+        assertNotEquals(hash, db.structuralHash());
+        assertEquals(Map.of("db.port", 5432), provider.parse("{db: {host: 'localhost'}}").diff(config).getAdded());
+    }
+
+    @Test
+    void structuralHashDistinguishesNumberTypes() {
+        val from = provider.newObject();
+        from.createObject("nested").set("value", 1);
+
+        val to = provider.newObject();
+        to.createObject("nested").set("value", 1L);
+
+        assertNotEquals(from.structuralHash(), to.structuralHash());
+        assertEquals(Map.of("nested.value", 1L), from.diff(to).getChanged());
+    }
+
+    @Test
+    void diffAndApply() {
+        val from = provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: 5432
+                cache:
+                  size: 10
+                name: 'old'
+                """);
+
+        val to = provider.parse("""
+                db:
+                  host: 'db.local'
+                  port: 5432
+                cache:
+                  size: 10
+                queue:
+                  size: 5
+                """);
+
+        val patch = from.diff(to);
+
+        assertEquals(Map.of("queue", Map.of("size", 5)), patch.getAdded());
+        assertEquals(Map.of("db.host", "db.local"), patch.getChanged());
+        assertEquals(Set.of("name"), patch.getRemoved());
+
+        val transferred = ConfigPatch.from(provider.parse(provider.convert(patch.asMap()).toString()));
+        assertEquals(patch, transferred);
+
+        from.apply(transferred);
+
+        assertEquals(to.asMap(), from.asMap());
+        assertTrue(from.diff(to).isEmpty());
+    }
+
+    @Test
+    void dottedKeys() {
+        val from = provider.parse("{hosts: {example.com: 1}, '1.2': 'old', '1': {'2': 'nested'}, old.key: 1}");
+        val to = provider.parse("{hosts: {example.com: 2, 'a\\b': 3}, '1.2': 'new', '1': {'2': 'nested'}}");
+
+        val patch = from.diff(to);
+
+        assertEquals(Map.of("hosts.a\\\\b", 3), patch.getAdded());
+        assertEquals(Map.of("hosts.example\\.com", 2, "1\\.2", "new"), patch.getChanged());
+        assertEquals(Set.of("old\\.key"), patch.getRemoved());
+
+        from.apply(ConfigPatch.from(provider.parse(provider.convert(patch.asMap()).toString())));
+
+        // ключ "1.2" не должен попасть в объект "1"
+        assertEquals(to.asMap(), from.asMap());
+        assertEquals(Map.of("2", "nested"), from.getObject("1").asMap());
+    }
+
+}
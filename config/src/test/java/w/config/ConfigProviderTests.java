@@ -28,9 +28,15 @@ import tools.jackson.dataformat.yaml.YAMLFactory;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author whilein
@@ -71,6 +77,34 @@ final class ConfigProviderTests {
         assertEquals("2", result.list.get(1).getString("name"));
     }
 
+    @Test
+    void stringPool() {
+        val stats = new AtomicReference<StringPoolStats>();
+        val pooling = JacksonConfigProvider.createPooling(new ObjectMapper(new YAMLFactory()), 16, stats::set);
+
+        val object = pooling.parse("""
+                items:
+                  - type: 'sword'
+                    state: 'enabled'
+                  - type: 'shield'
+                    state: 'enabled'
+                first: 'a very long description that is not pooled'
+                second: 'a very long description that is not pooled'
+                """);
+
+        val items = object.getObjectList("items");
+        assertSame(items.get(0).getString("state"), items.get(1).getString("state"));
+        assertSame(
+                items.get(0).keySet().iterator().next(),
+                items.get(1).keySet().iterator().next()
+        );
+        assertNotSame(object.getString("first"), object.getString("second"));
+
+        // как минимум значение enabled, ключи парсер мог уже сделать общими сам
+        assertTrue(stats.get().duplicates() >= 1);
+        assertTrue(stats.get().savedBytes() > 0);
+    }
+
     @Test
     void booleanKey() {
         val object = provider.parse("""
@@ -169,4 +203,92 @@ final class ConfigProviderTests {
         }
     }
 
+    @Test
+    void getAsAfterNestedChange() {
+        record Database(String host, int port) {
+        }
+
+        val jsonProvider = JacksonConfigProvider.create(new ObjectMapper());
+        val config = jsonProvider.parse("""
+                {"db": {"host": "localhost", "port": 5432}}
+                """);
+
+        for (val target : List.of(config, ConcurrentMutableConfig.from(jsonProvider, config))) {
+            assertEquals(new Database("localhost", 5432), target.getAs("db", Database.class));
+
+            target.getObject("db").set("port", 5433);
+            assertEquals(new Database("localhost", 5433), target.getAs("db", Database.class));
+            assertNotSame(target.getAs("db", Database.class), target.getAs("db", Database.class));
+        }
+    }
+
+    @Test
+    void lazyObject() {
+        val lazyProvider = JacksonConfigProvider.createLazy(new ObjectMapper());
+
+        val object = lazyProvider.parse("""
+                {
+                  "first": {"id": 1, "nested": {"name": "foo"}},
+                  "second": {"id": 2, "list": [{"id": 3}]},
+                  "text": "bar"
+                }
+                """);
+
+        assertEquals(3, object.size());
+        assertEquals("bar", object.getString("text"));
+        assertEquals("foo", object.walk("first.nested.name").asString());
+        assertEquals(2, object.getObject("second").getInt("id"));
+        assertEquals(3, object.getObject("second").getObjectList("list").get(0).getInt("id"));
+
+        object.getObject("first").set("id", 4);
+        assertEquals(4, object.walk("first.id").asInt());
+    }
+
+    @Test
+    void lazyObjectConcurrentAccess() throws InterruptedException {
+        val lazyProvider = JacksonConfigProvider.createLazy(new ObjectMapper());
+
+        for (int attempt = 0; attempt < 100; attempt++) {
+            val object = lazyProvider.parse("""
+                    {"nested": {"id": 1, "name": "foo"}}
+                    """);
+
+            val start = new CountDownLatch(1);
+            val failure = new AtomicReference<Throwable>();
+            val threads = new Thread[4];
+
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        start.await();
+                        assertEquals(1, object.getObject("nested").getInt("id"));
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                });
+                threads[i].start();
+            }
+
+            start.countDown();
+
+            for (val thread : threads) {
+                thread.join();
+            }
+
+            assertNull(failure.get());
+        }
+    }
+
+    @Test
+    void lazyObjectFallback() {
+        val lazyProvider = JacksonConfigProvider.createLazy(new ObjectMapper(new YAMLFactory()));
+
+        val object = lazyProvider.parse("""
+                nested:
+                  id: 1
+                """);
+
+        assertEquals(1, object.walk("nested.id").asInt());
+    }
+
 }
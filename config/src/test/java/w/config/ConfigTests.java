@@ -23,14 +23,18 @@ import w.config.mapper.Mapper;
 import w.config.mapper.NumberMapper;
 import w.config.mapper.StringMapper;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -58,6 +62,32 @@ final class ConfigTests {
 
         assertEquals(config.hashCode(), anotherConfig.hashCode());
         assertEquals(config, anotherConfig);
+
+        config.createObject("nested").set("value", 1);
+        anotherConfig.createObject("nested").set("value", 2);
+        assertNotEquals(config, anotherConfig);
+
+        anotherConfig.getObject("nested").set("value", 1);
+        assertEquals(config.hashCode(), anotherConfig.hashCode());
+        assertEquals(config, anotherConfig);
+
+        // Integer и Long не равны, поэтому и хэши у них разные
+        anotherConfig.getObject("nested").set("value", 1L);
+        assertNotEquals(config.hashCode(), anotherConfig.hashCode());
+        assertNotEquals(config, anotherConfig);
+    }
+
+    @Test
+    void testEqualsAfterAsMapChange() {
+        val anotherConfig = InconvertibleMutableConfig.create();
+
+        config.createObject("nested").set("value", 1);
+        anotherConfig.createObject("nested").set("value", 2);
+        assertNotEquals(config, anotherConfig);
+
+        anotherConfig.getObject("nested").asMap().put("value", 1);
+        assertEquals(config, anotherConfig);
+        assertEquals(config.hashCode(), anotherConfig.hashCode());
     }
 
     @Test
@@ -228,6 +258,53 @@ final class ConfigTests {
         assertEquals("default", config.getString("idk", "default"));
     }
 
+    @Test
+    void testArrays() {
+        config.set("ints", List.of(1, 2L, "3"));
+        config.set("primitive", new long[]{4, 5});
+
+        assertArrayEquals(new int[]{1, 2, 3}, config.getIntArray("ints"));
+        assertArrayEquals(new long[]{1, 2, 3}, config.getLongArray("ints"));
+        assertArrayEquals(new double[]{1, 2, 3}, config.getDoubleArray("ints"));
+        assertArrayEquals(new long[]{4, 5}, config.getLongArray("primitive"));
+
+        // missing
+        assertArrayEquals(new int[0], config.getIntArray("idk"));
+        assertNull(config.getIntArray("idk", null));
+    }
+
+    @Test
+    void testConversionCache() {
+        val calls = new AtomicInteger();
+
+        val mapper = new Mapper<Integer>() {
+            @Override
+            public Integer map(Object o) {
+                calls.incrementAndGet();
+                return o == null ? null : Integer.valueOf(o.toString());
+            }
+
+            @Override
+            public Integer mapStrict(Object o) {
+                return map(o);
+            }
+        };
+
+        config.set("num", "1");
+
+        assertEquals(1, config.get("num", mapper));
+        assertEquals(1, config.get("num", mapper));
+        assertEquals(1, calls.get());
+
+        config.set("num", "2");
+
+        assertEquals(2, config.get("num", mapper));
+        assertEquals(2, calls.get());
+
+        config.createObject("object");
+        assertSame(config.getObject("object"), config.getObject("object"));
+    }
+
     @Test
     void testByteFromString() {
         assertMapper((byte) 1, "1", NumberMapper.byteMapper());
@@ -318,6 +395,39 @@ final class ConfigTests {
         assertMapper(3.3f, 3.3f, NumberMapper.floatMapper());
     }
 
+    @Test
+    void testSubscriptions() {
+        val db = config.createObject("db");
+        db.set("host", "localhost");
+
+        val changes = new ArrayList<String>();
+
+        val hostSubscription = config.subscribe("db.host", changes::add);
+        config.subscribe("db", path -> changes.add("db <- " + path));
+        config.subscribe("other", changes::add);
+
+        db.set("host", "remote");
+        assertEquals(List.of("db <- db.host", "db.host"), changes);
+
+        changes.clear();
+        config.getObject("db").set("port", 5432);
+        assertEquals(List.of("db <- db.port"), changes);
+
+        changes.clear();
+        config.set("db", Map.of());
+        assertEquals(List.of("db <- db", "db"), changes);
+
+        // старый объект больше не часть конфига
+        changes.clear();
+        db.set("host", "detached");
+        assertEquals(List.of(), changes);
+
+        changes.clear();
+        hostSubscription.unsubscribe();
+        config.remove("db");
+        assertEquals(List.of("db <- db"), changes);
+    }
+
     private <T> void assertMapper(final T expect, final Object from, final Mapper<T> mapper) {
         assertEquals(expect, mapper.mapStrict(from));
     }
@@ -16,6 +16,7 @@
 
 package w.config;
 
+import lombok.val;
 import tools.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,8 +24,16 @@ import org.junit.jupiter.api.Test;
 import tools.jackson.dataformat.yaml.YAMLFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * @author whilein
@@ -58,6 +67,78 @@ final class FileConfigTests {
         assertEquals("baz qux", object.getString("text"));
     }
 
+    @Test
+    void writeBehind() {
+        val executor = Executors.newSingleThreadExecutor();
+
+        try {
+            object.setWriteBehind(executor);
+            object.set("text", "a");
+            object.save();
+            object.set("text", "b");
+            object.save();
+            object.flush();
+
+            object.reload();
+            assertEquals("b", object.getString("text"));
+        } finally {
+            object.setWriteBehind(null);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void writeBehindAfterShutdown() {
+        val executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+
+        try {
+            object.setWriteBehind(executor);
+            object.set("text", "a");
+            object.save();
+            object.set("text", "b");
+            object.save();
+
+            object.reload();
+            assertEquals("b", object.getString("text"));
+        } finally {
+            object.setWriteBehind(null);
+        }
+    }
+
+    @Test
+    void savePreservesPermissions() throws IOException {
+        val path = file.toPath();
+        assumeTrue(Files.getFileAttributeView(path, PosixFileAttributeView.class) != null);
+
+        val permissions = PosixFilePermissions.fromString("rw-rw----");
+        Files.setPosixFilePermissions(path, permissions);
+
+        object.set("text", "baz qux");
+        object.save();
+
+        assertEquals(permissions, Files.getPosixFilePermissions(path));
+    }
+
+    @Test
+    void reloadNotifiesChangedPaths() {
+        val changes = new ArrayList<String>();
+        object.subscribe("text", changes::add);
+        object.subscribe("missing", changes::add);
+
+        object.reload();
+        assertEquals(List.of(), changes);
+
+        object.set("text", "baz qux");
+        object.save();
+        object.set("text", "foo bar");
+        assertEquals(List.of("text", "text"), changes);
+
+        changes.clear();
+        object.reload();
+        assertEquals(List.of("text"), changes);
+    }
+
     @Test
     void reload() {
         assertEquals("foo bar", object.getString("text"));
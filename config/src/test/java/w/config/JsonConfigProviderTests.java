@@ -0,0 +1,133 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author whilein
+ */
+final class JsonConfigProviderTests {
+
+    private static final String DOCUMENT = """
+            {
+              "name": "service",
+              "escaped": "line\\n\\"quoted\\" \\u00e9\\/",
+              "int": -42,
+              "long": 9007199254740993,
+              "huge": 123456789012345678901234567890,
+              "double": 1.5e-3,
+              "enabled": true,
+              "missing": null,
+              "db": { "host": "localhost", "port": 5432, "tags": [] },
+              "servers": [ { "name": "a" }, { "name": "b", "weight": 0.5 } ],
+              "empty": {}
+            }
+            """;
+
+    static ConfigProvider jsonProvider;
+
+    static ConfigProvider jacksonProvider;
+
+    @BeforeAll
+    static void setup() {
+        jsonProvider = JsonConfigProvider.create();
+        jacksonProvider = JacksonConfigProvider.create(new ObjectMapper());
+    }
+
+    @Test
+    void sameAsJackson() {
+        val config = jsonProvider.parse(DOCUMENT);
+
+        assertEquals(jacksonProvider.parse(DOCUMENT), config);
+        assertEquals(jacksonProvider.parse(DOCUMENT).asMap(), config.asMap());
+    }
+
+    @Test
+    void primitives() {
+        val config = jsonProvider.parse(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("line\n\"quoted\" é/", config.getString("escaped"));
+        assertInstanceOf(Integer.class, config.getRaw("int"));
+        assertInstanceOf(Long.class, config.getRaw("long"));
+        assertInstanceOf(BigInteger.class, config.getRaw("huge"));
+        assertInstanceOf(Double.class, config.getRaw("double"));
+        assertEquals(9007199254740993L, config.getLong("long"));
+        assertEquals(0.0015, config.getDouble("double"));
+        assertNull(config.getRaw("missing", "default"));
+        assertEquals(5432, config.getObject("db").getInt("port"));
+        assertEquals(0.5, config.getObjectList("servers").get(1).getDouble("weight"));
+    }
+
+    @Test
+    void utf8() {
+        val document = "\uFEFF{\"ключ\": \"значение \\u00e9 😀\", \"ß\": [\"\\\"ü\\\"\"]}";
+        val expected = jacksonProvider.parse(document.substring(1));
+
+        assertEquals(expected, jsonProvider.parse(document));
+        assertEquals(expected, jsonProvider.parse(document.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, jsonProvider.parse(new StringReader(document)));
+        assertEquals("значение é 😀", jsonProvider.parse(document).getString("ключ"));
+    }
+
+    @Test
+    void writeAndParse() {
+        val config = jsonProvider.newObject();
+        config.set("list", Arrays.asList(1, "2", null));
+        config.createObject("nested").set("value", Long.MAX_VALUE);
+
+        assertEquals(config, jsonProvider.parse(config.toString()));
+    }
+
+    @Test
+    void invalid() {
+        for (val input : List.of("", "[]", "{", "{\"a\"}", "{\"a\":01}", "{\"a\":1,}", "{\"a\":tru}",
+                "{\"a\":\"\\x\"}", "{\"a\":1} 1", "{\"a\":-}", "{\"a\":1.}")) {
+            assertThrows(IllegalStateException.class, () -> jsonProvider.parse(input), input);
+        }
+    }
+
+    @Test
+    void providerByExtension(@TempDir final Path directory) throws Exception {
+        val file = directory.resolve("config.json");
+        Files.writeString(file, DOCUMENT);
+
+        val config = SimpleFileConfig.create(file);
+        assertEquals("service", config.getString("name"));
+
+        assertThrows(IllegalArgumentException.class, () -> SimpleFileConfig.create(directory.resolve("config")));
+        assertThrows(IllegalArgumentException.class, () -> SimpleFileConfig.create(directory.resolve("config.xml")));
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.yaml.YAMLFactory;
+import w.util.EnvSnapshot;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whilein
+ */
+final class LayeredConfigTests {
+
+    static ConfigProvider provider;
+
+    @BeforeAll
+    static void setup() {
+        provider = JacksonConfigProvider.create(new ObjectMapper(new YAMLFactory()));
+    }
+
+    @Test
+    void overlay() {
+        val defaults = provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: 5432
+                list: [1, 2]
+                text: 'default'
+                """);
+
+        val file = provider.parse("""
+                db:
+                  host: 'db.local'
+                list: [3]
+                """);
+
+        val config = LayeredConfig.create(provider, defaults, file);
+
+        assertEquals("db.local", config.walk("db.host").asString());
+        assertEquals(5432, config.walk("db.port").asInt());
+        assertEquals(List.of(3), config.getIntList("list"));
+        assertEquals("default", config.getString("text"));
+        assertEquals(List.of("db", "list", "text"), List.copyOf(config.keySet()));
+        assertEquals(provider.parse("""
+                db:
+                  host: 'db.local'
+                  port: 5432
+                list: [3]
+                text: 'default'
+                """), config);
+    }
+
+    @Test
+    void setLayer() {
+        val defaults = provider.parse("""
+                text: 'default'
+                counter: 1
+                """);
+
+        val config = LayeredConfig.create(provider, defaults, provider.newObject());
+        assertEquals("default", config.getString("text"));
+        assertEquals(1, config.getInt("counter"));
+
+        config.setLayer(1, provider.parse("text: 'runtime'\n"));
+        assertEquals("runtime", config.getString("text"));
+        assertEquals(1, config.getInt("counter"));
+
+        defaults.set("counter", 2);
+        config.invalidate("counter");
+        assertEquals(2, config.getInt("counter"));
+
+        config.addLayer(provider.parse("text: null\n"));
+        assertEquals("runtime", config.getString("text"));
+    }
+
+    @Test
+    void nestedViewAfterSetLayer() {
+        val defaults = provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: 5432
+                """);
+
+        val config = LayeredConfig.create(provider, defaults, provider.newObject());
+        val db = config.getObject("db");
+        assertEquals("localhost", db.getString("host"));
+        assertFalse(db.contains("user"));
+
+        config.setLayer(1, provider.parse("""
+                db:
+                  host: 'db.local'
+                  user: 'admin'
+                """));
+
+        assertEquals("db.local", db.getString("host"));
+        assertEquals("admin", db.getString("user"));
+        assertEquals(5432, db.getInt("port"));
+
+        config.setLayer(1, provider.parse("db: 'disabled'\n"));
+        assertTrue(db.isEmpty());
+    }
+
+    @Test
+    void invalidatePath() {
+        val defaults = provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: 5432
+                cache:
+                  size: 10
+                """);
+
+        val file = provider.newObject();
+
+        val config = LayeredConfig.create(provider, defaults, file);
+        val db = config.getObject("db");
+        assertEquals("localhost", db.getString("host"));
+        assertEquals(5432, db.getInt("port"));
+        assertEquals(10, config.walk("cache.size").asInt());
+
+        defaults.getObject("db").set("host", "db.local");
+        defaults.getObject("cache").set("size", 20);
+        config.invalidate("db.host");
+
+        assertEquals("db.local", db.getString("host"));
+
+        // сброшен только путь db.host, соседний объект отвечает из кэша
+        assertEquals(10, config.walk("cache.size").asInt());
+
+        config.invalidate("cache");
+        assertEquals(20, config.walk("cache.size").asInt());
+
+        // объект впервые появился в верхнем слое
+        file.set("db", Map.of("user", "admin"));
+        config.invalidate("db.user");
+
+        assertEquals("admin", db.getString("user"));
+        assertEquals("db.local", db.getString("host"));
+    }
+
+    @Test
+    void readOnly() {
+        val config = LayeredConfig.create(provider, provider.parse("text: 'default'\n"));
+
+        assertThrows(UnsupportedOperationException.class, () -> config.set("text", "runtime"));
+        assertFalse(config.contains("unknown"));
+    }
+
+    @Test
+    void envLayer() {
+        val file = provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: 5432
+                """);
+
+        val env = EnvConfigLayer.create(EnvSnapshot.of(Map.of(
+                "APP_DB_PORT", "6432",
+                "APP_DEBUG", "true",
+                "OTHER_DB_HOST", "ignored"
+        )), "APP_");
+
+        val config = LayeredConfig.create(provider, file, env);
+
+        assertEquals("localhost", config.walk("db.host").asString());
+        assertEquals(6432, config.walk("db.port").asInt());
+        assertTrue(config.getBoolean("debug"));
+    }
+
+}
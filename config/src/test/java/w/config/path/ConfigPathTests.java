@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.path;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import w.config.ConfigMissingKeyException;
+import w.config.InconvertibleMutableConfig;
+import w.config.MutableConfig;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author whilein
+ */
+final class ConfigPathTests {
+
+    MutableConfig config;
+
+    @BeforeEach
+    void setup() {
+        config = InconvertibleMutableConfig.create();
+
+        val db = config.createObject("db");
+        db.set("host", "localhost");
+        db.set("port", "5432");
+        db.set("pool", 16);
+
+        config.set("debug", true);
+    }
+
+    @Test
+    void resolve() {
+        val path = config.walk("db.port");
+        assertFalse(path instanceof ResolvedConfigPath);
+
+        val port = path.resolve();
+        assertEquals(5432, port.asInt());
+        assertSame(config.getObject("db"), port.getParentObject());
+        assertSame(port, port.resolve());
+
+        val host = port.sibling("host");
+        assertEquals("localhost", host.asString());
+        assertSame(port.getParentObject(), host.getParentObject());
+
+        val missing = config.walk("cache.size").resolve();
+        assertNull(missing.getParentObject());
+        assertFalse(missing.isPresent());
+        assertThrows(ConfigMissingKeyException.class, missing::asInt);
+    }
+
+    @Test
+    void projectPaths() {
+        val projection = ConfigProjection.ofPaths("db.host", "debug", "db.pool", "cache.size");
+
+        assertArrayEquals(new Object[]{"localhost", true, 16, null}, projection.project(config));
+    }
+
+    @Test
+    void projectRecord() {
+        val projection = ConfigProjection.ofRecord(Database.class);
+        assertSame(projection, ConfigProjection.ofRecord(Database.class));
+
+        assertEquals(new Database("localhost", 5432, 16, true, null), projection.project(config));
+
+        config.getObject("db").set("port", "unknown");
+        assertThrows(IllegalStateException.class, () -> projection.project(config));
+
+        config.getObject("db").remove("port");
+        assertThrows(ConfigMissingKeyException.class, () -> projection.project(config));
+    }
+
+    private record Database(
+            @ConfigKey("db.host") String host,
+            @ConfigKey("db.port") int port,
+            @ConfigKey("db.pool") Integer pool,
+            boolean debug,
+            @ConfigKey("db.user") String user
+    ) {
+    }
+
+}
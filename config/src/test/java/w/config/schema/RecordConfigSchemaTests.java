@@ -0,0 +1,174 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.config.schema;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.yaml.YAMLFactory;
+import w.config.ConfigProvider;
+import w.config.JacksonConfigProvider;
+import w.config.SimpleFileConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author whilein
+ */
+final class RecordConfigSchemaTests {
+
+    static ConfigProvider provider;
+
+    @BeforeAll
+    static void setup() {
+        provider = ValidatingConfigProvider.create(
+                JacksonConfigProvider.create(new ObjectMapper(new YAMLFactory())),
+                RecordConfigSchema.create(Settings.class)
+        );
+    }
+
+    @Test
+    void coerce() {
+        val config = provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: '5432'
+                mode: FAST
+                ratios: ['0.5', 1]
+                limits:
+                  a: '10'
+                """);
+
+        assertInstanceOf(Integer.class, config.getObject("db").getRaw("port"));
+        assertEquals(List.of(0.5, 1.0), config.getRaw("ratios"));
+        assertEquals(Map.of("a", 10L), config.getRaw("limits"));
+        assertEquals(5432, config.asType(Settings.class).db().port());
+    }
+
+    @Test
+    void errors() {
+        val exception = assertThrows(ConfigValidationException.class, () -> provider.parse("""
+                db:
+                  port: 'abc'
+                  replica:
+                    host: 'replica'
+                    port: 70000
+                mode: SLOW
+                ratios: {}
+                """));
+
+        assertEquals(List.of(
+                "db.host: missing required key",
+                "db.port: expected int, got 'abc'",
+                "db.replica.port: 70000 is out of range [1.0, 65535.0]",
+                "mode: expected one of Mode [FAST], got 'SLOW'",
+                "ratios: expected list, got object"
+        ), exception.getErrors());
+    }
+
+    @Test
+    void numbersAreNotNarrowed() {
+        val exception = assertThrows(ConfigValidationException.class, () -> provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: 3.7
+                  replica:
+                    host: 5
+                    port: 4294967297
+                mode: FAST
+                ratios: []
+                limits:
+                  a: 9223372036854775808
+                """));
+
+        assertEquals(List.of(
+                "db.port: expected int, got 3.7",
+                "db.replica.host: expected string, got 5",
+                "db.replica.port: 4294967297 is out of int range",
+                "limits.a: 9223372036854775808 is out of long range"
+        ), exception.getErrors());
+    }
+
+    @Test
+    void integralDoubleIsAccepted() {
+        val config = provider.parse("""
+                db:
+                  host: 'localhost'
+                  port: 5432.0
+                mode: FAST
+                ratios: []
+                """);
+
+        assertEquals(5432, config.getObject("db").getRaw("port"));
+    }
+
+    @Test
+    void reloadKeepsConfigOnValidationFailure() throws IOException {
+        val file = Files.createTempFile("settings", ".yml");
+
+        try {
+            Files.writeString(file, """
+                    db:
+                      host: 'localhost'
+                      port: 5432
+                    mode: FAST
+                    ratios: []
+                    """);
+
+            val config = SimpleFileConfig.create(file, provider);
+
+            Files.writeString(file, """
+                    db:
+                      host: 'localhost'
+                      port: 70000
+                    mode: FAST
+                    ratios: []
+                    """);
+
+            assertThrows(ConfigValidationException.class, config::reload);
+            assertEquals(5432, config.getObject("db").getInt("port"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void cached() {
+        assertSame(RecordConfigSchema.create(Settings.class), RecordConfigSchema.create(Settings.class));
+    }
+
+    public enum Mode {
+        FAST
+    }
+
+    public record Database(String host, @Range(min = 1, max = 65535) int port, @OptionalKey Database replica) {
+    }
+
+    public record Settings(Database db, Mode mode, List<Double> ratios, Optional<Map<String, Long>> limits) {
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import w.geo.cache.caffeine.CachedGeoLocationManager;
+import w.geo.maxmind.CompactGeoLocationManager;
+import w.geo.maxmind.DatabaseProviders;
+import w.geo.maxmind.MaxmindGeoLocationManager;
+import w.geo.model.GeoLocation;
+
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск по базе MaxMind, через кэш Caffeine и по {@link CompactGeoLocationManager}.
+ * <p>
+ * База не входит в репозиторий, путь к ней передаётся свойством {@code geo.database}.
+ *
+ * @author whilein
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class GeoLookupBenchmark {
+
+    private static final int ADDRESSES = 1 << 16;
+
+    InetAddress[] addresses;
+
+    GeoLocationManager reader;
+
+    GeoLocationManager cached;
+
+    GeoLocationManager compact;
+
+    int index;
+
+    @Setup
+    public void setup() throws Exception {
+        val database = System.getProperty("geo.database");
+
+        if (database == null) {
+            throw new IllegalStateException("Pass path to .mmdb file with -Dgeo.database=...");
+        }
+
+        val provider = DatabaseProviders.fromFile(Path.of(database));
+
+        reader = MaxmindGeoLocationManager.create(provider);
+        cached = CachedGeoLocationManager.create(reader);
+        compact = CompactGeoLocationManager.create(provider);
+
+        // адреса повторяются, чтобы у кэша были попадания
+        val random = new SplittableRandom(0);
+        addresses = new InetAddress[ADDRESSES];
+
+        for (int i = 0; i < ADDRESSES; i++) {
+            val address = random.nextInt(ADDRESSES / 4);
+
+            addresses[i] = InetAddress.getByAddress(new byte[]{
+                    (byte) (address >>> 8), (byte) address, (byte) random.nextInt(256), 1
+            });
+        }
+    }
+
+    private InetAddress next() {
+        return addresses[index++ & (ADDRESSES - 1)];
+    }
+
+    @Benchmark
+    public GeoLocation reader() {
+        return reader.lookup(next());
+    }
+
+    @Benchmark
+    public GeoLocation cached() {
+        return cached.lookup(next());
+    }
+
+    @Benchmark
+    public GeoLocation compact() {
+        return compact.lookup(next());
+    }
+
+}
@@ -16,10 +16,17 @@
 
 package w.geo;
 
+import lombok.val;
 import org.jetbrains.annotations.NotNull;
 import w.geo.model.GeoLocation;
+import w.geo.model.GeoNetwork;
 
 import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author whilein
@@ -30,4 +37,94 @@ public interface GeoLocationManager {
 
     @NotNull GeoLocation lookup(@NotNull InetAddress address) throws GeoLocationLookupException;
 
+    /**
+     * Найти местоположение по адресу в виде байтов, например взятому прямо из пакета.
+     * Реализация по умолчанию создаёт {@link InetAddress}.
+     *
+     * @param address Адрес из 4 (IPv4) или 16 (IPv6) байтов в сетевом порядке
+     * @return Местоположение
+     * @throws GeoLocationLookupException Не удалось найти местоположение
+     * @throws IllegalArgumentException   Неверная длина адреса
+     */
+    default @NotNull GeoLocation lookup(byte @NotNull [] address) throws GeoLocationLookupException {
+        final InetAddress inetAddress;
+
+        try {
+            inetAddress = InetAddress.getByAddress(address);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid address length: " + address.length, e);
+        }
+
+        return lookup(inetAddress);
+    }
+
+    /**
+     * Найти местоположение вместе с сетью, для всех адресов которой оно такое же.
+     * Реализация по умолчанию не знает сетей и возвращает сеть из одного адреса.
+     *
+     * @param address Адрес
+     * @return Сеть адреса и её местоположение
+     * @throws GeoLocationLookupException Не удалось найти местоположение
+     */
+    default @NotNull GeoNetwork lookupNetwork(@NotNull InetAddress address) throws GeoLocationLookupException {
+        return GeoNetwork.single(address, lookup(address));
+    }
+
+    /**
+     * Найти местоположение сразу для нескольких адресов. Реализации могут разрешать
+     * адреса пачкой эффективнее, чем по одному через {@link #lookup(InetAddress)}.
+     *
+     * @param addresses Адреса, повторы допускаются
+     * @return Местоположение для каждого различного адреса
+     * @throws GeoLocationLookupException Не удалось найти местоположение
+     */
+    default @NotNull Map<@NotNull InetAddress, @NotNull GeoLocation> lookupAll(
+            @NotNull Collection<? extends @NotNull InetAddress> addresses
+    ) throws GeoLocationLookupException {
+        val result = HashMap.<InetAddress, GeoLocation>newHashMap(addresses.size());
+
+        for (val address : addresses) {
+            if (!result.containsKey(address)) {
+                result.put(address, lookup(address));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Найти местоположение, не блокируя вызывающий поток. Реализация по умолчанию
+     * выполняет поиск в вызывающем потоке и возвращает завершённый результат.
+     *
+     * @param address Адрес
+     * @return Результат поиска, завершается с {@link GeoLocationLookupException} при ошибке
+     */
+    default @NotNull CompletableFuture<@NotNull GeoLocation> lookupAsync(@NotNull InetAddress address) {
+        try {
+            return CompletableFuture.completedFuture(lookup(address));
+        } catch (GeoLocationLookupException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Получить версию данных, по которым отвечает менеджер. Версия меняется, когда менеджер
+     * переходит на новую базу, и по ней кэширующие обёртки понимают, что кэш устарел.
+     *
+     * @return Версия данных
+     */
+    default long getVersion() {
+        return 0L;
+    }
+
+    /**
+     * Получить статистику поисков. Кэширующие обёртки дополняют статистику делегата
+     * попаданиями и промахами. Реализация по умолчанию статистику не ведёт.
+     *
+     * @return Статистика
+     */
+    default @NotNull GeoLocationStats getStats() {
+        return GeoLocationStats.empty();
+    }
+
 }
@@ -0,0 +1,111 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Статистика менеджера на момент вызова {@link GeoLocationManager#getStats()}. Счётчики
+ * накапливаются с создания менеджера и не сбрасываются при смене базы.
+ *
+ * @param lookupCount       Количество поисков
+ * @param hitCount          Количество поисков, найденных в кэше
+ * @param missCount         Количество поисков, не найденных в кэше
+ * @param loadCount         Количество поисков по базе
+ * @param unknownCount      Количество поисков по базе, не давших местоположения
+ * @param loadLatencyP50    Медиана времени поиска по базе
+ * @param loadLatencyP90    90-й перцентиль времени поиска по базе
+ * @param loadLatencyP99    99-й перцентиль времени поиска по базе
+ * @param loadLatencyMax    Наибольшее время поиска по базе
+ * @param databaseBuildTime Время сборки базы или {@code null}, если неизвестно
+ * @param lastRefreshTime   Время последней успешной загрузки базы или {@code null}, если неизвестно
+ * @author whilein
+ */
+public record GeoLocationStats(
+        long lookupCount,
+        long hitCount,
+        long missCount,
+        long loadCount,
+        long unknownCount,
+        @NotNull Duration loadLatencyP50,
+        @NotNull Duration loadLatencyP90,
+        @NotNull Duration loadLatencyP99,
+        @NotNull Duration loadLatencyMax,
+        @Nullable Instant databaseBuildTime,
+        @Nullable Instant lastRefreshTime
+) {
+
+    private static final GeoLocationStats EMPTY = new GeoLocationStats(0, 0, 0, 0, 0,
+            Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO, null, null);
+
+    public static @NotNull GeoLocationStats empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Получить долю поисков, найденных в кэше. Без поисков доля равна {@code 1.0},
+     * как в статистике Caffeine и Guava.
+     *
+     * @return Доля попаданий от {@code 0.0} до {@code 1.0}
+     */
+    public double hitRate() {
+        final long requests = hitCount + missCount;
+
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Получить долю поисков по базе, не давших местоположения.
+     *
+     * @return Доля от {@code 0.0} до {@code 1.0}
+     */
+    public double unknownRate() {
+        return loadCount == 0 ? 0.0 : (double) unknownCount / loadCount;
+    }
+
+    /**
+     * Получить возраст базы относительно текущего времени.
+     *
+     * @return Возраст базы или {@code null}, если время сборки неизвестно
+     */
+    public @Nullable Duration databaseAge() {
+        return databaseBuildTime != null ? Duration.between(databaseBuildTime, Instant.now()) : null;
+    }
+
+    /**
+     * Дополнить статистику делегата статистикой кэша: каждый поиск является попаданием
+     * или промахом, а поиски делегата остаются поисками по базе.
+     *
+     * @param hitCount  Количество попаданий
+     * @param missCount Количество промахов
+     * @return Новая статистика
+     */
+    public @NotNull GeoLocationStats withCache(long hitCount, long missCount) {
+        return new GeoLocationStats(hitCount + missCount, hitCount, missCount, loadCount, unknownCount,
+                loadLatencyP50, loadLatencyP90, loadLatencyP99, loadLatencyMax, databaseBuildTime, lastRefreshTime);
+    }
+
+    public @NotNull GeoLocationStats withLastRefreshTime(@Nullable Instant lastRefreshTime) {
+        return new GeoLocationStats(lookupCount, hitCount, missCount, loadCount, unknownCount,
+                loadLatencyP50, loadLatencyP90, loadLatencyP99, loadLatencyMax, databaseBuildTime, lastRefreshTime);
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import w.geo.model.GeoLocation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики поисков по базе для {@link GeoLocationStats}. Все счётчики полосатые
+ * ({@link LongAdder}), поэтому запись из многих потоков не конкурирует за одну
+ * ячейку памяти.
+ * <p>
+ * Время поиска копится в гистограмме с четырьмя корзинами на каждую степень двойки
+ * наносекунд: перцентили получаются с погрешностью не больше четверти значения.
+ * Замер времени стоит двух {@link System#nanoTime()} и ещё двух счётчиков, поэтому
+ * замеряется только выборка поисков (см. {@link #shouldTime()}), а количество поисков
+ * считается всегда.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class GeoLocationStatsRecorder {
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final int DEFAULT_TIMING_SAMPLE_RATE = 64;
+
+    /**
+     * Маска случайного числа для выборки, {@code -1} - время не замеряется.
+     */
+    int timingMask;
+
+    LongAdder loads;
+
+    LongAdder unknown;
+
+    LongAdder[] latencies;
+
+    LongAccumulator maxLatency;
+
+    public static @NotNull GeoLocationStatsRecorder create() {
+        return create(DEFAULT_TIMING_SAMPLE_RATE);
+    }
+
+    /**
+     * Создать счётчики.
+     *
+     * @param timingSampleRate Замерять время в среднем одного из стольких поисков,
+     *                         округляется вверх до степени двойки; {@code 1} - каждого,
+     *                         {@code 0} - не замерять вовсе
+     * @return Новые счётчики
+     */
+    public static @NotNull GeoLocationStatsRecorder create(int timingSampleRate) {
+        if (timingSampleRate < 0) {
+            throw new IllegalArgumentException("timingSampleRate must not be negative");
+        }
+
+        val latencies = new LongAdder[BUCKETS];
+
+        for (int i = 0; i < BUCKETS; i++) {
+            latencies[i] = new LongAdder();
+        }
+
+        val timingMask = timingSampleRate == 0
+                ? -1
+                : Integer.highestOneBit(Math.min(timingSampleRate, 1 << 30) * 2 - 1) - 1;
+
+        return new GeoLocationStatsRecorder(timingMask, new LongAdder(), new LongAdder(), latencies,
+                new LongAccumulator(Math::max, 0L));
+    }
+
+    /**
+     * Узнать, нужно ли замерять время очередного поиска. Если нет, поиск записывается
+     * через {@link #record(GeoLocation)}.
+     *
+     * @return {@code true}, если поиск попал в выборку
+     */
+    public boolean shouldTime() {
+        val mask = timingMask;
+        return mask == 0 || mask != -1 && (ThreadLocalRandom.current().nextInt() & mask) == 0;
+    }
+
+    /**
+     * Записать поиск по базе без замера времени.
+     *
+     * @param location Найденное местоположение
+     */
+    public void record(@NotNull GeoLocation location) {
+        loads.increment();
+
+        if (location == GeoLocation.unknown()) {
+            unknown.increment();
+        }
+    }
+
+    /**
+     * Записать поиск по базе, попавший в выборку {@link #shouldTime()}.
+     *
+     * @param location Найденное местоположение
+     * @param nanos    Время поиска в наносекундах
+     */
+    public void record(@NotNull GeoLocation location, long nanos) {
+        record(location);
+
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        latencies[bucket(nanos)].increment();
+        maxLatency.accumulate(nanos);
+    }
+
+    /**
+     * Снять статистику. Поиски по базе считаются и поисками менеджера, кэш
+     * может заменить их через {@link GeoLocationStats#withCache(long, long)}.
+     * Перцентили и наибольшее время считаются по выборке замеренных поисков.
+     *
+     * @param databaseBuildTime Время сборки базы
+     * @param lastRefreshTime   Время последней загрузки базы
+     * @return Статистика
+     */
+    public @NotNull GeoLocationStats snapshot(
+            @Nullable Instant databaseBuildTime,
+            @Nullable Instant lastRefreshTime
+    ) {
+        val counts = new long[BUCKETS];
+        long total = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts[i] = latencies[i].sum();
+        }
+
+        val loadCount = loads.sum();
+        val max = maxLatency.get();
+
+        return new GeoLocationStats(loadCount, 0, 0, loadCount, unknown.sum(),
+                percentile(counts, total, max, 0.50),
+                percentile(counts, total, max, 0.90),
+                percentile(counts, total, max, 0.99),
+                Duration.ofNanos(max),
+                databaseBuildTime, lastRefreshTime);
+    }
+
+    private static Duration percentile(long[] counts, long total, long max, double percentile) {
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+
+        val rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                // граница корзины может оказаться больше самого долгого поиска
+                return Duration.ofNanos(Math.min(upperBound(i), max));
+            }
+        }
+
+        return Duration.ofNanos(max);
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+
+        // старший бит выбирает степень двойки, следующие за ним биты выбирают корзину внутри неё
+        val exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        val shift = exponent - SUB_BUCKET_BITS;
+        val subBucket = (int) (nanos >>> shift) & (SUB_BUCKETS - 1);
+
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        val shift = bucket / SUB_BUCKETS - 1;
+        val subBucket = bucket % SUB_BUCKETS;
+        val upper = ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+}
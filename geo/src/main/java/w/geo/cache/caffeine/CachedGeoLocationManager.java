@@ -16,52 +16,239 @@
 
 package w.geo.cache.caffeine;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
 import w.geo.GeoLocationManager;
+import w.geo.GeoLocationStats;
 import w.geo.model.GeoLocation;
 
 import java.net.InetAddress;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.LongFunction;
 
 /**
+ * Кэш на Caffeine.
+ * <p>
+ * Для каждой версии данных делегата создаётся свой кэш. Загрузки, начатые до смены
+ * базы, дописывают результаты в кэш прежней версии, который больше не читается, поэтому
+ * устаревшие результаты не переживают смену базы.
+ *
  * @author whilein
  */
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public final class CachedGeoLocationManager implements GeoLocationManager {
 
-    LoadingCache<InetAddress, GeoLocation> cache;
+    private static final int DEFAULT_ASYNC_MAXIMUM_SIZE = 1_000_000;
+
+    GeoLocationManager delegate;
+
+    LongFunction<Generation> factory;
+
+    @NonFinal
+    volatile Generation generation;
+
+    /**
+     * Статистика кэшей прежних версий.
+     */
+    @NonFinal
+    volatile CacheStats retiredStats = CacheStats.empty();
+
+    private static GeoLocationManager create(
+            final GeoLocationManager delegate,
+            final LongFunction<Generation> factory
+    ) {
+        val manager = new CachedGeoLocationManager(delegate, factory);
+        manager.generation = factory.apply(delegate.getVersion());
+
+        return manager;
+    }
 
     public static @NotNull GeoLocationManager create(
             @NotNull GeoLocationManager delegate
     ) {
-        return new CachedGeoLocationManager(
-                Caffeine.newBuilder()
-                        .softValues()
-                        .expireAfterAccess(24, TimeUnit.HOURS)
-                        .build(delegate::lookup)
-        );
+        return create(delegate, builder -> builder
+                .softValues()
+                .expireAfterAccess(24, TimeUnit.HOURS));
     }
 
     public static @NotNull GeoLocationManager create(
             @NotNull GeoLocationManager delegate,
             @NotNull Consumer<@NotNull Caffeine<?, ?>> builderInitializer
     ) {
-        val builder = Caffeine.newBuilder();
+        val builder = Caffeine.newBuilder().recordStats();
+        builderInitializer.accept(builder);
+
+        val loader = new CacheLoaderImpl(delegate);
+
+        return create(delegate, version -> new Generation(version, builder.build(loader), null));
+    }
+
+    /**
+     * Создать менеджер на {@link AsyncLoadingCache}: промахи {@link #lookupAsync(InetAddress)}
+     * загружаются через {@link GeoLocationManager#lookupAsync(InetAddress)} делегата, и параллельные
+     * запросы одного адреса ждут одну загрузку, не занимая потоков.
+     * <p>
+     * Асинхронный кэш не поддерживает мягкие ссылки, поэтому по умолчанию ограничен
+     * {@value #DEFAULT_ASYNC_MAXIMUM_SIZE} записями.
+     *
+     * @param delegate Менеджер, результаты которого кэшируются
+     * @return Новый менеджер
+     */
+    public static @NotNull GeoLocationManager createAsync(
+            @NotNull GeoLocationManager delegate
+    ) {
+        return createAsync(delegate, builder -> builder
+                .maximumSize(DEFAULT_ASYNC_MAXIMUM_SIZE)
+                .expireAfterAccess(24, TimeUnit.HOURS));
+    }
+
+    public static @NotNull GeoLocationManager createAsync(
+            @NotNull GeoLocationManager delegate,
+            @NotNull Consumer<@NotNull Caffeine<?, ?>> builderInitializer
+    ) {
+        val builder = Caffeine.newBuilder().recordStats();
         builderInitializer.accept(builder);
 
-        return new CachedGeoLocationManager(builder.build(delegate::lookup));
+        val loader = new CacheLoaderImpl(delegate);
+
+        return create(delegate, version -> {
+            val cache = builder.buildAsync(loader);
+            return new Generation(version, cache.synchronous(), cache);
+        });
     }
 
     @Override
     public @NotNull GeoLocation lookup(final @NotNull InetAddress address) {
-        return cache.get(address);
+        return generation().cache.get(address);
+    }
+
+    @Override
+    public @NotNull Map<@NotNull InetAddress, @NotNull GeoLocation> lookupAll(
+            final @NotNull Collection<? extends @NotNull InetAddress> addresses
+    ) {
+        return generation().cache.getAll(addresses);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull GeoLocation> lookupAsync(final @NotNull InetAddress address) {
+        val generation = generation();
+
+        if (generation.asyncCache != null) {
+            return generation.asyncCache.get(address);
+        }
+
+        return lookupAsync0(generation.cache, address);
+    }
+
+    /**
+     * Получить статистику делегата с попаданиями и промахами кэша.
+     */
+    @Override
+    public @NotNull GeoLocationStats getStats() {
+        val cacheStats = retiredStats.plus(generation.cache.stats());
+
+        return delegate.getStats().withCache(cacheStats.hitCount(), cacheStats.missCount());
+    }
+
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    private CompletableFuture<GeoLocation> lookupAsync0(
+            final LoadingCache<InetAddress, GeoLocation> cache,
+            final InetAddress address
+    ) {
+        val cached = cache.getIfPresent(address);
+
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return delegate.lookupAsync(address).thenApply(result -> {
+            cache.put(address, result);
+            return result;
+        });
+    }
+
+    private Generation generation() {
+        val current = delegate.getVersion();
+        val generation = this.generation;
+
+        // поколение с версией не ниже прочитанной создано уже после перехода делегата
+        // на эту версию, поэтому загрузки через него не увидят старую базу
+        if (generation.version >= current) {
+            return generation;
+        }
+
+        return nextGeneration(current);
+    }
+
+    private synchronized Generation nextGeneration(final long version) {
+        val generation = this.generation;
+
+        if (generation.version >= version) {
+            return generation;
+        }
+
+        retiredStats = retiredStats.plus(generation.cache.stats());
+
+        return this.generation = factory.apply(version);
+    }
+
+    /**
+     * Кэш одной версии данных делегата.
+     *
+     * @param version    Версия данных
+     * @param cache      Кэш
+     * @param asyncCache Асинхронный кэш, представлением которого является {@code cache}, или {@code null}
+     */
+    private record Generation(
+            long version,
+            LoadingCache<InetAddress, GeoLocation> cache,
+            AsyncLoadingCache<InetAddress, GeoLocation> asyncCache
+    ) {
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class CacheLoaderImpl implements CacheLoader<InetAddress, GeoLocation> {
+        GeoLocationManager delegate;
+
+        @Override
+        public @NotNull GeoLocation load(final @NotNull InetAddress key) {
+            return delegate.lookup(key);
+        }
+
+        @Override
+        public @NotNull CompletableFuture<? extends GeoLocation> asyncLoad(
+                final @NotNull InetAddress key,
+                final @NotNull Executor executor
+        ) {
+            return delegate.lookupAsync(key);
+        }
+
+        @Override
+        public @NotNull Map<? extends InetAddress, ? extends GeoLocation> loadAll(
+                final @NotNull Set<? extends InetAddress> keys
+        ) {
+            return delegate.lookupAll(keys);
+        }
     }
 }
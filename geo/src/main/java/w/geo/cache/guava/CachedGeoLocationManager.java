@@ -18,54 +18,145 @@ package w.geo.cache.guava;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
 import w.geo.GeoLocationManager;
+import w.geo.GeoLocationStats;
 import w.geo.model.GeoLocation;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
+ * Кэш на Guava.
+ * <p>
+ * Для каждой версии данных делегата создаётся свой кэш. Загрузки, начатые до смены
+ * базы, дописывают результаты в кэш прежней версии, который больше не читается.
+ *
  * @author whilein
  */
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public final class CachedGeoLocationManager implements GeoLocationManager {
 
-    LoadingCache<InetAddress, GeoLocation> cache;
+    GeoLocationManager delegate;
+
+    Supplier<LoadingCache<InetAddress, GeoLocation>> factory;
+
+    @NonFinal
+    volatile Generation generation;
+
+    /**
+     * Статистика кэшей прежних версий.
+     */
+    @NonFinal
+    volatile CacheStats retiredStats = new CacheStats(0, 0, 0, 0, 0, 0);
 
     public static @NotNull GeoLocationManager create(
             @NotNull GeoLocationManager delegate
     ) {
-        return new CachedGeoLocationManager(
-                CacheBuilder.newBuilder()
-                        .softValues()
-                        .expireAfterAccess(24, TimeUnit.HOURS)
-                        .build(new CacheLoaderImpl(delegate))
-        );
+        return create(delegate, builder -> builder
+                .softValues()
+                .expireAfterAccess(24, TimeUnit.HOURS));
     }
 
     public static @NotNull GeoLocationManager create(
             @NotNull GeoLocationManager delegate,
             @NotNull Consumer<@NotNull CacheBuilder<?, ?>> builderInitializer
     ) {
-        val builder = CacheBuilder.newBuilder();
+        val builder = CacheBuilder.newBuilder().recordStats();
         builderInitializer.accept(builder);
 
-        return new CachedGeoLocationManager(builder.build(new CacheLoaderImpl(delegate)));
+        val loader = new CacheLoaderImpl(delegate);
+        val manager = new CachedGeoLocationManager(delegate, () -> builder.build(loader));
+        manager.generation = new Generation(delegate.getVersion(), builder.build(loader));
+
+        return manager;
     }
 
     @Override
     @SneakyThrows
     public @NotNull GeoLocation lookup(final @NotNull InetAddress address) {
-        return cache.get(address);
+        return generation().cache.get(address);
+    }
+
+    @Override
+    @SneakyThrows
+    public @NotNull Map<@NotNull InetAddress, @NotNull GeoLocation> lookupAll(
+            final @NotNull Collection<? extends @NotNull InetAddress> addresses
+    ) {
+        return generation().cache.getAll(addresses);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull GeoLocation> lookupAsync(final @NotNull InetAddress address) {
+        val cache = generation().cache;
+        val cached = cache.getIfPresent(address);
+
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return delegate.lookupAsync(address).thenApply(result -> {
+            cache.put(address, result);
+            return result;
+        });
+    }
+
+    /**
+     * Получить статистику делегата с попаданиями и промахами кэша.
+     */
+    @Override
+    public @NotNull GeoLocationStats getStats() {
+        val cacheStats = retiredStats.plus(generation.cache.stats());
+
+        return delegate.getStats().withCache(cacheStats.hitCount(), cacheStats.missCount());
+    }
+
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    private Generation generation() {
+        val current = delegate.getVersion();
+        val generation = this.generation;
+
+        // поколение с версией не ниже прочитанной создано уже после перехода делегата
+        // на эту версию, поэтому загрузки через него не увидят старую базу
+        if (generation.version >= current) {
+            return generation;
+        }
+
+        return nextGeneration(current);
+    }
+
+    private synchronized Generation nextGeneration(final long version) {
+        val generation = this.generation;
+
+        if (generation.version >= version) {
+            return generation;
+        }
+
+        retiredStats = retiredStats.plus(generation.cache.stats());
+
+        return this.generation = new Generation(version, factory.get());
+    }
+
+    private record Generation(long version, LoadingCache<InetAddress, GeoLocation> cache) {
     }
 
     @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -77,5 +168,13 @@ public final class CachedGeoLocationManager implements GeoLocationManager {
         public @NotNull GeoLocation load(final @NotNull InetAddress key) {
             return delegate.lookup(key);
         }
+
+        @Override
+        public @NotNull Map<InetAddress, GeoLocation> loadAll(final @NotNull Iterable<? extends InetAddress> keys) {
+            val addresses = new ArrayList<InetAddress>();
+            keys.forEach(addresses::add);
+
+            return delegate.lookupAll(addresses);
+        }
     }
 }
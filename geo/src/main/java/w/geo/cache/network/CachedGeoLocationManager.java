@@ -0,0 +1,254 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.cache.network;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import w.geo.GeoLocationManager;
+import w.geo.GeoLocationStats;
+import w.geo.model.GeoLocation;
+import w.geo.model.GeoNetwork;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш, который хранит не адреса, а сети из {@link GeoLocationManager#lookupNetwork(InetAddress)}.
+ * Любой адрес из уже найденной сети (например, из той же /24 или /48) попадает в кэш,
+ * а записей столько, сколько различных сетей, а не адресов.
+ * <p>
+ * Сети хранятся отсортированными по первому адресу, отдельно для IPv4 и IPv6. Сети базы
+ * не пересекаются, поэтому адрес принадлежит ближайшей слева сети, если не выходит за её
+ * конец. При переполнении кэш очищается целиком.
+ * <p>
+ * Для каждой версии данных делегата создаются свои таблицы, поэтому сети, найденные
+ * по прежней базе, но записанные после её смены, в новые таблицы не попадают.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CachedGeoLocationManager implements GeoLocationManager {
+
+    private static final int DEFAULT_MAXIMUM_NETWORKS = 1_000_000;
+
+    private static final Executor DEFAULT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    GeoLocationManager delegate;
+
+    Executor executor;
+
+    int maximumNetworks;
+
+    LongAdder hits = new LongAdder();
+
+    LongAdder misses = new LongAdder();
+
+    @NonFinal
+    volatile Generation generation;
+
+    public static @NotNull GeoLocationManager create(@NotNull GeoLocationManager delegate) {
+        return create(delegate, DEFAULT_MAXIMUM_NETWORKS, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Создать кэш сетей.
+     *
+     * @param delegate        Менеджер, результаты которого кэшируются
+     * @param maximumNetworks Максимальное количество сетей каждого семейства адресов
+     * @param executor        Исполнитель промахов {@link #lookupAsync(InetAddress)}
+     * @return Новый менеджер
+     */
+    public static @NotNull GeoLocationManager create(
+            @NotNull GeoLocationManager delegate,
+            int maximumNetworks,
+            @NotNull Executor executor
+    ) {
+        if (maximumNetworks <= 0) {
+            throw new IllegalArgumentException("maximumNetworks must be positive");
+        }
+
+        val manager = new CachedGeoLocationManager(delegate, executor, maximumNetworks);
+        manager.generation = manager.newGeneration(delegate.getVersion());
+
+        return manager;
+    }
+
+    @Override
+    public @NotNull GeoLocation lookup(final @NotNull InetAddress address) {
+        val bytes = address.getAddress();
+        val table = generation().table(bytes);
+
+        val cached = table.find(bytes);
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+
+        val network = delegate.lookupNetwork(address);
+        table.put(network);
+
+        return network.location();
+    }
+
+    @Override
+    public @NotNull GeoNetwork lookupNetwork(final @NotNull InetAddress address) {
+        // границы сети в кэше не хранятся, за ними идём в делегат
+        val table = generation().table(address.getAddress());
+        misses.increment();
+
+        val network = delegate.lookupNetwork(address);
+        table.put(network);
+
+        return network;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull GeoLocation> lookupAsync(final @NotNull InetAddress address) {
+        val bytes = address.getAddress();
+        val cached = generation().table(bytes).find(bytes);
+
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // попадание или промах запишет lookup
+        return CompletableFuture.supplyAsync(() -> lookup(address), executor);
+    }
+
+    /**
+     * Получить статистику делегата с попаданиями и промахами кэша.
+     */
+    @Override
+    public @NotNull GeoLocationStats getStats() {
+        return delegate.getStats().withCache(hits.sum(), misses.sum());
+    }
+
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    private Generation generation() {
+        val current = delegate.getVersion();
+        val generation = this.generation;
+
+        // поколение с версией не ниже прочитанной создано уже после перехода делегата
+        // на эту версию, поэтому промахи через него не увидят старую базу
+        if (generation.version >= current) {
+            return generation;
+        }
+
+        return nextGeneration(current);
+    }
+
+    private synchronized Generation nextGeneration(final long version) {
+        val generation = this.generation;
+
+        if (generation.version >= version) {
+            return generation;
+        }
+
+        return this.generation = newGeneration(version);
+    }
+
+    private Generation newGeneration(final long version) {
+        return new Generation(version, new NetworkTable(maximumNetworks), new NetworkTable(maximumNetworks));
+    }
+
+    private record Generation(long version, NetworkTable ipv4, NetworkTable ipv6) {
+
+        NetworkTable table(final byte[] address) {
+            return address.length == 4 ? ipv4 : ipv6;
+        }
+
+    }
+
+    private record Range(byte[] last, GeoLocation location) {
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class NetworkTable {
+
+        int maximumSize;
+
+        // карта и её счётчик меняются вместе, поэтому счётчик не расходится с картой,
+        // когда другие потоки пишут во время очистки
+        AtomicReference<Networks> networks = new AtomicReference<>(new Networks());
+
+        GeoLocation find(final byte[] address) {
+            val entry = networks.get().ranges.floorEntry(address);
+
+            if (entry == null) {
+                return null;
+            }
+
+            val range = entry.getValue();
+
+            return Arrays.compareUnsigned(address, range.last) <= 0
+                    ? range.location
+                    : null;
+        }
+
+        void put(final GeoNetwork network) {
+            val first = network.address().getAddress();
+            val last = first.clone();
+
+            // все биты после префикса у первого адреса нулевые, у последнего единичные
+            for (int bit = Math.max(network.prefixLength(), 0); bit < last.length * 8; bit++) {
+                first[bit >>> 3] &= (byte) ~(0x80 >>> (bit & 7));
+                last[bit >>> 3] |= (byte) (0x80 >>> (bit & 7));
+            }
+
+            val networks = this.networks.get();
+
+            if (networks.ranges.put(first, new Range(last, network.location())) == null
+                && networks.size.incrementAndGet() > maximumSize) {
+                // запись в заменённую карту, начатая до замены, просто теряется
+                this.networks.compareAndSet(networks, new Networks());
+            }
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Networks {
+
+        ConcurrentSkipListMap<byte[], Range> ranges = new ConcurrentSkipListMap<>(Arrays::compareUnsigned);
+
+        // ConcurrentSkipListMap#size() обходит всю карту
+        AtomicInteger size = new AtomicInteger();
+
+    }
+
+}
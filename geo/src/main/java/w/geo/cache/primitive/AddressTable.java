@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.cache.primitive;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import w.geo.model.GeoLocation;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Общая часть таблиц {@link CachedGeoLocationManager}: значения, биты обращений CLOCK,
+ * стрелки корзин и полосы блокировок. Ключи хранят наследники.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+abstract class AddressTable {
+
+    /**
+     * Количество ячеек в корзине.
+     */
+    static final int WAYS = 8;
+
+    private static final int STRIPES = 64;
+
+    GeoLocation[] values;
+
+    boolean[] referenced;
+
+    byte[] hands;
+
+    int bucketMask;
+
+    StampedLock[] locks;
+
+    AddressTable(final int capacity) {
+        val buckets = Math.max(1, Integer.highestOneBit(Math.max(capacity / WAYS, 1) * 2 - 1));
+
+        values = new GeoLocation[buckets * WAYS];
+        referenced = new boolean[values.length];
+        hands = new byte[buckets];
+        bucketMask = buckets - 1;
+
+        locks = new StampedLock[Math.min(STRIPES, buckets)];
+
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * Получить первую ячейку корзины для хэша.
+     */
+    final int bucket(final int hash) {
+        return (hash & bucketMask) * WAYS;
+    }
+
+    final StampedLock lock(final int base) {
+        return locks[(base / WAYS) & (locks.length - 1)];
+    }
+
+    /**
+     * Выбрать ячейку для новой записи в корзине: свободную или первую по стрелке,
+     * к которой не обращались с прошлого прохода. Вызывается под блокировкой записи.
+     */
+    final int victim(final int base) {
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (values[slot] == null) {
+                referenced[slot] = false;
+                return slot;
+            }
+        }
+
+        val bucket = base / WAYS;
+        int hand = hands[bucket];
+
+        while (referenced[base + hand]) {
+            referenced[base + hand] = false;
+            hand = (hand + 1) & (WAYS - 1);
+        }
+
+        hands[bucket] = (byte) ((hand + 1) & (WAYS - 1));
+
+        return base + hand;
+    }
+
+}
@@ -0,0 +1,426 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.cache.primitive;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import w.geo.GeoLocationLookupException;
+import w.geo.GeoLocationManager;
+import w.geo.GeoLocationStats;
+import w.geo.model.GeoLocation;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш, ключами которого являются сами адреса: {@code int} для IPv4 и пара {@code long}
+ * для IPv6. Адреса можно передавать байтами или числом, не создавая {@link InetAddress}
+ * и не хэшируя объекты; {@link InetAddress} создаётся только для промахов, и то если
+ * делегат не умеет искать по байтам.
+ * <p>
+ * Таблицы устроены как наборно-ассоциативный кэш с открытой адресацией: адрес попадает
+ * в корзину из {@value AddressTable#WAYS} ячеек, а при её заполнении вытесняется запись по
+ * алгоритму CLOCK (второй шанс для записей, к которым обращались). Чтение корзины
+ * не берёт блокировку, запись блокирует одну из полос таблицы.
+ * <p>
+ * Для каждой версии данных делегата создаются свои таблицы, поэтому результаты поисков,
+ * начатых по прежней базе, в новые таблицы не попадают.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CachedGeoLocationManager implements GeoLocationManager {
+
+    private static final int DEFAULT_CAPACITY = 1 << 18;
+
+    GeoLocationManager delegate;
+
+    int capacity;
+
+    LongAdder hits = new LongAdder();
+
+    LongAdder misses = new LongAdder();
+
+    @NonFinal
+    volatile Generation generation;
+
+    public static @NotNull CachedGeoLocationManager create(@NotNull GeoLocationManager delegate) {
+        return create(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создать кэш.
+     *
+     * @param delegate Менеджер, результаты которого кэшируются
+     * @param capacity Количество адресов каждого семейства, округляется вверх до степени двойки
+     * @return Новый менеджер
+     */
+    public static @NotNull CachedGeoLocationManager create(@NotNull GeoLocationManager delegate, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        val manager = new CachedGeoLocationManager(delegate, capacity);
+        manager.generation = manager.newGeneration(delegate.getVersion());
+
+        return manager;
+    }
+
+    @Override
+    public @NotNull GeoLocation lookup(final @NotNull InetAddress address) {
+        return lookup(address.getAddress());
+    }
+
+    @Override
+    public @NotNull GeoLocation lookup(final byte @NotNull [] address) {
+        if (address.length == 4) {
+            return lookupIpv4(toInt(address, 0));
+        } else if (address.length == 16) {
+            return lookupIpv6(toLong(address, 0), toLong(address, 8));
+        }
+
+        throw new IllegalArgumentException("Invalid address length: " + address.length);
+    }
+
+    /**
+     * Найти местоположение IPv4-адреса.
+     *
+     * @param address Адрес, старший байт является первым октетом
+     * @return Местоположение
+     * @throws GeoLocationLookupException Не удалось найти местоположение
+     */
+    public @NotNull GeoLocation lookupIpv4(int address) throws GeoLocationLookupException {
+        val ipv4 = generation().ipv4;
+        val cached = ipv4.find(address);
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+
+        val location = delegate.lookup(ipv4Bytes(address));
+        ipv4.put(address, location);
+
+        return location;
+    }
+
+    /**
+     * Найти местоположение IPv6-адреса.
+     *
+     * @param high Старшие 64 бита адреса
+     * @param low  Младшие 64 бита адреса
+     * @return Местоположение
+     * @throws GeoLocationLookupException Не удалось найти местоположение
+     */
+    public @NotNull GeoLocation lookupIpv6(long high, long low) throws GeoLocationLookupException {
+        val ipv6 = generation().ipv6;
+        val cached = ipv6.find(high, low);
+
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+
+        val location = delegate.lookup(ipv6Bytes(high, low));
+        ipv6.put(high, low, location);
+
+        return location;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull GeoLocation> lookupAsync(final @NotNull InetAddress address) {
+        val generation = generation();
+        val bytes = address.getAddress();
+
+        if (bytes.length == 4) {
+            val ipv4 = generation.ipv4;
+            val key = toInt(bytes, 0);
+            val cached = ipv4.find(key);
+
+            if (cached != null) {
+                hits.increment();
+                return CompletableFuture.completedFuture(cached);
+            }
+
+            misses.increment();
+
+            return delegate.lookupAsync(address).thenApply(location -> {
+                ipv4.put(key, location);
+                return location;
+            });
+        }
+
+        val ipv6 = generation.ipv6;
+        val high = toLong(bytes, 0);
+        val low = toLong(bytes, 8);
+        val cached = ipv6.find(high, low);
+
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        misses.increment();
+
+        return delegate.lookupAsync(address).thenApply(location -> {
+            ipv6.put(high, low, location);
+            return location;
+        });
+    }
+
+    /**
+     * Получить статистику делегата с попаданиями и промахами кэша.
+     */
+    @Override
+    public @NotNull GeoLocationStats getStats() {
+        return delegate.getStats().withCache(hits.sum(), misses.sum());
+    }
+
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    private Generation generation() {
+        val current = delegate.getVersion();
+        val generation = this.generation;
+
+        // поколение с версией не ниже прочитанной создано уже после перехода делегата
+        // на эту версию, поэтому промахи через него не увидят старую базу
+        if (generation.version >= current) {
+            return generation;
+        }
+
+        return nextGeneration(current);
+    }
+
+    private synchronized Generation nextGeneration(final long version) {
+        val generation = this.generation;
+
+        if (generation.version >= version) {
+            return generation;
+        }
+
+        return this.generation = newGeneration(version);
+    }
+
+    private Generation newGeneration(final long version) {
+        return new Generation(version, new Ipv4Table(capacity), new Ipv6Table(capacity));
+    }
+
+    private record Generation(long version, Ipv4Table ipv4, Ipv6Table ipv6) {
+    }
+
+    private static int toInt(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xFF) << 24
+               | (bytes[offset + 1] & 0xFF) << 16
+               | (bytes[offset + 2] & 0xFF) << 8
+               | bytes[offset + 3] & 0xFF;
+    }
+
+    private static long toLong(final byte[] bytes, final int offset) {
+        return (long) toInt(bytes, offset) << 32 | toInt(bytes, offset + 4) & 0xFFFFFFFFL;
+    }
+
+    private static byte[] ipv4Bytes(final int address) {
+        return new byte[]{(byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address};
+    }
+
+    private static byte[] ipv6Bytes(final long high, final long low) {
+        val bytes = new byte[16];
+
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - i * 8));
+            bytes[i + 8] = (byte) (low >>> (56 - i * 8));
+        }
+
+        return bytes;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Ipv4Table extends AddressTable {
+
+        int[] keys;
+
+        private Ipv4Table(final int capacity) {
+            super(capacity);
+
+            keys = new int[values.length];
+        }
+
+        GeoLocation find(final int key) {
+            val base = bucket(mix(key));
+
+            val lock = lock(base);
+            long stamp = lock.tryOptimisticRead();
+
+            GeoLocation result = scan(base, key);
+
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+
+                try {
+                    result = scan(base, key);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            return result;
+        }
+
+        private GeoLocation scan(final int base, final int key) {
+            for (int slot = base; slot < base + WAYS; slot++) {
+                val value = values[slot];
+
+                if (value != null && keys[slot] == key) {
+                    referenced[slot] = true;
+                    return value;
+                }
+            }
+
+            return null;
+        }
+
+        void put(final int key, final GeoLocation value) {
+            val base = bucket(mix(key));
+
+            val lock = lock(base);
+            val stamp = lock.writeLock();
+
+            try {
+                int slot = -1;
+
+                for (int i = base; i < base + WAYS; i++) {
+                    if (values[i] != null && keys[i] == key) {
+                        slot = i;
+                        break;
+                    }
+                }
+
+                if (slot == -1) {
+                    slot = victim(base);
+                }
+
+                keys[slot] = key;
+                values[slot] = value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private static int mix(final int key) {
+            val hash = key * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Ipv6Table extends AddressTable {
+
+        long[] highKeys;
+
+        long[] lowKeys;
+
+        private Ipv6Table(final int capacity) {
+            super(capacity);
+
+            highKeys = new long[values.length];
+            lowKeys = new long[values.length];
+        }
+
+        GeoLocation find(final long high, final long low) {
+            val base = bucket(mix(high, low));
+
+            val lock = lock(base);
+            long stamp = lock.tryOptimisticRead();
+
+            GeoLocation result = scan(base, high, low);
+
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+
+                try {
+                    result = scan(base, high, low);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            return result;
+        }
+
+        private GeoLocation scan(final int base, final long high, final long low) {
+            for (int slot = base; slot < base + WAYS; slot++) {
+                val value = values[slot];
+
+                if (value != null && highKeys[slot] == high && lowKeys[slot] == low) {
+                    referenced[slot] = true;
+                    return value;
+                }
+            }
+
+            return null;
+        }
+
+        void put(final long high, final long low, final GeoLocation value) {
+            val base = bucket(mix(high, low));
+
+            val lock = lock(base);
+            val stamp = lock.writeLock();
+
+            try {
+                int slot = -1;
+
+                for (int i = base; i < base + WAYS; i++) {
+                    if (values[i] != null && highKeys[i] == high && lowKeys[i] == low) {
+                        slot = i;
+                        break;
+                    }
+                }
+
+                if (slot == -1) {
+                    slot = victim(base);
+                }
+
+                highKeys[slot] = high;
+                lowKeys[slot] = low;
+                values[slot] = value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private static int mix(final long high, final long low) {
+            val hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+    }
+
+}
@@ -0,0 +1,453 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import com.maxmind.db.Reader;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import w.geo.GeoLocationManager;
+import w.geo.GeoLocationStats;
+import w.geo.GeoLocationStatsRecorder;
+import w.geo.maxmind.MaxmindRecords.LocationIds;
+import w.geo.maxmind.MaxmindRecords.LocationNames;
+import w.geo.model.Country;
+import w.geo.model.GeoLocation;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Менеджер, который при загрузке разворачивает базу MaxMind в плоскую таблицу
+ * и больше к базе не обращается.
+ * <p>
+ * Для каждого семейства адресов хранится отсортированный массив начал диапазонов
+ * ({@code int} для IPv4, пара {@code long} для IPv6) и параллельный массив индексов
+ * местоположений. Одинаковые местоположения хранятся один раз, соседние диапазоны
+ * с одним местоположением склеиваются. Поиск является двоичным поиском без ветвлений
+ * в теле цикла: стоимость постоянна и не зависит от данных, и ничего не выделяется.
+ * <p>
+ * Массивы диапазонов могут храниться вне кучи. Таблица занимает больше памяти, чем
+ * отображённая база, зато не зависит от подгрузки её страниц.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CompactGeoLocationManager implements GeoLocationManager {
+
+    private static final String DEFAULT_LOCALE = "en";
+
+    GeoLocation[] locations;
+
+    IntBuffer ipv4Starts;
+
+    IntBuffer ipv4Locations;
+
+    int ipv4Size;
+
+    LongBuffer ipv6High;
+
+    LongBuffer ipv6Low;
+
+    IntBuffer ipv6Locations;
+
+    int ipv6Size;
+
+    Instant buildTime;
+
+    GeoLocationStatsRecorder stats;
+
+    public static @NotNull GeoLocationManager create(@NotNull DatabaseProvider provider) throws IOException {
+        return create(DEFAULT_LOCALE, provider, false);
+    }
+
+    /**
+     * Развернуть базу из провайдера в таблицу.
+     *
+     * @param locale   Язык названий
+     * @param provider Провайдер базы
+     * @param offHeap  Хранить массивы диапазонов вне кучи
+     * @return Новый менеджер
+     * @throws IOException Не удалось прочитать базу
+     */
+    public static @NotNull GeoLocationManager create(
+            @NotNull String locale,
+            @NotNull DatabaseProvider provider,
+            boolean offHeap
+    ) throws IOException {
+        try (val reader = MaxmindGeoLocationManager.openReader(provider)) {
+            return build(reader, locale, offHeap);
+        }
+    }
+
+    private static CompactGeoLocationManager build(
+            final Reader reader,
+            final String locale,
+            final boolean offHeap
+    ) throws IOException {
+        val locations = new ArrayList<GeoLocation>();
+        val locationIndices = new HashMap<GeoLocation, Integer>();
+
+        locations.add(GeoLocation.unknown());
+        locationIndices.put(GeoLocation.unknown(), 0);
+
+        // у многих сетей одни и те же город и страна: по сети декодируются только
+        // идентификаторы, а названия один раз на пару идентификаторов
+        val indicesByIds = new HashMap<Long, Integer>();
+
+        val ipv4 = new RangeBuilder(true);
+        val ipv6 = new RangeBuilder(false);
+
+        try {
+            val networks = reader.networks(LocationIds.class);
+
+            while (networks.hasNext()) {
+                val record = networks.next();
+                val network = record.network();
+                val ids = record.data();
+
+                int index = 0;
+
+                if (ids != null) {
+                    val key = MaxmindGeoLocationManager.locationKey(ids);
+                    val cached = indicesByIds.get(key);
+
+                    if (cached != null) {
+                        index = cached;
+                    } else {
+                        val names = reader.get(network.networkAddress(), LocationNames.class);
+                        val location = names != null ? mapNames(names, locale) : GeoLocation.unknown();
+
+                        index = locationIndices.computeIfAbsent(location, __ -> {
+                            locations.add(location);
+                            return locations.size() - 1;
+                        });
+
+                        indicesByIds.put(key, index);
+                    }
+                }
+
+                byte[] address = network.networkAddress().getAddress();
+                int prefixLength = network.prefixLength();
+
+                if (address.length == 16 && isIpv4Compatible(address)) {
+                    if (prefixLength >= 96) {
+                        // IPv4-поддерево IPv6-базы
+                        address = new byte[]{address[12], address[13], address[14], address[15]};
+                        prefixLength -= 96;
+                    } else {
+                        // сеть целиком накрывает IPv4-поддерево, например ::/0
+                        ipv4.add(new byte[4], 0, index);
+                    }
+                }
+
+                (address.length == 4 ? ipv4 : ipv6).add(address, prefixLength, index);
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to read networks", e);
+        }
+
+        val ipv4Table = ipv4.build(offHeap);
+        val ipv6Table = ipv6.build(offHeap);
+
+        return new CompactGeoLocationManager(
+                locations.toArray(new GeoLocation[0]),
+                ipv4Table.ipv4Starts(), ipv4Table.locations(), ipv4Table.size(),
+                ipv6Table.high(), ipv6Table.low(), ipv6Table.locations(), ipv6Table.size(),
+                MaxmindGeoLocationManager.buildTime(reader), GeoLocationStatsRecorder.create()
+        );
+    }
+
+    /**
+     * Найти IPv4-адрес, вложенный в IPv6-адрес так же, как это делают псевдонимы
+     * IPv4-поддерева в базах MaxMind.
+     *
+     * @param address IPv6-адрес
+     * @return Смещение IPv4-адреса в массиве или {@code -1}, если адрес не вложенный
+     */
+    private static int embeddedIpv4Offset(final byte[] address) {
+        if (address[0] == 0x20 && address[1] == 0x02) {
+            // 6to4, 2002::/16
+            return 2;
+        }
+
+        if (address[0] == 0x20 && address[1] == 0x01 && address[2] == 0 && address[3] == 0) {
+            // Teredo, 2001::/32
+            return 4;
+        }
+
+        return isIpv4Mapped(address) || isIpv4Compatible(address) ? 12 : -1;
+    }
+
+    private static boolean isIpv4Mapped(final byte[] address) {
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+
+        return address[10] == (byte) 0xFF && address[11] == (byte) 0xFF;
+    }
+
+    private static boolean isIpv4Compatible(final byte[] address) {
+        for (int i = 0; i < 12; i++) {
+            if (address[i] != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static GeoLocation mapNames(final LocationNames names, final String locale) {
+        val city = MaxmindGeoLocationManager.resolveNamed(names.city(), locale);
+
+        val mmCountry = names.country();
+        val countryName = MaxmindGeoLocationManager.resolveNamed(mmCountry, locale);
+        val country = countryName == null ? null : new Country(countryName, mmCountry.isoCode());
+
+        return city == null && country == null
+                ? GeoLocation.unknown()
+                : new GeoLocation(city, country);
+    }
+
+    @Override
+    public @NotNull GeoLocation lookup(final @NotNull InetAddress address) {
+        return lookup(address.getAddress());
+    }
+
+    @Override
+    public @NotNull GeoLocation lookup(final byte @NotNull [] address) {
+        if (!stats.shouldTime()) {
+            val location = find(address);
+            stats.record(location);
+
+            return location;
+        }
+
+        val start = System.nanoTime();
+        val location = find(address);
+
+        stats.record(location, System.nanoTime() - start);
+
+        return location;
+    }
+
+    @Override
+    public @NotNull GeoLocationStats getStats() {
+        return stats.snapshot(buildTime, null);
+    }
+
+    private GeoLocation find(final byte[] address) {
+        if (address.length == 4) {
+            return locations[ipv4Locations.get(findIpv4(toInt(address, 0) ^ Integer.MIN_VALUE))];
+        } else if (address.length == 16) {
+            // псевдонимы IPv4-поддерева не входят в обход сетей при сборке, поэтому
+            // вложенные IPv4-адреса ищутся в таблице IPv4
+            val ipv4Offset = embeddedIpv4Offset(address);
+
+            if (ipv4Offset != -1) {
+                return locations[ipv4Locations.get(findIpv4(toInt(address, ipv4Offset) ^ Integer.MIN_VALUE))];
+            }
+
+            return locations[ipv6Locations.get(findIpv6(
+                    toLong(address, 0) ^ Long.MIN_VALUE,
+                    toLong(address, 8) ^ Long.MIN_VALUE
+            ))];
+        }
+
+        throw new IllegalArgumentException("Invalid address length: " + address.length);
+    }
+
+    private int findIpv4(final int key) {
+        val starts = ipv4Starts;
+
+        int base = 0, size = ipv4Size;
+
+        while (size > 1) {
+            val half = size >>> 1;
+            base = starts.get(base + half) <= key ? base + half : base;
+            size -= half;
+        }
+
+        return base;
+    }
+
+    private int findIpv6(final long keyHigh, final long keyLow) {
+        val high = ipv6High;
+        val low = ipv6Low;
+
+        int base = 0, size = ipv6Size;
+
+        while (size > 1) {
+            val half = size >>> 1;
+            val middle = base + half;
+
+            val startHigh = high.get(middle);
+            val lessOrEqual = startHigh < keyHigh | startHigh == keyHigh & low.get(middle) <= keyLow;
+
+            base = lessOrEqual ? middle : base;
+            size -= half;
+        }
+
+        return base;
+    }
+
+    private static int toInt(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xFF) << 24
+               | (bytes[offset + 1] & 0xFF) << 16
+               | (bytes[offset + 2] & 0xFF) << 8
+               | bytes[offset + 3] & 0xFF;
+    }
+
+    private static long toLong(final byte[] bytes, final int offset) {
+        return (long) toInt(bytes, offset) << 32 | toInt(bytes, offset + 4) & 0xFFFFFFFFL;
+    }
+
+    private record Table(IntBuffer ipv4Starts, LongBuffer high, LongBuffer low, IntBuffer locations, int size) {
+    }
+
+    /**
+     * Собирает непересекающиеся сети в диапазоны по возрастанию, заполняя дыры между
+     * ними неизвестным местоположением. IPv4-адрес хранится в старшем {@code long}.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class RangeBuilder {
+
+        // {начало (старшие и младшие биты), следующий за концом адрес, местоположение, конец пространства}
+        List<long[]> ranges = new ArrayList<>();
+
+        boolean ipv4;
+
+        void add(final byte[] address, final int prefixLength, final int location) {
+            final long high, low, nextHigh, nextLow;
+            final boolean last;
+
+            if (ipv4) {
+                high = toInt(address, 0) & 0xFFFFFFFFL;
+                low = 0;
+
+                nextHigh = high + (1L << (32 - prefixLength));
+                nextLow = 0;
+                last = nextHigh == 1L << 32;
+            } else {
+                high = toLong(address, 0);
+                low = toLong(address, 8);
+
+                val hostBits = 128 - prefixLength;
+
+                if (hostBits >= 64) {
+                    nextHigh = high + (hostBits == 128 ? 0 : 1L << (hostBits - 64));
+                    nextLow = 0;
+                    last = hostBits == 128 || nextHigh == 0;
+                } else {
+                    nextLow = low + (1L << hostBits);
+                    nextHigh = nextLow == 0 ? high + 1 : high;
+                    last = nextLow == 0 && nextHigh == 0;
+                }
+            }
+
+            ranges.add(new long[]{high, low, nextHigh, nextLow, location, last ? 1 : 0});
+        }
+
+        Table build(final boolean offHeap) {
+            ranges.sort((a, b) -> {
+                val high = Long.compareUnsigned(a[0], b[0]);
+                return high != 0 ? high : Long.compareUnsigned(a[1], b[1]);
+            });
+
+            val starts = new ArrayList<long[]>(ranges.size() * 2 + 1);
+
+            long nextHigh = 0, nextLow = 0;
+            boolean last = false;
+
+            for (val range : ranges) {
+                if (range[0] != nextHigh || range[1] != nextLow) {
+                    // дыра перед диапазоном
+                    append(starts, nextHigh, nextLow, 0);
+                }
+
+                append(starts, range[0], range[1], (int) range[4]);
+
+                nextHigh = range[2];
+                nextLow = range[3];
+                last = range[5] != 0;
+            }
+
+            if (!last) {
+                append(starts, nextHigh, nextLow, 0);
+            }
+
+            val size = starts.size();
+
+            val locations = allocateInts(size, offHeap);
+            val ipv4Starts = ipv4 ? allocateInts(size, offHeap) : null;
+            val high = ipv4 ? null : allocateLongs(size, offHeap);
+            val low = ipv4 ? null : allocateLongs(size, offHeap);
+
+            for (int i = 0; i < size; i++) {
+                val start = starts.get(i);
+
+                if (ipv4) {
+                    ipv4Starts.put(i, (int) start[0] ^ Integer.MIN_VALUE);
+                } else {
+                    high.put(i, start[0] ^ Long.MIN_VALUE);
+                    low.put(i, start[1] ^ Long.MIN_VALUE);
+                }
+
+                locations.put(i, (int) start[2]);
+            }
+
+            return new Table(ipv4Starts, high, low, locations, size);
+        }
+
+        private static void append(final List<long[]> starts, final long high, final long low, final int location) {
+            // соседние диапазоны с одним местоположением склеиваем
+            if (starts.isEmpty() || starts.get(starts.size() - 1)[2] != location) {
+                starts.add(new long[]{high, low, location});
+            }
+        }
+
+        private static IntBuffer allocateInts(final int size, final boolean offHeap) {
+            return offHeap
+                    ? ByteBuffer.allocateDirect(size * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer()
+                    : IntBuffer.allocate(size);
+        }
+
+        private static LongBuffer allocateLongs(final int size, final boolean offHeap) {
+            return offHeap
+                    ? ByteBuffer.allocateDirect(size * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer()
+                    : LongBuffer.allocate(size);
+        }
+
+    }
+
+}
@@ -17,9 +17,11 @@
 package w.geo.maxmind;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 /**
  * @author whilein
@@ -28,4 +30,18 @@ public interface DatabaseProvider {
 
     @NotNull InputStream openStream() throws IOException;
 
+    /**
+     * Получить файл базы, если она лежит на диске целиком. Такой файл
+     * {@link MaxmindGeoLocationManager} отображает в память вместо чтения в кучу.
+     * <p>
+     * Файл не должен изменяться на месте, пока база используется: новая версия
+     * должна заменять его атомарно.
+     *
+     * @return Путь к файлу базы или {@code null}, если база доступна только потоком
+     * @throws IOException Не удалось подготовить файл
+     */
+    default @Nullable Path getPath() throws IOException {
+        return null;
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package w.geo.maxmind;
 
+import com.maxmind.db.Reader;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.UtilityClass;
@@ -27,16 +28,28 @@ import org.kamranzafar.jtar.TarInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -48,17 +61,41 @@ import java.util.zip.ZipInputStream;
 public class DatabaseProviders {
 
     private static final String DEFAULT_MAXMIND_DATABASE_URL
-            = "https://download.maxmind.com/app/geoip_download?edition_id=GeoLite2-City&license_key=%s&suffix=tar.gz";
-
+            = "https://download.maxmind.com/app/geoip_download?edition_id=GeoLite2-City&license_key=%s&suffix=%s";
+
+    /**
+     * Скачать базу GeoLite2-City. Архив проверяется по SHA-256, который MaxMind
+     * публикует рядом с ним.
+     *
+     * @param licenseKey Лицензионный ключ MaxMind
+     * @return Провайдер базы
+     */
     public static @NotNull DatabaseProvider download(@NotNull String licenseKey) {
+        val encodedKey = URLEncoder.encode(licenseKey, StandardCharsets.UTF_8);
+
         try {
-            return unpackTarGz(fromURL(String.format(DEFAULT_MAXMIND_DATABASE_URL,
-                    URLEncoder.encode(licenseKey, StandardCharsets.UTF_8))));
+            val archive = fromURL(String.format(DEFAULT_MAXMIND_DATABASE_URL, encodedKey, "tar.gz"));
+            val checksum = fromURL(String.format(DEFAULT_MAXMIND_DATABASE_URL, encodedKey, "tar.gz.sha256"));
+
+            return unpackTarGz(verifySha256(archive, checksum));
         } catch (MalformedURLException e) { // unreachable
             throw new IllegalStateException("Default download URL is malformed", e);
         }
     }
 
+    /**
+     * Проверять поток по SHA-256. Поток дочитывается и сверяется при закрытии,
+     * при несовпадении {@link InputStream#close()} бросает {@link IOException}.
+     *
+     * @param delegate Проверяемый провайдер
+     * @param checksum Провайдер контрольной суммы: шестнадцатеричный SHA-256 в начале
+     *                 текста, как в выводе {@code sha256sum}
+     * @return Новый провайдер
+     */
+    public @NotNull DatabaseProvider verifySha256(@NotNull DatabaseProvider delegate, @NotNull DatabaseProvider checksum) {
+        return new Sha256(delegate, checksum);
+    }
+
     public @NotNull DatabaseProvider unpackZip(@NotNull DatabaseProvider delegate) {
         return new Zip(delegate);
     }
@@ -103,35 +140,119 @@ public class DatabaseProviders {
     @RequiredArgsConstructor
     private static final class Cache implements DatabaseProvider {
 
+        private static final Set<PosixFilePermission> DEFAULT_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+
         DatabaseProvider delegate;
 
         Path destination;
         Duration ttl;
 
-        Lock lock = new ReentrantLock();
+        AtomicReference<CompletableFuture<Void>> update = new AtomicReference<>();
 
-        private InputStream openStream0() throws IOException {
-            if (!Files.exists(destination) || !checkTTL()) {
+        private void update() throws IOException {
+            // старый файл может быть отображён в память, поэтому не перезаписываем его,
+            // а скачиваем рядом и заменяем целиком
+            val directory = destination.toAbsolutePath().getParent();
+            val temp = Files.createTempFile(directory, destination.getFileName().toString(), ".tmp");
+
+            try {
+                // проверка контрольной суммы происходит при закрытии потока,
+                // поэтому до переименования файла
                 try (val is = delegate.openStream();
-                     val os = Files.newOutputStream(destination)) {
+                     val os = Files.newOutputStream(temp)) {
                     is.transferTo(os);
                 }
+
+                verify(temp);
+                setPermissions(temp);
+
+                Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        /**
+         * Временный файл создаётся с правами {@code rw-------}, поэтому после замены база
+         * стала бы недоступна другим пользователям. Берём права старого файла, а если
+         * его нет - обычные {@code rw-r--r--}.
+         */
+        private void setPermissions(Path temp) throws IOException {
+            val view = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+
+            if (view == null) {
+                return;
             }
 
-            return Files.newInputStream(destination);
+            val previous = Files.getFileAttributeView(destination, PosixFileAttributeView.class);
+
+            view.setPermissions(previous != null && Files.exists(destination)
+                    ? previous.readAttributes().permissions()
+                    : DEFAULT_PERMISSIONS);
+        }
+
+        private static void verify(Path path) throws IOException {
+            // битый файл не откроется: Reader сразу читает метаданные
+            try (val ignored = new Reader(path.toFile(), Reader.FileMode.MEMORY_MAPPED)) {
+                // файл читается
+            } catch (RuntimeException e) {
+                throw new IOException("Downloaded database " + path + " is corrupted", e);
+            }
         }
 
         @Override
         public @NotNull InputStream openStream() throws IOException {
-            lock.lock();
+            return Files.newInputStream(getPath());
+        }
+
+        @Override
+        public @NotNull Path getPath() throws IOException {
+            if (isFresh()) {
+                return destination;
+            }
+
+            val own = new CompletableFuture<Void>();
+            val current = update.compareAndExchange(null, own);
+
+            if (current != null) {
+                // базу уже скачивает другой поток, ждём его результата
+                await(current);
+                return destination;
+            }
 
             try {
-                return openStream0();
+                // пока мы занимали место, предыдущее обновление могло успеть завершиться
+                if (!isFresh()) {
+                    update();
+                }
+
+                own.complete(null);
+            } catch (IOException | RuntimeException e) {
+                own.completeExceptionally(e);
+                throw e;
             } finally {
-                lock.unlock();
+                update.set(null);
+            }
+
+            return destination;
+        }
+
+        private void await(CompletableFuture<Void> future) throws IOException {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException cause) {
+                    throw new IOException("Unable to update " + destination, cause);
+                }
+
+                throw e;
             }
         }
 
+        private boolean isFresh() throws IOException {
+            return Files.exists(destination) && checkTTL();
+        }
+
         private boolean checkTTL() throws IOException {
             if (ttl == null) return true;
 
@@ -143,6 +264,78 @@ public class DatabaseProviders {
 
     }
 
+    @FieldDefaults(makeFinal = true)
+    @RequiredArgsConstructor
+    private static final class Sha256 implements DatabaseProvider {
+
+        DatabaseProvider delegate;
+        DatabaseProvider checksum;
+
+        @Override
+        public @NotNull InputStream openStream() throws IOException {
+            val expected = readChecksum();
+
+            MessageDigest digest;
+
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) { // unreachable
+                throw new IllegalStateException("SHA-256 is not supported", e);
+            }
+
+            return new VerifyingInputStream(delegate.openStream(), digest, expected);
+        }
+
+        private byte[] readChecksum() throws IOException {
+            String text;
+
+            try (val is = checksum.openStream()) {
+                text = new String(is.readAllBytes(), StandardCharsets.US_ASCII).strip();
+            }
+
+            val end = text.indexOf(' ');
+            val hex = end == -1 ? text : text.substring(0, end);
+
+            try {
+                return HexFormat.of().parseHex(hex);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed SHA-256 checksum from " + checksum, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+
+    }
+
+    private static final class VerifyingInputStream extends DigestInputStream {
+
+        private final byte[] expected;
+
+        private VerifyingInputStream(InputStream stream, MessageDigest digest, byte[] expected) {
+            super(stream, digest);
+
+            this.expected = expected;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                // распаковщики останавливаются на нужном файле, а сумма считается по всему архиву
+                transferTo(OutputStream.nullOutputStream());
+            } finally {
+                super.close();
+            }
+
+            if (!MessageDigest.isEqual(expected, getMessageDigest().digest())) {
+                throw new IOException("SHA-256 checksum mismatch");
+            }
+        }
+
+    }
+
     @FieldDefaults(makeFinal = true)
     @RequiredArgsConstructor
     private static final class Zip implements DatabaseProvider {
@@ -214,6 +407,11 @@ public class DatabaseProviders {
             return Files.newInputStream(source);
         }
 
+        @Override
+        public @NotNull Path getPath() {
+            return source;
+        }
+
         @Override
         public String toString() {
             return source.toString();
@@ -229,13 +427,118 @@ public class DatabaseProviders {
 
         @Override
         public @NotNull InputStream openStream() throws IOException {
-            return source.openStream();
+            return new ResumableInputStream(source);
+        }
+
+        @Override
+        public String toString() {
+            return source.toString();
+        }
+    }
+
+    /**
+     * Поток, который при обрыве HTTP-соединения переподключается и продолжает
+     * загрузку с места обрыва через заголовок {@code Range}.
+     */
+    private static final class ResumableInputStream extends InputStream {
+
+        private static final int MAX_RESUMES = 3;
+
+        private final URL source;
+
+        /**
+         * Длина ответа или {@code -1}, если сервер её не сообщил.
+         */
+        private final long contentLength;
+
+        private InputStream stream;
+        private long position;
+        private int resumes;
+
+        private ResumableInputStream(URL source) throws IOException {
+            val connection = source.openConnection();
+
+            this.source = source;
+            this.stream = connection.getInputStream();
+            this.contentLength = connection.getContentLengthLong();
+        }
+
+        @Override
+        public int read() throws IOException {
+            val buffer = new byte[1];
+            val count = read(buffer, 0, 1);
+
+            return count == -1 ? -1 : buffer[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte @NotNull [] buffer, int offset, int length) throws IOException {
+            while (true) {
+                IOException failure;
+
+                try {
+                    val count = stream.read(buffer, offset, length);
+
+                    if (count > 0) {
+                        position += count;
+                        return count;
+                    }
+
+                    if (count == 0 || contentLength == -1 || position >= contentLength) {
+                        return count;
+                    }
+
+                    // HttpURLConnection при обрыве ответа с известной длиной просто
+                    // заканчивает поток, не бросая исключения
+                    failure = new IOException("Premature EOF: received " + position + " of "
+                            + contentLength + " bytes from " + source);
+                } catch (IOException e) {
+                    failure = e;
+                }
+
+                if (resumes++ >= MAX_RESUMES || !resume()) {
+                    throw failure;
+                }
+            }
+        }
+
+        private boolean resume() {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+                // соединение уже оборвано
+            }
+
+            try {
+                if (!(source.openConnection() instanceof HttpURLConnection connection)) {
+                    return false;
+                }
+
+                connection.setRequestProperty("Range", "bytes=" + position + "-");
+
+                if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                    // сервер не умеет отдавать часть ответа
+                    connection.disconnect();
+                    return false;
+                }
+
+                stream = connection.getInputStream();
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
         }
 
         @Override
         public String toString() {
             return source.toString();
         }
+
     }
 
 }
@@ -0,0 +1,137 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Таблица с ключами {@code long} без упаковки ключа в {@link Long}. Записи только
+ * добавляются: чтение идёт без блокировок, добавление и расширение - под блокировкой.
+ * <p>
+ * Значение ячейки публикуется после её ключа, поэтому читатель, увидевший значение,
+ * видит и его ключ.
+ *
+ * @param <V> Тип значений
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class LongKeyedMap<V> {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    @NonFinal
+    volatile Table<V> table = new Table<>(INITIAL_CAPACITY);
+
+    @NonFinal
+    int size;
+
+    /**
+     * Получить значение.
+     *
+     * @param key Ключ
+     * @return Значение или {@code null}, если его нет
+     */
+    V get(long key) {
+        return table.get(key);
+    }
+
+    /**
+     * Добавить значение, если по ключу ещё ничего нет.
+     *
+     * @param key   Ключ
+     * @param value Значение
+     * @return Значение, которое уже было по ключу, или {@code null}, если добавлено новое
+     */
+    synchronized V putIfAbsent(long key, V value) {
+        val existing = table.get(key);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        if (++size > table.values.length() / 2) {
+            table = table.grow();
+        }
+
+        table.put(key, value);
+
+        return null;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Table<V> {
+
+        long[] keys;
+
+        AtomicReferenceArray<V> values;
+
+        int mask;
+
+        private Table(int capacity) {
+            keys = new long[capacity];
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        private static int slot(long key) {
+            val hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        V get(long key) {
+            for (int i = slot(key) & mask; ; i = (i + 1) & mask) {
+                val value = values.get(i);
+
+                if (value == null || keys[i] == key) {
+                    return value;
+                }
+            }
+        }
+
+        void put(long key, V value) {
+            int i = slot(key) & mask;
+
+            while (values.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+
+            keys[i] = key;
+            values.set(i, value);
+        }
+
+        Table<V> grow() {
+            val table = new Table<V>(keys.length * 2);
+
+            for (int i = 0; i < keys.length; i++) {
+                val value = values.get(i);
+
+                if (value != null) {
+                    table.put(keys[i], value);
+                }
+            }
+
+            return table;
+        }
+
+    }
+
+}
@@ -16,11 +16,9 @@
 
 package w.geo.maxmind;
 
-import com.maxmind.db.NoCache;
-import com.maxmind.geoip2.DatabaseReader;
-import com.maxmind.geoip2.NamedRecord;
-import com.maxmind.geoip2.exception.GeoIp2Exception;
-import com.maxmind.geoip2.model.CityResponse;
+import com.maxmind.db.CHMCache;
+import com.maxmind.db.DatabaseRecord;
+import com.maxmind.db.Reader;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -28,47 +26,148 @@ import lombok.val;
 import org.jetbrains.annotations.NotNull;
 import w.geo.GeoLocationLookupException;
 import w.geo.GeoLocationManager;
+import w.geo.GeoLocationStats;
+import w.geo.GeoLocationStatsRecorder;
 import w.geo.model.Country;
 import w.geo.model.GeoLocation;
+import w.geo.maxmind.MaxmindRecords.GeonameId;
+import w.geo.maxmind.MaxmindRecords.LocationIds;
+import w.geo.maxmind.MaxmindRecords.LocationNames;
+import w.geo.maxmind.MaxmindRecords.Place;
+import w.geo.model.GeoNetwork;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetAddress;
-import java.util.Collections;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
+ * Менеджер, который ищет по базе MaxMind.
+ * <p>
+ * Результаты канонизируются: местоположения хранятся по идентификаторам GeoNames города
+ * и страны, поэтому повторные поиски возвращают одни и те же экземпляры
+ * {@link GeoLocation} и {@link Country}. При поиске декодируются только идентификаторы,
+ * названия читаются лишь при первой встрече местоположения.
+ *
  * @author whilein
  */
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-public final class MaxmindGeoLocationManager implements GeoLocationManager {
+public final class MaxmindGeoLocationManager implements GeoLocationManager, Closeable {
 
     private static final String DEFAULT_LOCALE = "en";
 
+    /**
+     * Время начала поиска, который не попал в выборку замеров.
+     */
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    /**
+     * Сколько декодированных записей держать по их смещению в базе. Поиски по адресам
+     * с той же записью получают уже декодированные {@link LocationIds}, а не создают их
+     * заново. Сам {@link Reader#get} всё равно создаёт запись, сеть, ключ кэша и копию
+     * адреса, без выделений декодер идентификаторы читать не умеет.
+     */
+    private static final int DECODED_CACHE_CAPACITY = 1 << 14;
+
+    /**
+     * Исполнитель {@link #lookupAsync(InetAddress)} по умолчанию: поиск может надолго
+     * встать на подгрузке страниц отображённой базы, виртуальный поток при этом
+     * не занимает поток-носитель.
+     */
+    static final Executor DEFAULT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
     String locale;
-    DatabaseReader reader;
+    Reader reader;
+    Executor executor;
+
+    GeoLocationStatsRecorder stats;
+
+    Instant buildTime;
+
+    /**
+     * Местоположения по идентификаторам GeoNames, см. {@link #locationKey(LocationIds)}.
+     */
+    LongKeyedMap<GeoLocation> locations = new LongKeyedMap<>();
+
+    LongKeyedMap<Country> countries = new LongKeyedMap<>();
 
     public static @NotNull GeoLocationManager create(@NotNull DatabaseProvider provider)
             throws IOException {
         return create(DEFAULT_LOCALE, provider);
     }
 
+    /**
+     * Создать менеджер по базе из провайдера. Если провайдер отдаёт файл
+     * ({@link DatabaseProvider#getPath()}), база отображается в память и не занимает кучу,
+     * а страницы файла разделяются между всеми процессами на машине. Иначе база
+     * целиком читается из {@link DatabaseProvider#openStream()}.
+     *
+     * @param locale   Язык названий
+     * @param provider Провайдер базы
+     * @return Новый менеджер
+     * @throws IOException Не удалось открыть базу
+     */
     public static @NotNull GeoLocationManager create(@NotNull String locale, @NotNull DatabaseProvider provider)
             throws IOException {
-        DatabaseReader reader;
+        return create(locale, provider, DEFAULT_EXECUTOR);
+    }
 
-        try (val is = provider.openStream()) {
-            reader = new DatabaseReader.Builder(is)
-                    .locales(Collections.singletonList(locale))
-                    .withCache(NoCache.getInstance())
-                    .build();
+    /**
+     * Создать менеджер, который выполняет {@link #lookupAsync(InetAddress)} в указанном исполнителе.
+     *
+     * @param locale   Язык названий
+     * @param provider Провайдер базы
+     * @param executor Исполнитель асинхронных поисков
+     * @return Новый менеджер
+     * @throws IOException Не удалось открыть базу
+     * @see #create(String, DatabaseProvider)
+     */
+    public static @NotNull GeoLocationManager create(
+            @NotNull String locale,
+            @NotNull DatabaseProvider provider,
+            @NotNull Executor executor
+    ) throws IOException {
+        return create(locale, openReader(provider), executor, GeoLocationStatsRecorder.create());
+    }
+
+    static @NotNull MaxmindGeoLocationManager create(
+            @NotNull String locale,
+            @NotNull Reader reader,
+            @NotNull Executor executor,
+            @NotNull GeoLocationStatsRecorder stats
+    ) {
+        return new MaxmindGeoLocationManager(locale, reader, executor, stats, buildTime(reader));
+    }
+
+    static Instant buildTime(Reader reader) {
+        return reader.getMetadata().buildTime();
+    }
+
+    static Reader openReader(DatabaseProvider provider) throws IOException {
+        val path = provider.getPath();
+
+        if (path != null) {
+            return new Reader(path.toFile(), Reader.FileMode.MEMORY_MAPPED, new CHMCache(DECODED_CACHE_CAPACITY));
         }
 
-        return new MaxmindGeoLocationManager(locale, reader);
+        try (val is = provider.openStream()) {
+            return new Reader(is, new CHMCache(DECODED_CACHE_CAPACITY));
+        }
     }
 
-    private static String resolveNamed(NamedRecord record, String locale) {
-        val names = record.names();
-        if (names.isEmpty()) return null;
+    static String resolveNamed(Place place, String locale) {
+        if (place == null) return null;
+
+        val names = place.names();
+        if (names == null || names.isEmpty()) return null;
 
         String name = names.get(locale);
         if (name == null && !locale.equals(DEFAULT_LOCALE)) {
@@ -78,27 +177,182 @@ public final class MaxmindGeoLocationManager implements GeoLocationManager {
         return name;
     }
 
-    private GeoLocation mapResponse(CityResponse response) {
-        val mmCountry = response.country();
-        val mmCity = response.city();
+    private static long id(GeonameId geonameId) {
+        return geonameId != null && geonameId.id() != null ? geonameId.id() : 0L;
+    }
+
+    static long locationKey(LocationIds ids) {
+        // идентификаторы GeoNames помещаются в 32 бита
+        return id(ids.city()) << 32 | id(ids.country()) & 0xFFFFFFFFL;
+    }
+
+    private GeoLocation resolve(InetAddress address, LocationIds ids) throws IOException {
+        if (ids == null) {
+            return GeoLocation.unknown();
+        }
+
+        val key = locationKey(ids);
+        val cached = locations.get(key);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        val names = reader.get(address, LocationNames.class);
+        val location = names != null ? mapNames(names) : GeoLocation.unknown();
+
+        val existing = locations.putIfAbsent(key, location);
+        return existing != null ? existing : location;
+    }
+
+    private GeoLocation mapNames(LocationNames names) {
+        val mmCountry = names.country();
 
         val countryName = resolveNamed(mmCountry, locale);
-        val country = countryName == null ? null : new Country(countryName, mmCountry.isoCode());
 
-        val city = resolveNamed(mmCity, locale);
+        Country country = null;
+
+        if (countryName != null) {
+            country = new Country(countryName, mmCountry.isoCode());
 
-        return new GeoLocation(city, country);
+            val countryId = mmCountry.id();
+
+            if (countryId != null) {
+                val existing = countries.putIfAbsent(countryId, country);
+
+                if (existing != null) {
+                    country = existing;
+                }
+            }
+        }
+
+        val city = resolveNamed(names.city(), locale);
+
+        return city == null && country == null
+                ? GeoLocation.unknown()
+                : new GeoLocation(city, country);
+    }
+
+    /**
+     * Пробный поиск мимо статистики. Он проходит по дереву и секции данных, поэтому
+     * битая база упадёт здесь, а не на пути запроса.
+     *
+     * @param address Пробный адрес
+     * @throws IOException База повреждена
+     */
+    void verify(@NotNull InetAddress address) throws IOException {
+        resolve(address, reader.get(address, LocationIds.class));
     }
 
     @Override
     public @NotNull GeoLocation lookup(@NotNull InetAddress address) throws GeoLocationLookupException {
+        val start = stats.shouldTime() ? System.nanoTime() : NOT_TIMED;
+
+        final GeoLocation location;
+
+        try {
+            location = resolve(address, reader.get(address, LocationIds.class));
+        } catch (IOException e) {
+            throw new GeoLocationLookupException("Failed lookup: " + address, e);
+        }
+
+        record(location, start);
+
+        return location;
+    }
+
+    private void record(GeoLocation location, long start) {
+        if (start == NOT_TIMED) {
+            stats.record(location);
+        } else {
+            stats.record(location, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Найти местоположение вместе с сетью из базы MaxMind.
+     */
+    @Override
+    public @NotNull GeoNetwork lookupNetwork(@NotNull InetAddress address) throws GeoLocationLookupException {
+        val start = stats.shouldTime() ? System.nanoTime() : NOT_TIMED;
+
+        final DatabaseRecord<LocationIds> record;
+        final GeoLocation location;
+
         try {
-            return reader.tryCity(address)
-                    .map(this::mapResponse)
-                    .orElse(GeoLocation.unknown());
-        } catch (IOException | GeoIp2Exception e) {
+            record = reader.getRecord(address, LocationIds.class);
+            location = resolve(address, record.data());
+        } catch (IOException e) {
             throw new GeoLocationLookupException("Failed lookup: " + address, e);
         }
+
+        record(location, start);
+
+        val network = record.network();
+
+        // IPv4-адрес в IPv6-базе может прийти с сетью другого семейства, такую не используем
+        if (network == null || network.networkAddress().getAddress().length != address.getAddress().length) {
+            return GeoNetwork.single(address, location);
+        }
+
+        return new GeoNetwork(network.networkAddress(), network.prefixLength(), location);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull GeoLocation> lookupAsync(@NotNull InetAddress address) {
+        return CompletableFuture.supplyAsync(() -> lookup(address), executor);
+    }
+
+    /**
+     * Найти местоположение для нескольких адресов. Адреса обходятся в порядке возрастания,
+     * поэтому соседние поиски проходят по одним и тем же узлам дерева и страницам базы.
+     */
+    @Override
+    public @NotNull Map<@NotNull InetAddress, @NotNull GeoLocation> lookupAll(
+            @NotNull Collection<? extends @NotNull InetAddress> addresses
+    ) throws GeoLocationLookupException {
+        val sorted = new SortKey[addresses.size()];
+        int count = 0;
+
+        for (val address : addresses) {
+            sorted[count++] = new SortKey(address.getAddress(), address);
+        }
+
+        Arrays.sort(sorted, 0, count);
+
+        val result = HashMap.<InetAddress, GeoLocation>newHashMap(count);
+
+        for (int i = 0; i < count; i++) {
+            val address = sorted[i].address;
+
+            if (!result.containsKey(address)) {
+                result.put(address, lookup(address));
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public @NotNull GeoLocationStats getStats() {
+        return stats.snapshot(buildTime, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private record SortKey(byte[] bytes, InetAddress address) implements Comparable<SortKey> {
+
+        @Override
+        public int compareTo(final SortKey other) {
+            // IPv4 раньше IPv6, внутри семейства по возрастанию адреса
+            val lengths = Integer.compare(bytes.length, other.bytes.length);
+
+            return lengths != 0 ? lengths : Arrays.compareUnsigned(bytes, other.bytes);
+        }
+
     }
 
 }
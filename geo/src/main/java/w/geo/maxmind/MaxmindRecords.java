@@ -0,0 +1,77 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import com.maxmind.db.MaxMindDbConstructor;
+import com.maxmind.db.MaxMindDbParameter;
+import lombok.experimental.UtilityClass;
+
+import java.util.Map;
+
+/**
+ * Облегчённые записи базы MaxMind: декодируются только поля, нужные для
+ * {@link w.geo.model.GeoLocation}, вместо полного {@code CityResponse}.
+ * <p>
+ * Декодер создаёт записи через рефлексию, поэтому они публичные.
+ *
+ * @author whilein
+ */
+@UtilityClass
+class MaxmindRecords {
+
+    /**
+     * Только идентификаторы GeoNames города и страны, этого достаточно, чтобы найти
+     * уже созданное местоположение.
+     */
+    public record LocationIds(
+            @MaxMindDbParameter(name = "city") GeonameId city,
+            @MaxMindDbParameter(name = "country") GeonameId country
+    ) {
+        @MaxMindDbConstructor
+        public LocationIds {
+        }
+    }
+
+    public record GeonameId(@MaxMindDbParameter(name = "geoname_id") Long id) {
+        @MaxMindDbConstructor
+        public GeonameId {
+        }
+    }
+
+    /**
+     * Названия города и страны, декодируются только при первой встрече местоположения.
+     */
+    public record LocationNames(
+            @MaxMindDbParameter(name = "city") Place city,
+            @MaxMindDbParameter(name = "country") Place country
+    ) {
+        @MaxMindDbConstructor
+        public LocationNames {
+        }
+    }
+
+    public record Place(
+            @MaxMindDbParameter(name = "geoname_id") Long id,
+            @MaxMindDbParameter(name = "iso_code") String isoCode,
+            @MaxMindDbParameter(name = "names") Map<String, String> names
+    ) {
+        @MaxMindDbConstructor
+        public Place {
+        }
+    }
+
+}
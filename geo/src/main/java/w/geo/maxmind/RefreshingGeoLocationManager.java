@@ -0,0 +1,485 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import w.geo.GeoLocationLookupException;
+import w.geo.GeoLocationManager;
+import w.geo.GeoLocationStats;
+import w.geo.GeoLocationStatsRecorder;
+import w.geo.model.GeoLocation;
+import w.geo.model.GeoNetwork;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Менеджер, который периодически проверяет провайдер в фоне и переходит на новую базу
+ * без остановки поиска.
+ * <p>
+ * Новая база скачивается, открывается и проверяется вне пути запроса, затем атомарно
+ * подменяет текущую. Старая база закрывается, когда завершатся все начатые по ней поиски.
+ * При каждой замене меняется {@link #getVersion()}, поэтому кэширующие обёртки
+ * сбрасывают устаревшие результаты. Если обновление не удалось, менеджер продолжает
+ * работать на прежней базе, а ошибка доступна через {@link #getLastRefreshFailure()}.
+ * <p>
+ * Если провайдер отдаёт файл ({@link DatabaseProvider#getPath()}), база перечитывается
+ * только при изменении файла. Иначе база читается при каждой проверке, но заменяется,
+ * только если у неё другое время сборки.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RefreshingGeoLocationManager implements GeoLocationManager, Closeable {
+
+    private static final String DEFAULT_LOCALE = "en";
+
+    private static final System.Logger LOGGER = System.getLogger(RefreshingGeoLocationManager.class.getName());
+
+    String locale;
+
+    DatabaseProvider provider;
+
+    Executor executor;
+
+    AtomicReference<Database> current = new AtomicReference<>();
+
+    /**
+     * Общие счётчики всех баз, поэтому статистика не сбрасывается при замене базы.
+     */
+    GeoLocationStatsRecorder stats = GeoLocationStatsRecorder.create();
+
+    Lock refreshLock = new ReentrantLock();
+
+    /**
+     * Текущая база и старые, по которым ещё идут поиски.
+     */
+    AtomicInteger openDatabases = new AtomicInteger();
+
+    @NonFinal
+    ScheduledExecutorService ownScheduler;
+
+    @NonFinal
+    ScheduledFuture<?> task;
+
+    @NonFinal
+    volatile Instant lastRefreshTime;
+
+    @NonFinal
+    volatile Throwable lastRefreshFailure;
+
+    public static @NotNull RefreshingGeoLocationManager create(
+            @NotNull DatabaseProvider provider,
+            @NotNull Duration interval
+    ) throws IOException {
+        return create(DEFAULT_LOCALE, provider, interval);
+    }
+
+    /**
+     * Создать менеджер, который проверяет провайдер в отдельном потоке-демоне.
+     *
+     * @param locale   Язык названий
+     * @param provider Провайдер базы
+     * @param interval Интервал между проверками
+     * @return Новый менеджер
+     * @throws IOException Не удалось открыть первую базу
+     */
+    public static @NotNull RefreshingGeoLocationManager create(
+            @NotNull String locale,
+            @NotNull DatabaseProvider provider,
+            @NotNull Duration interval
+    ) throws IOException {
+        val scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            val thread = new Thread(runnable, "geo-database-refresh");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        try {
+            val manager = create(locale, provider, scheduler, interval);
+            manager.ownScheduler = scheduler;
+
+            return manager;
+        } catch (IOException | RuntimeException e) {
+            scheduler.shutdownNow();
+            throw e;
+        }
+    }
+
+    /**
+     * Создать менеджер, который проверяет провайдер в указанном планировщике.
+     * Первая база открывается сразу, в вызывающем потоке.
+     *
+     * @param locale    Язык названий
+     * @param provider  Провайдер базы
+     * @param scheduler Планировщик проверок
+     * @param interval  Интервал между проверками
+     * @return Новый менеджер
+     * @throws IOException Не удалось открыть первую базу
+     */
+    public static @NotNull RefreshingGeoLocationManager create(
+            @NotNull String locale,
+            @NotNull DatabaseProvider provider,
+            @NotNull ScheduledExecutorService scheduler,
+            @NotNull Duration interval
+    ) throws IOException {
+        return create(locale, provider, scheduler, interval, MaxmindGeoLocationManager.DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Создать менеджер, который проверяет провайдер в указанном планировщике
+     * и выполняет {@link #lookupAsync(InetAddress)} в указанном исполнителе.
+     *
+     * @param locale    Язык названий
+     * @param provider  Провайдер базы
+     * @param scheduler Планировщик проверок
+     * @param interval  Интервал между проверками
+     * @param executor  Исполнитель асинхронных поисков
+     * @return Новый менеджер
+     * @throws IOException Не удалось открыть первую базу
+     */
+    public static @NotNull RefreshingGeoLocationManager create(
+            @NotNull String locale,
+            @NotNull DatabaseProvider provider,
+            @NotNull ScheduledExecutorService scheduler,
+            @NotNull Duration interval,
+            @NotNull Executor executor
+    ) throws IOException {
+        val manager = new RefreshingGeoLocationManager(locale, provider, executor);
+        manager.current.set(manager.load(1L, null));
+        manager.lastRefreshTime = Instant.now();
+
+        val nanos = interval.toNanos();
+        manager.task = scheduler.scheduleWithFixedDelay(manager::refreshQuietly, nanos, nanos, TimeUnit.NANOSECONDS);
+
+        return manager;
+    }
+
+    /**
+     * Проверить провайдер и перейти на новую базу, если она изменилась.
+     *
+     * @return {@code true}, если база была заменена
+     * @throws IOException Не удалось получить или открыть новую базу
+     */
+    public boolean refresh() throws IOException {
+        refreshLock.lock();
+
+        try {
+            val previous = current.get();
+
+            if (previous == null) {
+                throw new IllegalStateException("Manager is closed");
+            }
+
+            val database = load(previous.version + 1, previous.stamp);
+            lastRefreshTime = Instant.now();
+            lastRefreshFailure = null;
+
+            if (database == null) {
+                return false;
+            }
+
+            if (!current.compareAndSet(previous, database)) {
+                // менеджер закрыли во время загрузки
+                database.release();
+                return false;
+            }
+
+            previous.release();
+
+            return true;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Throwable e) {
+            lastRefreshFailure = e;
+        }
+    }
+
+    private Database load(final long version, final Object previousStamp) throws IOException {
+        val path = provider.getPath();
+
+        Object stamp = null;
+
+        if (path != null) {
+            val attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            stamp = new FileStamp(attributes.fileKey(), attributes.lastModifiedTime().toMillis(), attributes.size());
+
+            if (stamp.equals(previousStamp)) {
+                return null;
+            }
+        }
+
+        val reader = MaxmindGeoLocationManager.openReader(provider);
+
+        if (path == null) {
+            // о новой базе в потоке заранее не узнать, но та же база не должна менять версию
+            // и сбрасывать кэши
+            stamp = MaxmindGeoLocationManager.buildTime(reader);
+
+            if (stamp != null && stamp.equals(previousStamp)) {
+                reader.close();
+                return null;
+            }
+        }
+
+        val manager = MaxmindGeoLocationManager.create(locale, reader, executor, stats);
+
+        try {
+            // пробный поиск не попадает в статистику, которая общая для всех баз
+            manager.verify(InetAddress.getByAddress(new byte[]{8, 8, 8, 8}));
+        } catch (IOException | RuntimeException e) {
+            manager.close();
+            throw new IOException("Database verification failed", e);
+        }
+
+        return new Database(manager, version, stamp, openDatabases);
+    }
+
+    /**
+     * Получить количество открытых баз. Старая база остаётся открытой после замены,
+     * пока не завершатся начатые по ней поиски.
+     *
+     * @return Количество открытых баз
+     */
+    int getOpenDatabases() {
+        return openDatabases.get();
+    }
+
+    /**
+     * Получить время последней успешной проверки провайдера.
+     *
+     * @return Время последней проверки
+     */
+    public @NotNull Instant getLastRefreshTime() {
+        return lastRefreshTime;
+    }
+
+    /**
+     * Получить ошибку последней фоновой проверки.
+     *
+     * @return Ошибка или {@code null}, если последняя проверка прошла успешно
+     */
+    public @Nullable Throwable getLastRefreshFailure() {
+        return lastRefreshFailure;
+    }
+
+    @Override
+    public @NotNull GeoLocationStats getStats() {
+        val database = current.get();
+
+        val stats = database != null
+                ? database.manager.getStats()
+                : this.stats.snapshot(null, null);
+
+        return stats.withLastRefreshTime(lastRefreshTime);
+    }
+
+    @Override
+    public long getVersion() {
+        val database = current.get();
+        return database != null ? database.version : -1L;
+    }
+
+    @Override
+    public @NotNull GeoLocation lookup(final @NotNull InetAddress address) throws GeoLocationLookupException {
+        val database = acquire();
+
+        try {
+            return database.manager.lookup(address);
+        } finally {
+            database.release();
+        }
+    }
+
+    @Override
+    public @NotNull GeoNetwork lookupNetwork(final @NotNull InetAddress address) throws GeoLocationLookupException {
+        val database = acquire();
+
+        try {
+            return database.manager.lookupNetwork(address);
+        } finally {
+            database.release();
+        }
+    }
+
+    @Override
+    public @NotNull Map<@NotNull InetAddress, @NotNull GeoLocation> lookupAll(
+            @NotNull Collection<? extends @NotNull InetAddress> addresses
+    ) throws GeoLocationLookupException {
+        val database = acquire();
+
+        try {
+            return database.manager.lookupAll(addresses);
+        } finally {
+            database.release();
+        }
+    }
+
+    @Override
+    public @NotNull CompletableFuture<@NotNull GeoLocation> lookupAsync(final @NotNull InetAddress address) {
+        final Database database;
+
+        try {
+            database = acquire();
+        } catch (GeoLocationLookupException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        final CompletableFuture<GeoLocation> future;
+
+        try {
+            future = database.manager.lookupAsync(address);
+        } catch (RuntimeException e) {
+            // например, исполнитель уже остановлен и отклонил задачу
+            database.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // база не должна закрыться, пока поиск идёт в другом потоке
+        return future.whenComplete((result, error) -> database.release());
+    }
+
+    private Database acquire() {
+        while (true) {
+            val database = current.get();
+
+            if (database == null) {
+                throw new GeoLocationLookupException("Manager is closed");
+            }
+
+            if (database.retain()) {
+                return database;
+            }
+
+            // база уже выведена из работы, current к этому моменту заменён
+        }
+    }
+
+    @Override
+    public void close() {
+        task.cancel(false);
+
+        if (ownScheduler != null) {
+            ownScheduler.shutdownNow();
+        }
+
+        refreshLock.lock();
+
+        try {
+            val database = current.getAndSet(null);
+
+            if (database != null) {
+                database.release();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private record FileStamp(Object fileKey, long modified, long size) {
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Database {
+
+        MaxmindGeoLocationManager manager;
+
+        long version;
+
+        Object stamp;
+
+        AtomicInteger openDatabases;
+
+        // одна ссылка принадлежит самому менеджеру, пока база текущая
+        AtomicInteger references = new AtomicInteger(1);
+
+        private Database(
+                final MaxmindGeoLocationManager manager,
+                final long version,
+                final Object stamp,
+                final AtomicInteger openDatabases
+        ) {
+            this.manager = manager;
+            this.version = version;
+            this.stamp = stamp;
+            this.openDatabases = openDatabases;
+
+            openDatabases.incrementAndGet();
+        }
+
+        boolean retain() {
+            int count;
+
+            do {
+                count = references.get();
+
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+
+            return true;
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                openDatabases.decrementAndGet();
+
+                try {
+                    manager.close();
+                } catch (IOException e) {
+                    // release вызывается после поиска, и ошибка закрытия старой базы
+                    // не должна превращать успешный поиск в неудачный
+                    LOGGER.log(System.Logger.Level.WARNING, "Cannot close GeoIP database", e);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetAddress;
+
+/**
+ * Местоположение вместе с сетью, для всех адресов которой оно одинаково.
+ *
+ * @param address      Первый адрес сети
+ * @param prefixLength Длина префикса сети в битах
+ * @param location     Местоположение
+ * @author whilein
+ */
+public record GeoNetwork(@NotNull InetAddress address, int prefixLength, @NotNull GeoLocation location) {
+
+    /**
+     * Создать сеть из одного адреса, если настоящая сеть неизвестна.
+     *
+     * @param address  Адрес
+     * @param location Местоположение
+     * @return Сеть из одного адреса
+     */
+    public static @NotNull GeoNetwork single(@NotNull InetAddress address, @NotNull GeoLocation location) {
+        return new GeoNetwork(address, address.getAddress().length * 8, location);
+    }
+
+}
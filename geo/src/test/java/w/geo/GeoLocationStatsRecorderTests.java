@@ -0,0 +1,88 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import w.geo.model.GeoLocation;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whilein
+ */
+final class GeoLocationStatsRecorderTests {
+
+    @Test
+    void countsWithoutTiming() {
+        val recorder = GeoLocationStatsRecorder.create(0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(recorder.shouldTime());
+            recorder.record(GeoLocation.unknown());
+        }
+
+        val stats = recorder.snapshot(null, null);
+        assertEquals(1000, stats.loadCount());
+        assertEquals(1000, stats.unknownCount());
+        assertEquals(Duration.ZERO, stats.loadLatencyP99());
+        assertEquals(Duration.ZERO, stats.loadLatencyMax());
+    }
+
+    @Test
+    void sampledTiming() {
+        val always = GeoLocationStatsRecorder.create(1);
+        val sampled = GeoLocationStatsRecorder.create(64);
+
+        int timed = 0;
+
+        for (int i = 0; i < 64_000; i++) {
+            assertTrue(always.shouldTime());
+
+            if (sampled.shouldTime()) {
+                timed++;
+            }
+        }
+
+        // в среднем 1000 замеров, разброс намного меньше допуска
+        assertTrue(timed > 500 && timed < 1500, Integer.toString(timed));
+    }
+
+    @Test
+    void percentiles() {
+        val recorder = GeoLocationStatsRecorder.create(1);
+        val location = new GeoLocation("Moscow", null);
+
+        for (int i = 1; i <= 100; i++) {
+            recorder.record(location, i * 1000L);
+        }
+
+        val stats = recorder.snapshot(null, null);
+        assertEquals(100, stats.loadCount());
+        assertEquals(0, stats.unknownCount());
+        assertEquals(Duration.ofNanos(100_000), stats.loadLatencyMax());
+
+        // корзины дают погрешность не больше четверти значения
+        val p50 = stats.loadLatencyP50().toNanos();
+        assertTrue(p50 >= 50_000 && p50 <= 62_500, Long.toString(p50));
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.cache.network;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import w.geo.GeoLocationManager;
+import w.geo.maxmind.MaxmindGeoLocationManager;
+import w.geo.maxmind.TestDatabase;
+import w.geo.model.Country;
+import w.geo.model.GeoLocation;
+import w.geo.model.GeoNetwork;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author whilein
+ */
+final class CachedGeoLocationManagerTests {
+
+    /**
+     * Отвечает заданными сетями, остальные адреса неизвестны, и считает обращения.
+     */
+    static final class FakeManager implements GeoLocationManager {
+
+        final AtomicInteger lookups = new AtomicInteger();
+
+        final List<GeoNetwork> networks = new ArrayList<>();
+
+        FakeManager add(String address, int prefixLength) throws UnknownHostException {
+            networks.add(new GeoNetwork(InetAddress.getByName(address), prefixLength,
+                    new GeoLocation(address + "/" + prefixLength, null)));
+
+            return this;
+        }
+
+        @Override
+        public @NotNull GeoLocation lookup(@NotNull InetAddress address) {
+            return lookupNetwork(address).location();
+        }
+
+        @Override
+        public @NotNull GeoNetwork lookupNetwork(@NotNull InetAddress address) {
+            lookups.incrementAndGet();
+
+            for (val network : networks) {
+                if (contains(network, address.getAddress())) {
+                    return network;
+                }
+            }
+
+            return GeoNetwork.single(address, GeoLocation.unknown());
+        }
+
+        private static boolean contains(GeoNetwork network, byte[] address) {
+            val first = network.address().getAddress();
+
+            if (first.length != address.length) {
+                return false;
+            }
+
+            for (int bit = 0; bit < network.prefixLength(); bit++) {
+                val mask = 0x80 >>> (bit & 7);
+
+                if ((first[bit >>> 3] & mask) != (address[bit >>> 3] & mask)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+    }
+
+    static GeoLocation lookup(GeoLocationManager manager, String address) throws UnknownHostException {
+        return manager.lookup(InetAddress.getByName(address));
+    }
+
+    static GeoLocation location(String network) {
+        return new GeoLocation(network, null);
+    }
+
+    @Test
+    void wholeSpace() throws Exception {
+        val delegate = new FakeManager()
+                .add("0.0.0.0", 0)
+                .add("::", 0);
+
+        val cache = CachedGeoLocationManager.create(delegate);
+
+        assertEquals(location("0.0.0.0/0"), lookup(cache, "1.2.3.4"));
+        assertEquals(location("0.0.0.0/0"), lookup(cache, "0.0.0.0"));
+        assertEquals(location("0.0.0.0/0"), lookup(cache, "255.255.255.255"));
+        assertEquals(1, delegate.lookups.get());
+
+        assertEquals(location("::/0"), lookup(cache, "2a00::1"));
+        assertEquals(location("::/0"), lookup(cache, "::"));
+        assertEquals(location("::/0"), lookup(cache, "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"));
+        assertEquals(2, delegate.lookups.get());
+    }
+
+    @Test
+    void singleAddresses() throws Exception {
+        val delegate = new FakeManager()
+                .add("8.8.8.8", 32)
+                .add("2a00::1", 128);
+
+        val cache = CachedGeoLocationManager.create(delegate);
+
+        assertEquals(location("8.8.8.8/32"), lookup(cache, "8.8.8.8"));
+        assertEquals(location("8.8.8.8/32"), lookup(cache, "8.8.8.8"));
+        assertEquals(1, delegate.lookups.get());
+
+        // соседние адреса не входят в сеть из одного адреса
+        assertSame(GeoLocation.unknown(), lookup(cache, "8.8.8.9"));
+        assertSame(GeoLocation.unknown(), lookup(cache, "8.8.8.7"));
+        assertEquals(3, delegate.lookups.get());
+
+        assertEquals(location("2a00::1/128"), lookup(cache, "2a00::1"));
+        assertEquals(location("2a00::1/128"), lookup(cache, "2a00::1"));
+        assertSame(GeoLocation.unknown(), lookup(cache, "2a00::2"));
+        assertSame(GeoLocation.unknown(), lookup(cache, "2a00::"));
+        assertEquals(6, delegate.lookups.get());
+    }
+
+    @Test
+    void floorNetwork() throws Exception {
+        val delegate = new FakeManager()
+                .add("8.8.8.0", 24)
+                // первый адрес сети из делегата не обязан быть выровнен по префиксу
+                .add("8.8.10.77", 24);
+
+        val cache = CachedGeoLocationManager.create(delegate);
+
+        assertEquals(location("8.8.8.0/24"), lookup(cache, "8.8.8.8"));
+        assertEquals(location("8.8.8.0/24"), lookup(cache, "8.8.8.0"));
+        assertEquals(location("8.8.8.0/24"), lookup(cache, "8.8.8.255"));
+        assertEquals(1, delegate.lookups.get());
+
+        // ближайшая слева сеть 8.8.8.0/24 уже закончилась
+        assertSame(GeoLocation.unknown(), lookup(cache, "8.8.9.0"));
+        assertEquals(2, delegate.lookups.get());
+
+        // слева от 8.8.8.0 сетей нет
+        assertSame(GeoLocation.unknown(), lookup(cache, "8.8.7.255"));
+        assertEquals(3, delegate.lookups.get());
+
+        assertEquals(location("8.8.10.77/24"), lookup(cache, "8.8.10.200"));
+        assertEquals(location("8.8.10.77/24"), lookup(cache, "8.8.10.0"));
+        assertEquals(location("8.8.10.77/24"), lookup(cache, "8.8.10.255"));
+        assertSame(GeoLocation.unknown(), lookup(cache, "8.8.9.0"));
+        assertEquals(4, delegate.lookups.get());
+
+        // ближайшая слева сеть из одного адреса 8.8.9.0
+        assertSame(GeoLocation.unknown(), lookup(cache, "8.8.9.255"));
+        assertEquals(5, delegate.lookups.get());
+    }
+
+    @Test
+    void ipv4InIpv6Database() throws Exception {
+        val maxmind = MaxmindGeoLocationManager.create(new TestDatabase()
+                .add("8.8.8.0/24", 5375480, "Mountain View", 6252001, "US", "United States")
+                .add("2a00::/16", 0, null, 2921044, "DE", "Germany")
+                .provider());
+
+        val cache = CachedGeoLocationManager.create(maxmind);
+
+        val mountainView = new GeoLocation("Mountain View", new Country("United States", "US"));
+        val germany = new GeoLocation(null, new Country("Germany", "DE"));
+
+        // сеть IPv4-адреса отсчитывается от начала IPv4-поддерева, а не от ::/96
+        assertEquals(mountainView, lookup(cache, "8.8.8.8"));
+        assertEquals(mountainView, lookup(cache, "8.8.8.0"));
+        assertEquals(mountainView, lookup(cache, "8.8.8.255"));
+        assertSame(GeoLocation.unknown(), lookup(cache, "8.8.9.0"));
+        assertEquals(2, cache.getStats().missCount());
+
+        // тот же адрес в IPv6 попадает в свою сеть ::808:800/120 и в IPv6-таблицу
+        assertEquals(mountainView, lookup(cache, "::8.8.8.8"));
+        assertEquals(mountainView, lookup(cache, "::8.8.8.255"));
+        assertEquals(3, cache.getStats().missCount());
+
+        assertEquals(germany, lookup(cache, "2a00::1"));
+        assertEquals(germany, lookup(cache, "2a00:ffff:ffff:ffff:ffff:ffff:ffff:ffff"));
+        assertSame(GeoLocation.unknown(), lookup(cache, "2a01::"));
+        assertEquals(5, cache.getStats().missCount());
+        assertEquals(4, cache.getStats().hitCount());
+    }
+
+    @Test
+    void overflow() throws Exception {
+        val delegate = new FakeManager();
+        val cache = CachedGeoLocationManager.create(delegate, 4, Runnable::run);
+
+        for (int i = 1; i <= 4; i++) {
+            lookup(cache, "10.0.0." + i);
+            lookup(cache, "10.0.0." + i);
+        }
+
+        assertEquals(4, delegate.lookups.get());
+
+        // пятая сеть переполняет таблицу, и она заменяется пустой
+        lookup(cache, "10.0.0.5");
+        assertEquals(5, delegate.lookups.get());
+
+        lookup(cache, "10.0.0.1");
+        lookup(cache, "10.0.0.5");
+        assertEquals(7, delegate.lookups.get());
+
+        lookup(cache, "10.0.0.1");
+        assertEquals(7, delegate.lookups.get());
+
+        // таблицы семейств переполняются независимо
+        lookup(cache, "::1");
+        lookup(cache, "::1");
+        assertEquals(8, delegate.lookups.get());
+    }
+
+    @Test
+    void concurrentOverflow() throws Exception {
+        val delegate = new FakeManager();
+
+        for (int i = 0; i < 64; i++) {
+            delegate.add("10.0." + i + ".0", 24);
+        }
+
+        // таблица меньше набора сетей, чтобы поиски шли вперемешку с очисткой
+        val cache = CachedGeoLocationManager.create(delegate, 16, Runnable::run);
+
+        val start = new CountDownLatch(1);
+        val failures = new CopyOnWriteArrayList<Throwable>();
+        val threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < 8; i++) {
+            val thread = new Thread(() -> {
+                try {
+                    start.await();
+
+                    val random = ThreadLocalRandom.current();
+
+                    for (int j = 0; j < 100_000; j++) {
+                        val network = random.nextInt(64);
+                        val address = InetAddress.getByAddress(new byte[]{10, 0, (byte) network,
+                                (byte) random.nextInt(256)});
+
+                        assertEquals(location("10.0." + network + ".0/24"), cache.lookup(address));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+
+        for (val thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.size(), () -> failures.get(0).toString());
+    }
+
+}
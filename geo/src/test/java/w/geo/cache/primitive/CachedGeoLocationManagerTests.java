@@ -0,0 +1,192 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.cache.primitive;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import w.geo.GeoLocationManager;
+import w.geo.model.GeoLocation;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author whilein
+ */
+final class CachedGeoLocationManagerTests {
+
+    /**
+     * Отвечает городом, названным по адресу и версии базы, и считает обращения.
+     */
+    static final class FakeManager implements GeoLocationManager {
+
+        final AtomicInteger lookups = new AtomicInteger();
+
+        volatile long version;
+
+        @Override
+        public @NotNull GeoLocation lookup(@NotNull InetAddress address) {
+            lookups.incrementAndGet();
+            return expected(address.getAddress(), version);
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+    }
+
+    static GeoLocation expected(byte[] address, long version) {
+        return new GeoLocation(Arrays.toString(address) + "@" + version, null);
+    }
+
+    static byte[] ipv4(int address) {
+        return new byte[]{(byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address};
+    }
+
+    @Test
+    void zeroAddresses() {
+        val delegate = new FakeManager();
+        val cache = CachedGeoLocationManager.create(delegate);
+
+        val ipv4 = new byte[4];
+        val ipv6 = new byte[16];
+
+        // пустые ячейки не должны сойти за закэшированный нулевой адрес
+        assertEquals(expected(ipv4, 0), cache.lookup(ipv4));
+        assertEquals(expected(ipv6, 0), cache.lookup(ipv6));
+        assertEquals(2, delegate.lookups.get());
+
+        assertEquals(expected(ipv4, 0), cache.lookupIpv4(0));
+        assertEquals(expected(ipv6, 0), cache.lookupIpv6(0, 0));
+        assertEquals(2, delegate.lookups.get());
+
+        assertEquals(expected(ipv4(1), 0), cache.lookupIpv4(1));
+        assertEquals(3, delegate.lookups.get());
+    }
+
+    @Test
+    void evictionInFullBucket() {
+        val delegate = new FakeManager();
+
+        // одна корзина из AddressTable.WAYS ячеек
+        val cache = CachedGeoLocationManager.create(delegate, AddressTable.WAYS);
+
+        for (int i = 0; i < AddressTable.WAYS; i++) {
+            cache.lookupIpv4(i);
+        }
+
+        // обращения к первым семи адресам дают им второй шанс
+        for (int i = 0; i < AddressTable.WAYS - 1; i++) {
+            assertEquals(expected(ipv4(i), 0), cache.lookupIpv4(i));
+        }
+
+        assertEquals(AddressTable.WAYS, delegate.lookups.get());
+
+        // корзина заполнена: вытесняется единственный адрес без обращений
+        cache.lookupIpv4(AddressTable.WAYS);
+        assertEquals(AddressTable.WAYS + 1, delegate.lookups.get());
+
+        assertEquals(expected(ipv4(1), 0), cache.lookupIpv4(1));
+        assertEquals(expected(ipv4(AddressTable.WAYS), 0), cache.lookupIpv4(AddressTable.WAYS));
+        assertEquals(AddressTable.WAYS + 1, delegate.lookups.get());
+
+        assertEquals(expected(ipv4(AddressTable.WAYS - 1), 0), cache.lookupIpv4(AddressTable.WAYS - 1));
+        assertEquals(AddressTable.WAYS + 2, delegate.lookups.get());
+    }
+
+    @Test
+    void versionChange() throws Exception {
+        val delegate = new FakeManager();
+        val cache = CachedGeoLocationManager.create(delegate);
+
+        val ipv4 = ipv4(0x08080808);
+        val ipv6 = InetAddress.getByName("2a00::1").getAddress();
+
+        cache.lookup(ipv4);
+        cache.lookup(ipv6);
+        assertEquals(expected(ipv4, 0), cache.lookup(ipv4));
+        assertEquals(2, delegate.lookups.get());
+
+        delegate.version = 1;
+
+        assertEquals(expected(ipv4, 1), cache.lookup(ipv4));
+        assertEquals(expected(ipv6, 1), cache.lookup(ipv6));
+        assertEquals(expected(ipv4, 1), cache.lookupAsync(InetAddress.getByAddress(ipv4)).join());
+        assertEquals(4, delegate.lookups.get());
+        assertEquals(1, cache.getVersion());
+    }
+
+    @Test
+    void concurrentFindAndPut() throws Exception {
+        val delegate = new FakeManager();
+
+        // таблица меньше набора адресов, чтобы поиски шли вперемешку с вытеснением
+        val cache = CachedGeoLocationManager.create(delegate, 64);
+
+        val start = new CountDownLatch(1);
+        val failures = new CopyOnWriteArrayList<Throwable>();
+        val threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < 8; i++) {
+            val thread = new Thread(() -> {
+                try {
+                    start.await();
+
+                    val random = ThreadLocalRandom.current();
+
+                    for (int j = 0; j < 100_000; j++) {
+                        val address = random.nextInt(512);
+
+                        if (random.nextBoolean()) {
+                            assertEquals(expected(ipv4(address), 0), cache.lookupIpv4(address));
+                        } else {
+                            val ipv6 = new byte[16];
+                            ipv6[0] = 0x2A;
+                            System.arraycopy(ipv4(address), 0, ipv6, 12, 4);
+
+                            assertEquals(expected(ipv6, 0), cache.lookupIpv6(0x2A00_0000_0000_0000L, address));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+
+        for (val thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.size(), () -> failures.get(0).toString());
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import w.geo.GeoLocationManager;
+import w.geo.model.Country;
+import w.geo.model.GeoLocation;
+
+import java.net.InetAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author whilein
+ */
+final class CompactGeoLocationManagerTests {
+
+    static final GeoLocation MOSCOW = new GeoLocation("Moscow", new Country("Russia", "RU"));
+
+    static final GeoLocation MOUNTAIN_VIEW = new GeoLocation("Mountain View", new Country("United States", "US"));
+
+    static final GeoLocation UNITED_STATES = new GeoLocation(null, new Country("United States", "US"));
+
+    static final GeoLocation GERMANY = new GeoLocation(null, new Country("Germany", "DE"));
+
+    static DatabaseProvider database;
+
+    static GeoLocationManager compact;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        database = new TestDatabase()
+                .add("1.0.0.0/24", 524901, "Moscow", 2017370, "RU", "Russia")
+                .add("1.0.1.0/24", 524901, "Moscow", 2017370, "RU", "Russia")
+                .add("8.8.8.0/24", 5375480, "Mountain View", 6252001, "US", "United States")
+                .add("255.255.255.0/24", 0, null, 6252001, "US", "United States")
+                .add("2a00::/16", 0, null, 2921044, "DE", "Germany")
+                .add("ffff::/16", 0, null, 6252001, "US", "United States")
+                .provider();
+
+        compact = CompactGeoLocationManager.create(database);
+    }
+
+    @Test
+    void gaps() throws Exception {
+        assertEquals(MOSCOW, compact.lookup(InetAddress.getByName("1.0.1.255")));
+        assertSame(compact.lookup(InetAddress.getByName("1.0.0.1")), compact.lookup(InetAddress.getByName("1.0.1.1")));
+
+        for (val address : List.of("0.0.0.0", "1.0.2.0", "0.255.255.255", "8.8.9.0", "255.255.254.255",
+                "::", "2a01::", "29ff:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "fffe::")) {
+            assertSame(GeoLocation.unknown(), compact.lookup(InetAddress.getByName(address)), address);
+        }
+    }
+
+    @Test
+    void lastRange() throws Exception {
+        assertEquals(UNITED_STATES, compact.lookup(InetAddress.getByName("255.255.255.0")));
+        assertEquals(UNITED_STATES, compact.lookup(InetAddress.getByName("255.255.255.255")));
+        assertEquals(UNITED_STATES, compact.lookup(InetAddress.getByName("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")));
+        assertEquals(GERMANY, compact.lookup(InetAddress.getByName("2a00:ffff:ffff:ffff:ffff:ffff:ffff:ffff")));
+    }
+
+    @Test
+    void ipv4InIpv6() throws Exception {
+        for (val address : List.of(
+                // ::ffff:8.8.8.8 не разобрать через InetAddress, он превращается в IPv4
+                new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, 8, 8, 8, 8},
+                InetAddress.getByName("::8.8.8.8").getAddress(),
+                InetAddress.getByName("2002:808:808::1").getAddress(),
+                InetAddress.getByName("2001:0:808:808::1").getAddress()
+        )) {
+            assertEquals(MOUNTAIN_VIEW, compact.lookup(address));
+        }
+
+        assertSame(GeoLocation.unknown(), compact.lookup(InetAddress.getByName("2002:101:200::")));
+    }
+
+    @Test
+    void wholeSpace() throws Exception {
+        val everywhere = CompactGeoLocationManager.create(new TestDatabase()
+                .add("0.0.0.0/0", 0, null, 2921044, "DE", "Germany")
+                .provider());
+
+        for (val address : List.of("0.0.0.0", "8.8.8.8", "255.255.255.255", "::", "::8.8.8.8", "2002:808:808::",
+                "2001:0:ffff:ffff::")) {
+            assertEquals(GERMANY, everywhere.lookup(InetAddress.getByName(address)), address);
+        }
+
+        assertSame(GeoLocation.unknown(), everywhere.lookup(InetAddress.getByName("2a00::1")));
+        assertSame(GeoLocation.unknown(), everywhere.lookup(InetAddress.getByName("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")));
+    }
+
+    @Test
+    void sameAsMaxmind() throws Exception {
+        val maxmind = MaxmindGeoLocationManager.create(database);
+
+        for (val address : List.of("0.0.0.0", "1.0.0.0", "1.0.1.255", "1.0.2.0", "8.8.8.8", "255.255.255.255",
+                "::8.8.8.8", "2001:0:808:808::", "2002:808:808::", "2a00::", "2a01::", "ffff::1")) {
+            val inetAddress = InetAddress.getByName(address);
+            assertEquals(maxmind.lookup(inetAddress), compact.lookup(inetAddress), address);
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author whilein
+ */
+final class DatabaseProvidersTests {
+
+    static byte[] database;
+
+    HttpServer server;
+
+    AtomicInteger downloads;
+
+    List<String> ranges;
+
+    @BeforeAll
+    static void setupDatabase() throws Exception {
+        try (val is = new TestDatabase()
+                .add("8.8.8.0/24", 5375480, "Mountain View", 6252001, "US", "United States")
+                .provider()
+                .openStream()) {
+            database = is.readAllBytes();
+        }
+    }
+
+    @BeforeEach
+    void setup() throws IOException {
+        downloads = new AtomicInteger();
+        ranges = new CopyOnWriteArrayList<>();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/db", exchange -> {
+            downloads.incrementAndGet();
+
+            try {
+                // даём остальным потокам время прийти за базой
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            respond(exchange, 200, database);
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void shutdown() {
+        server.stop(0);
+    }
+
+    private String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+
+        try (val os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    @Test
+    void singleFlight(@TempDir Path directory) throws Exception {
+        val destination = directory.resolve("GeoLite2-City.mmdb");
+        val cache = DatabaseProviders.cache(DatabaseProviders.fromURL(url("/db")), destination);
+
+        val start = new CountDownLatch(1);
+        val failures = new CopyOnWriteArrayList<Throwable>();
+        val threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < 8; i++) {
+            val thread = new Thread(() -> {
+                try {
+                    start.await();
+                    assertEquals(destination, cache.getPath());
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+
+        for (val thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(1, downloads.get());
+        assertArrayEquals(database, Files.readAllBytes(destination));
+    }
+
+    @Test
+    void checksumMismatch(@TempDir Path directory) throws Exception {
+        server.createContext("/db.sha256", exchange -> respond(exchange, 200,
+                (HexFormat.of().formatHex(new byte[32]) + "  GeoLite2-City.mmdb\n").getBytes(StandardCharsets.US_ASCII)));
+
+        val destination = directory.resolve("GeoLite2-City.mmdb");
+        val previous = "previous".getBytes(StandardCharsets.US_ASCII);
+        Files.write(destination, previous);
+
+        val cache = DatabaseProviders.cache(DatabaseProviders.verifySha256(
+                DatabaseProviders.fromURL(url("/db")),
+                DatabaseProviders.fromURL(url("/db.sha256"))
+        ), destination, Duration.ZERO);
+
+        assertThrows(IOException.class, cache::getPath);
+
+        assertArrayEquals(previous, Files.readAllBytes(destination));
+
+        try (val files = Files.list(directory)) {
+            assertEquals(List.of(destination), files.toList());
+        }
+    }
+
+    @Test
+    void checksumMatch(@TempDir Path directory) throws Exception {
+        val checksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(database));
+        server.createContext("/db.sha256", exchange -> respond(exchange, 200,
+                checksum.getBytes(StandardCharsets.US_ASCII)));
+
+        val destination = directory.resolve("GeoLite2-City.mmdb");
+        val cache = DatabaseProviders.cache(DatabaseProviders.verifySha256(
+                DatabaseProviders.fromURL(url("/db")),
+                DatabaseProviders.fromURL(url("/db.sha256"))
+        ), destination);
+
+        assertEquals(destination, cache.getPath());
+        assertArrayEquals(database, Files.readAllBytes(destination));
+    }
+
+    @Test
+    void keepsPermissions(@TempDir Path directory) throws Exception {
+        assumeTrue(Files.getFileAttributeView(directory, PosixFileAttributeView.class) != null);
+
+        val destination = directory.resolve("GeoLite2-City.mmdb");
+        val cache = DatabaseProviders.cache(DatabaseProviders.fromURL(url("/db")), destination, Duration.ZERO);
+
+        cache.getPath();
+        assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(destination)));
+
+        Files.setPosixFilePermissions(destination, PosixFilePermissions.fromString("rw-rw----"));
+
+        cache.getPath();
+        assertEquals(2, downloads.get());
+        assertEquals("rw-rw----", PosixFilePermissions.toString(Files.getPosixFilePermissions(destination)));
+    }
+
+    @Test
+    void resumeWithRange() throws Exception {
+        val half = database.length / 2;
+
+        server.createContext("/flaky", exchange -> {
+            val range = exchange.getRequestHeaders().getFirst("Range");
+
+            if (range == null) {
+                // обещаем всю базу, а отдаём половину и обрываем соединение
+                exchange.sendResponseHeaders(200, database.length);
+
+                val os = exchange.getResponseBody();
+                os.write(database, 0, half);
+                os.flush();
+
+                exchange.close();
+                return;
+            }
+
+            ranges.add(range);
+
+            val from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            exchange.getResponseHeaders().set("Content-Range",
+                    "bytes " + from + "-" + (database.length - 1) + "/" + database.length);
+
+            respond(exchange, 206, Arrays.copyOfRange(database, from, database.length));
+        });
+
+        try (val is = DatabaseProviders.fromURL(url("/flaky")).openStream()) {
+            assertArrayEquals(database, is.readAllBytes());
+        }
+
+        assertEquals(1, ranges.size());
+        assertTrue(ranges.get(0).matches("bytes=\\d+-"), ranges.get(0));
+    }
+
+}
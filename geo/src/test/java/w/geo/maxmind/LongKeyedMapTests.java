@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author whilein
+ */
+final class LongKeyedMapTests {
+
+    @Test
+    void putAndGrow() {
+        val map = new LongKeyedMap<String>();
+
+        assertNull(map.get(0));
+        assertNull(map.putIfAbsent(0, "zero"));
+        assertEquals("zero", map.putIfAbsent(0, "other"));
+
+        for (long key = 1; key <= 10_000; key++) {
+            assertNull(map.putIfAbsent(key << 32 | key, Long.toString(key)));
+        }
+
+        assertEquals("zero", map.get(0));
+
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals(Long.toString(key), map.get(key << 32 | key));
+            assertNull(map.get(key << 32));
+        }
+    }
+
+    @Test
+    void concurrentGetAndPut() throws Exception {
+        val map = new LongKeyedMap<String>();
+
+        val start = new CountDownLatch(1);
+        val failures = new CopyOnWriteArrayList<Throwable>();
+        val threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < 8; i++) {
+            val thread = new Thread(() -> {
+                try {
+                    start.await();
+
+                    for (long key = 0; key < 50_000; key++) {
+                        val value = map.get(key);
+
+                        if (value == null) {
+                            map.putIfAbsent(key, Long.toString(key));
+                        } else {
+                            assertEquals(Long.toString(key), value);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+
+        for (val thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.size(), () -> failures.get(0).toString());
+
+        for (long key = 0; key < 50_000; key++) {
+            assertEquals(Long.toString(key), map.get(key));
+        }
+    }
+
+}
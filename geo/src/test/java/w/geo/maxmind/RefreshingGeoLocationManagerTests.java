@@ -0,0 +1,212 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import w.geo.GeoLocationManager;
+import w.geo.model.Country;
+import w.geo.model.GeoLocation;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whilein
+ */
+final class RefreshingGeoLocationManagerTests {
+
+    static final GeoLocation MOUNTAIN_VIEW = new GeoLocation("Mountain View", new Country("United States", "US"));
+
+    static final GeoLocation BERLIN = new GeoLocation("Berlin", new Country("Germany", "DE"));
+
+    static final Duration NEVER = Duration.ofDays(1);
+
+    @TempDir
+    Path directory;
+
+    Path path;
+
+    InetAddress address;
+
+    ScheduledExecutorService scheduler;
+
+    // поиски lookupAsync ждут здесь, пока тест их не выполнит
+    Queue<Runnable> tasks;
+
+    @BeforeEach
+    void setup() throws IOException {
+        path = directory.resolve("GeoLite2-City.mmdb");
+        address = InetAddress.getByName("8.8.8.8");
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        tasks = new ConcurrentLinkedQueue<>();
+
+        writeMountainView();
+    }
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void write(TestDatabase database) throws IOException {
+        val temp = directory.resolve("GeoLite2-City.mmdb.tmp");
+
+        try (val is = database.provider().openStream()) {
+            Files.write(temp, is.readAllBytes());
+        }
+
+        // старая база отображена в память, поэтому файл заменяется, а не перезаписывается
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeMountainView() throws IOException {
+        write(new TestDatabase()
+                .add("8.8.8.0/24", 5375480, "Mountain View", 6252001, "US", "United States"));
+    }
+
+    private void writeBerlin() throws IOException {
+        write(new TestDatabase()
+                .add("8.8.8.0/24", 2950159, "Berlin", 2921044, "DE", "Germany"));
+    }
+
+    private RefreshingGeoLocationManager create() throws IOException {
+        return RefreshingGeoLocationManager.create("en", DatabaseProviders.fromFile(path), scheduler, NEVER,
+                tasks::add);
+    }
+
+    @Test
+    void version() throws Exception {
+        try (val manager = create()) {
+            assertEquals(1, manager.getVersion());
+            assertEquals(MOUNTAIN_VIEW, manager.lookup(address));
+
+            // файл не менялся
+            assertFalse(manager.refresh());
+            assertEquals(1, manager.getVersion());
+            assertEquals(1, manager.getOpenDatabases());
+
+            writeBerlin();
+
+            assertTrue(manager.refresh());
+            assertEquals(2, manager.getVersion());
+            assertEquals(BERLIN, manager.lookup(address));
+            assertEquals(1, manager.getOpenDatabases());
+
+            assertFalse(manager.refresh());
+            assertEquals(2, manager.getVersion());
+        }
+    }
+
+    @Test
+    void sameStream() throws Exception {
+        // без файла база читается заново, но с тем же временем сборки не заменяется
+        val provider = new TestDatabase()
+                .add("8.8.8.0/24", 5375480, "Mountain View", 6252001, "US", "United States")
+                .provider();
+
+        try (val manager = RefreshingGeoLocationManager.create("en", provider, scheduler, NEVER)) {
+            assertFalse(manager.refresh());
+            assertEquals(1, manager.getVersion());
+            assertEquals(1, manager.getOpenDatabases());
+        }
+    }
+
+    @Test
+    void oldDatabaseClosedAfterLookup() throws Exception {
+        try (val manager = create()) {
+            val first = manager.lookupAsync(address);
+            val second = manager.lookupAsync(address);
+
+            writeBerlin();
+            assertTrue(manager.refresh());
+
+            // новые поиски идут по новой базе, а начатые держат старую открытой
+            assertEquals(BERLIN, manager.lookup(address));
+            assertEquals(2, manager.getOpenDatabases());
+
+            tasks.remove().run();
+            assertEquals(MOUNTAIN_VIEW, first.join());
+            assertEquals(2, manager.getOpenDatabases());
+
+            tasks.remove().run();
+            assertEquals(MOUNTAIN_VIEW, second.join());
+            assertEquals(1, manager.getOpenDatabases());
+        }
+    }
+
+    @Test
+    void closeWaitsForLookup() throws Exception {
+        val manager = create();
+        val lookup = manager.lookupAsync(address);
+
+        manager.close();
+        assertEquals(1, manager.getOpenDatabases());
+
+        tasks.remove().run();
+        assertEquals(MOUNTAIN_VIEW, lookup.join());
+        assertEquals(0, manager.getOpenDatabases());
+    }
+
+    @Test
+    void cacheGenerations() throws Exception {
+        List<Function<GeoLocationManager, GeoLocationManager>> caches = List.of(
+                w.geo.cache.caffeine.CachedGeoLocationManager::create,
+                w.geo.cache.caffeine.CachedGeoLocationManager::createAsync,
+                w.geo.cache.guava.CachedGeoLocationManager::create,
+                w.geo.cache.network.CachedGeoLocationManager::create,
+                w.geo.cache.primitive.CachedGeoLocationManager::create
+        );
+
+        for (val factory : caches) {
+            writeMountainView();
+
+            try (val manager = RefreshingGeoLocationManager.create("en", DatabaseProviders.fromFile(path), scheduler,
+                    NEVER)) {
+                val cache = factory.apply(manager);
+
+                assertEquals(MOUNTAIN_VIEW, cache.lookup(address));
+                assertEquals(MOUNTAIN_VIEW, cache.lookupAsync(address).join());
+
+                writeBerlin();
+                assertTrue(manager.refresh());
+
+                assertEquals(2, cache.getVersion());
+                assertEquals(BERLIN, cache.lookup(address), cache.getClass().getName());
+                assertEquals(BERLIN, cache.lookupAsync(address).join(), cache.getClass().getName());
+            }
+        }
+    }
+
+}
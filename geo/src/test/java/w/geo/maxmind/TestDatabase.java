@@ -0,0 +1,319 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.geo.maxmind;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Собирает маленькую IPv6-базу в формате MaxMind DB с записями как в GeoLite2-City,
+ * чтобы тестам не нужна была настоящая база. IPv4-сети кладутся в {@code ::/96},
+ * а {@code ::ffff:0:0/96}, {@code 2001::/32} и {@code 2002::/16} ссылаются на это
+ * поддерево, как в базах MaxMind.
+ *
+ * @author whilein
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TestDatabase {
+
+    private static final byte[] METADATA_MARKER = {
+            (byte) 0xAB, (byte) 0xCD, (byte) 0xEF,
+            'M', 'a', 'x', 'M', 'i', 'n', 'd', '.', 'c', 'o', 'm'
+    };
+
+    private static final int TYPE_STRING = 2;
+    private static final int TYPE_UINT16 = 5;
+    private static final int TYPE_UINT32 = 6;
+    private static final int TYPE_MAP = 7;
+    private static final int TYPE_UINT64 = 9;
+    private static final int TYPE_ARRAY = 11;
+
+    Node root = new Node();
+
+    Map<Map<String, Object>, Integer> dataOffsets = new LinkedHashMap<>();
+
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+    private static final class Node {
+        Object left, right;
+    }
+
+    private record Data(int offset) {
+    }
+
+    /**
+     * Добавить сеть с городом и страной.
+     *
+     * @param network     Сеть, например {@code 1.0.0.0/24} или {@code 2a00::/16}
+     * @param cityId      Идентификатор GeoNames города или {@code 0}, если города нет
+     * @param city        Название города
+     * @param countryId   Идентификатор GeoNames страны
+     * @param countryCode Код страны
+     * @param country     Название страны
+     * @return Эта база
+     */
+    public @NotNull TestDatabase add(
+            @NotNull String network,
+            long cityId,
+            String city,
+            long countryId,
+            @NotNull String countryCode,
+            @NotNull String country
+    ) {
+        val record = new LinkedHashMap<String, Object>();
+
+        if (cityId != 0) {
+            record.put("city", Map.of("geoname_id", cityId, "names", Map.of("en", city)));
+        }
+
+        record.put("country", Map.of(
+                "geoname_id", countryId,
+                "iso_code", countryCode,
+                "names", Map.of("en", country)
+        ));
+
+        val slash = network.indexOf('/');
+        byte[] address = parse(network.substring(0, slash));
+        int prefixLength = Integer.parseInt(network.substring(slash + 1));
+
+        if (address.length == 4) {
+            val ipv6 = new byte[16];
+            System.arraycopy(address, 0, ipv6, 12, 4);
+
+            address = ipv6;
+            prefixLength += 96;
+        }
+
+        insert(address, prefixLength, new Data(dataOffsets.computeIfAbsent(record, this::encodeData)));
+
+        return this;
+    }
+
+    /**
+     * @return Провайдер, который отдаёт собранную базу
+     */
+    public @NotNull DatabaseProvider provider() {
+        val bytes = build();
+        return () -> new ByteArrayInputStream(bytes);
+    }
+
+    private static byte[] parse(final String address) {
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (final UnknownHostException e) {
+            throw new IllegalArgumentException(address, e);
+        }
+    }
+
+    private int encodeData(final Map<String, Object> record) {
+        val offset = data.size();
+        encode(data, record);
+        return offset;
+    }
+
+    private void insert(final byte[] address, final int prefixLength, final Object value) {
+        if (prefixLength == 0) {
+            // у корня нет записи, поэтому /0 - это две сети /1
+            root.left = value;
+            root.right = value;
+            return;
+        }
+
+        val node = nodeAt(address, prefixLength - 1);
+
+        if (bit(address, prefixLength - 1)) {
+            node.right = value;
+        } else {
+            node.left = value;
+        }
+    }
+
+    private Node nodeAt(final byte[] address, final int prefixLength) {
+        Node node = root;
+
+        for (int i = 0; i < prefixLength; i++) {
+            val next = bit(address, i) ? node.right : node.left;
+
+            if (next instanceof Node child) {
+                node = child;
+            } else {
+                val child = new Node();
+
+                if (bit(address, i)) {
+                    node.right = child;
+                } else {
+                    node.left = child;
+                }
+
+                node = child;
+            }
+        }
+
+        return node;
+    }
+
+    private static boolean bit(final byte[] address, final int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7)) & 1) != 0;
+    }
+
+    private byte[] build() {
+        if (root.left instanceof Node || root.left == null) {
+            // корень IPv4-поддерева или запись, если добавлена вся 0.0.0.0/0
+            val ipv4Parent = nodeAt(new byte[16], 95);
+            val ipv4 = ipv4Parent.left != null ? ipv4Parent.left : (ipv4Parent.left = new Node());
+
+            // ::ffff:0:0 нельзя разобрать через InetAddress, он превращается в 0.0.0.0
+            val mapped = new byte[16];
+            mapped[10] = mapped[11] = (byte) 0xFF;
+
+            insert(mapped, 96, ipv4);
+            insert(parse("2001::"), 32, ipv4);
+            insert(parse("2002::"), 16, ipv4);
+        }
+
+        // нумеруем узлы в ширину, псевдонимы указывают на уже пронумерованное поддерево
+        val numbers = new IdentityHashMap<Node, Integer>();
+        val nodes = new ArrayList<Node>();
+        val queue = new ArrayDeque<Node>();
+
+        queue.add(root);
+        numbers.put(root, 0);
+
+        while (!queue.isEmpty()) {
+            val node = queue.poll();
+            nodes.add(node);
+
+            for (val child : new Object[]{node.left, node.right}) {
+                if (child instanceof Node childNode && !numbers.containsKey(childNode)) {
+                    numbers.put(childNode, numbers.size());
+                    queue.add(childNode);
+                }
+            }
+        }
+
+        val nodeCount = nodes.size();
+        val out = new ByteArrayOutputStream();
+
+        for (val node : nodes) {
+            writeRecord(out, record(node.left, numbers, nodeCount));
+            writeRecord(out, record(node.right, numbers, nodeCount));
+        }
+
+        out.writeBytes(new byte[16]);
+        out.writeBytes(data.toByteArray());
+        out.writeBytes(METADATA_MARKER);
+
+        val metadata = new LinkedHashMap<String, Object>();
+        metadata.put("node_count", (long) nodeCount);
+        metadata.put("record_size", 32);
+        metadata.put("ip_version", 6);
+        metadata.put("database_type", "GeoLite2-City");
+        metadata.put("languages", List.of("en"));
+        metadata.put("binary_format_major_version", 2);
+        metadata.put("binary_format_minor_version", 0);
+        metadata.put("build_epoch", new Epoch(1_700_000_000L));
+        metadata.put("description", Map.of("en", "Test database"));
+
+        encode(out, metadata);
+
+        return out.toByteArray();
+    }
+
+    private record Epoch(long seconds) {
+    }
+
+    private static long record(final Object child, final Map<Node, Integer> numbers, final int nodeCount) {
+        if (child == null) {
+            return nodeCount;
+        }
+
+        if (child instanceof Data data) {
+            return (long) nodeCount + 16 + data.offset();
+        }
+
+        return numbers.get((Node) child);
+    }
+
+    private static void writeRecord(final ByteArrayOutputStream out, final long value) {
+        out.write((int) (value >>> 24));
+        out.write((int) (value >>> 16));
+        out.write((int) (value >>> 8));
+        out.write((int) value);
+    }
+
+    private static void encode(final ByteArrayOutputStream out, final Object value) {
+        if (value instanceof String string) {
+            val bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeControl(out, TYPE_STRING, bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof Integer number) {
+            writeControl(out, TYPE_UINT16, 2);
+            out.write(number >>> 8);
+            out.write(number);
+        } else if (value instanceof Long number) {
+            writeControl(out, TYPE_UINT32, 4);
+            writeRecord(out, number);
+        } else if (value instanceof Epoch epoch) {
+            writeControl(out, TYPE_UINT64, 8);
+            writeRecord(out, epoch.seconds() >>> 32);
+            writeRecord(out, epoch.seconds());
+        } else if (value instanceof List<?> list) {
+            writeControl(out, TYPE_ARRAY, list.size());
+
+            for (val element : list) {
+                encode(out, element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            writeControl(out, TYPE_MAP, map.size());
+
+            for (val entry : map.entrySet()) {
+                encode(out, entry.getKey());
+                encode(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported value: " + value);
+        }
+    }
+
+    private static void writeControl(final ByteArrayOutputStream out, final int type, final int size) {
+        if (size >= 29) {
+            throw new IllegalArgumentException("Too large: " + size);
+        }
+
+        if (type > 7) {
+            out.write(size);
+            out.write(type - 7);
+        } else {
+            out.write(type << 5 | size);
+        }
+    }
+
+}
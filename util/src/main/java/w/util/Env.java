@@ -18,14 +18,11 @@ package w.util;
 
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
-import lombok.val;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,38 +32,43 @@ import java.util.Optional;
 @UtilityClass
 public class Env {
 
+    /**
+     * Окружение процесса не меняется во время работы, поэтому снимок один на всё время
+     * и разобранные значения переиспользуются между вызовами.
+     */
+    private final EnvSnapshot SYSTEM = EnvSnapshot.capture();
+
+    /**
+     * Получить снимок окружения процесса.
+     *
+     * @return Снимок окружения
+     */
+    public @NotNull EnvSnapshot snapshot() {
+        return SYSTEM;
+    }
+
     public @NotNull String getString(final @NonNull String key) {
-        return findString(key).orElseThrow(() -> new IllegalStateException("Cannot find environment entry: " + key));
+        return SYSTEM.getString(key);
     }
 
     @Contract("_, !null -> !null")
     public @Nullable String getString(final @NonNull String key, final @Nullable String defaultValue) {
-        return findString(key).orElse(defaultValue);
+        return SYSTEM.getString(key, defaultValue);
     }
 
     public @NotNull Optional<@NotNull String> findString(final @NonNull String key) {
-        return Optional.ofNullable(System.getenv(key));
+        return SYSTEM.findString(key);
     }
 
     public int getInt(final @NonNull String key, final int defaultValue) {
-        val value = System.getenv(key);
-
-        if (value == null) {
-            return defaultValue;
-        }
-
-        try {
-            return Integer.parseInt(value);
-        } catch (final Exception e) {
-            return defaultValue;
-        }
+        return SYSTEM.getInt(key, defaultValue);
     }
 
     public @Unmodifiable @NotNull List<@NotNull String> getStringList(
             final @NonNull String key,
             final @NonNull String delimiter
     ) {
-        return getStringList(key, delimiter, Collections.emptyList());
+        return SYSTEM.getStringList(key, delimiter);
     }
 
     @Contract("_, _, !null -> !null")
@@ -75,20 +77,14 @@ public class Env {
             final @NonNull String delimiter,
             final @Nullable List<String> defaultValue
     ) {
-        val value = System.getenv(key);
-
-        if (value == null) {
-            return defaultValue;
-        }
-
-        return List.of(value.split(delimiter));
+        return SYSTEM.getStringList(key, delimiter, defaultValue);
     }
 
     public @Unmodifiable @NotNull List<@NotNull Integer> getIntList(
             final @NonNull String key,
             final @NonNull String delimiter
     ) {
-        return getIntList(key, delimiter, Collections.emptyList());
+        return SYSTEM.getIntList(key, delimiter);
     }
 
     @Contract("_, _, !null -> !null")
@@ -97,14 +93,6 @@ public class Env {
             final @NonNull String delimiter,
             final @Nullable List<Integer> defaultValue
     ) {
-        val value = System.getenv(key);
-
-        if (value == null) {
-            return defaultValue;
-        }
-
-        return Arrays.stream(value.split(delimiter))
-                .map(Integer::valueOf)
-                .toList();
+        return SYSTEM.getIntList(key, delimiter, defaultValue);
     }
 }
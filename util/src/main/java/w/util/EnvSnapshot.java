@@ -0,0 +1,300 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.util;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Снимок переменных окружения. Значения разбираются при первом обращении
+ * и запоминаются, повторные вызовы не разбирают строку заново.
+ *
+ * @author whilein
+ * @see Env
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EnvSnapshot {
+
+    private static final Object INVALID = new Object();
+
+    private static final int[] EMPTY_INT_ARRAY = new int[0];
+    private static final long[] EMPTY_LONG_ARRAY = new long[0];
+
+    Map<String, String> variables;
+
+    Map<Parsed, Object> parsed = new ConcurrentHashMap<>();
+
+    /**
+     * Снять переменные окружения текущего процесса.
+     *
+     * @return Новый снимок
+     */
+    public static @NotNull EnvSnapshot capture() {
+        return new EnvSnapshot(Map.copyOf(System.getenv()));
+    }
+
+    public static @NotNull EnvSnapshot of(final @NonNull Map<@NotNull String, @NotNull String> variables) {
+        return new EnvSnapshot(Map.copyOf(variables));
+    }
+
+    /**
+     * Получить все переменные снимка.
+     *
+     * @return Переменные окружения
+     */
+    public @Unmodifiable @NotNull Map<@NotNull String, @NotNull String> asMap() {
+        return variables;
+    }
+
+    private Object parse(final String key, final Kind kind, final String delimiter) {
+        val value = variables.get(key);
+
+        if (value == null) {
+            return null;
+        }
+
+        return parsed.computeIfAbsent(new Parsed(key, kind, delimiter), __ -> kind.parse(value, delimiter));
+    }
+
+    public @NotNull Optional<@NotNull String> findString(final @NonNull String key) {
+        return Optional.ofNullable(variables.get(key));
+    }
+
+    public @NotNull String getString(final @NonNull String key) {
+        return findString(key).orElseThrow(() -> new IllegalStateException("Cannot find environment entry: " + key));
+    }
+
+    @Contract("_, !null -> !null")
+    public @Nullable String getString(final @NonNull String key, final @Nullable String defaultValue) {
+        return variables.getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(final @NonNull String key, final int defaultValue) {
+        return parse(key, Kind.INT, null) instanceof Integer value ? value : defaultValue;
+    }
+
+    public long getLong(final @NonNull String key, final long defaultValue) {
+        return parse(key, Kind.LONG, null) instanceof Long value ? value : defaultValue;
+    }
+
+    public double getDouble(final @NonNull String key, final double defaultValue) {
+        return parse(key, Kind.DOUBLE, null) instanceof Double value ? value : defaultValue;
+    }
+
+    /**
+     * Получить булево значение. Принимаются только {@code true} и {@code false}
+     * в любом регистре, остальные значения считаются отсутствующими.
+     *
+     * @param key          Ключ
+     * @param defaultValue Значение по умолчанию
+     * @return Значение
+     */
+    public boolean getBoolean(final @NonNull String key, final boolean defaultValue) {
+        return parse(key, Kind.BOOLEAN, null) instanceof Boolean value ? value : defaultValue;
+    }
+
+    public @Unmodifiable @NotNull List<@NotNull String> getStringList(
+            final @NonNull String key,
+            final @NonNull String delimiter
+    ) {
+        return getStringList(key, delimiter, Collections.emptyList());
+    }
+
+    @Contract("_, _, !null -> !null")
+    @SuppressWarnings("unchecked")
+    public @Unmodifiable @Nullable List<String> getStringList(
+            final @NonNull String key,
+            final @NonNull String delimiter,
+            final @Nullable List<String> defaultValue
+    ) {
+        val value = parse(key, Kind.STRING_LIST, delimiter);
+        return value != null ? (List<String>) value : defaultValue;
+    }
+
+    public @Unmodifiable @NotNull List<@NotNull Integer> getIntList(
+            final @NonNull String key,
+            final @NonNull String delimiter
+    ) {
+        return getIntList(key, delimiter, Collections.emptyList());
+    }
+
+    /**
+     * Получить список чисел, разделённых {@code delimiter}.
+     *
+     * @param key          Ключ
+     * @param delimiter    Регулярное выражение разделителя, как в {@link String#split(String)}
+     * @param defaultValue Значение по умолчанию
+     * @return Список чисел
+     * @throws NumberFormatException Если какой-либо элемент не число
+     */
+    @Contract("_, _, !null -> !null")
+    @SuppressWarnings("unchecked")
+    public @Unmodifiable @Nullable List<@NotNull Integer> getIntList(
+            final @NonNull String key,
+            final @NonNull String delimiter,
+            final @Nullable List<Integer> defaultValue
+    ) {
+        val value = parse(key, Kind.INT_LIST, delimiter);
+        return value != null ? (List<Integer>) value : defaultValue;
+    }
+
+    public int @NotNull [] getIntArray(final @NonNull String key, final @NonNull String delimiter) {
+        return getIntArray(key, delimiter, EMPTY_INT_ARRAY);
+    }
+
+    /**
+     * Получить массив чисел, разделённых {@code delimiter}. Каждый вызов возвращает
+     * новую копию, разбор выполняется один раз.
+     *
+     * @param key          Ключ
+     * @param delimiter    Регулярное выражение разделителя, как в {@link String#split(String)}
+     * @param defaultValue Значение по умолчанию
+     * @return Массив чисел
+     * @throws NumberFormatException Если какой-либо элемент не число
+     */
+    @Contract("_, _, !null -> !null")
+    public int @Nullable [] getIntArray(
+            final @NonNull String key,
+            final @NonNull String delimiter,
+            final int @Nullable [] defaultValue
+    ) {
+        return parse(key, Kind.INT_ARRAY, delimiter) instanceof int[] value ? value.clone() : defaultValue;
+    }
+
+    public long @NotNull [] getLongArray(final @NonNull String key, final @NonNull String delimiter) {
+        return getLongArray(key, delimiter, EMPTY_LONG_ARRAY);
+    }
+
+    @Contract("_, _, !null -> !null")
+    public long @Nullable [] getLongArray(
+            final @NonNull String key,
+            final @NonNull String delimiter,
+            final long @Nullable [] defaultValue
+    ) {
+        return parse(key, Kind.LONG_ARRAY, delimiter) instanceof long[] value ? value.clone() : defaultValue;
+    }
+
+    private record Parsed(String key, Kind kind, String delimiter) {
+    }
+
+    private enum Kind {
+        INT {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                try {
+                    return Integer.parseInt(value);
+                } catch (final NumberFormatException e) {
+                    return INVALID;
+                }
+            }
+        },
+        LONG {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                try {
+                    return Long.parseLong(value);
+                } catch (final NumberFormatException e) {
+                    return INVALID;
+                }
+            }
+        },
+        DOUBLE {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                try {
+                    return Double.parseDouble(value);
+                } catch (final NumberFormatException e) {
+                    return INVALID;
+                }
+            }
+        },
+        BOOLEAN {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                if (value.equalsIgnoreCase("true")) {
+                    return Boolean.TRUE;
+                } else if (value.equalsIgnoreCase("false")) {
+                    return Boolean.FALSE;
+                }
+
+                return INVALID;
+            }
+        },
+        STRING_LIST {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                return List.of(value.split(delimiter));
+            }
+        },
+        INT_ARRAY {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                val parts = value.split(delimiter);
+                val result = new int[parts.length];
+
+                for (int i = 0; i < parts.length; i++) {
+                    result[i] = Integer.parseInt(parts[i]);
+                }
+
+                return result;
+            }
+        },
+        INT_LIST {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                val array = (int[]) INT_ARRAY.parse(value, delimiter);
+                val result = new Integer[array.length];
+
+                for (int i = 0; i < array.length; i++) {
+                    result[i] = array[i];
+                }
+
+                return List.of(result);
+            }
+        },
+        LONG_ARRAY {
+            @Override
+            Object parse(final String value, final String delimiter) {
+                val parts = value.split(delimiter);
+                val result = new long[parts.length];
+
+                for (int i = 0; i < parts.length; i++) {
+                    result[i] = Long.parseLong(parts[i]);
+                }
+
+                return result;
+            }
+        };
+
+        abstract Object parse(String value, String delimiter);
+    }
+
+}
@@ -23,6 +23,9 @@ import lombok.experimental.FieldDefaults;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * @author whilein
  */
@@ -94,4 +97,9 @@ public abstract class AbstractByteOutput implements ByteOutput {
         return array.length;
     }
 
+    @Override
+    public void writeTo(final @NotNull OutputStream os) throws IOException {
+        os.write(array, 0, getLength());
+    }
+
 }
@@ -18,6 +18,9 @@ package w.util.io;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * @author whilein
  */
@@ -43,6 +46,14 @@ public interface ByteOutput {
 
     byte @NotNull [] toByteArray();
 
+    /**
+     * Записать содержимое в поток без копирования во временный массив.
+     *
+     * @param os Поток
+     * @throws IOException Ошибка записи в поток
+     */
+    void writeTo(@NotNull OutputStream os) throws IOException;
+
     @NotNull String toString();
 
 
@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2026 Whilein
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package w.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author whilein
+ */
+final class EnvSnapshotTests {
+
+    final EnvSnapshot snapshot = EnvSnapshot.of(Map.of(
+            "PORT", "8080",
+            "BAD_PORT", "http",
+            "DEBUG", "TRUE",
+            "IDS", "1,2,3",
+            "BAD_IDS", "1,x"
+    ));
+
+    @Test
+    void scalars() {
+        assertEquals(8080, snapshot.getInt("PORT", 0));
+        assertEquals(8080L, snapshot.getLong("PORT", 0));
+        assertEquals(0, snapshot.getInt("BAD_PORT", 0));
+        assertEquals(-1, snapshot.getInt("MISSING", -1));
+        assertTrue(snapshot.getBoolean("DEBUG", false));
+        assertFalse(snapshot.getBoolean("PORT", false));
+        assertEquals("http", snapshot.getString("BAD_PORT"));
+        assertThrows(IllegalStateException.class, () -> snapshot.getString("MISSING"));
+    }
+
+    @Test
+    void lists() {
+        val list = snapshot.getIntList("IDS", ",");
+        assertEquals(List.of(1, 2, 3), list);
+        assertSame(list, snapshot.getIntList("IDS", ","));
+        assertEquals(List.of("1", "2", "3"), snapshot.getStringList("IDS", ","));
+        assertEquals(List.of("1,2,3"), snapshot.getStringList("IDS", ";"));
+        assertEquals(List.of(), snapshot.getIntList("MISSING", ","));
+        assertThrows(NumberFormatException.class, () -> snapshot.getIntList("BAD_IDS", ","));
+    }
+
+    @Test
+    void arrays() {
+        val array = snapshot.getIntArray("IDS", ",");
+        assertArrayEquals(new int[]{1, 2, 3}, array);
+        assertArrayEquals(new long[]{1, 2, 3}, snapshot.getLongArray("IDS", ","));
+
+        // кэшированный массив не отдаётся наружу
+        array[0] = 10;
+        assertNotSame(array, snapshot.getIntArray("IDS", ","));
+        assertArrayEquals(new int[]{1, 2, 3}, snapshot.getIntArray("IDS", ","));
+    }
+
+}
@@ -16,9 +16,12 @@
 
 package w.util.io;
 
+import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -47,4 +50,16 @@ final class ByteOutputTests {
         assertArrayEquals(new byte[0], uncapped.toByteArray());
     }
 
+    @Test
+    @SneakyThrows
+    void uncapped_writeTo() {
+        val uncapped = UncappedByteOutput.create(1);
+        uncapped.write(new byte[]{1, 2, 3});
+
+        val os = new ByteArrayOutputStream();
+        uncapped.writeTo(os);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, os.toByteArray());
+    }
+
 }